@@ -0,0 +1,124 @@
+#!/bin/bash
+
+# CollabBoard - Auth Service Native Smoke Test
+# Starts the service against a local Postgres, walks through register/login/refresh/logout and
+# reports time to first request and resident memory.
+#
+# Usage: ./native-smoke.sh [command...]
+#
+#   docker-compose up -d postgres                 # from the project root
+#   ./mvnw -Pnative native:compile                 # builds target/auth-service
+#   ./native-smoke.sh                              # runs target/auth-service
+#
+#   # Same checks against the JVM build, for comparison
+#   ./native-smoke.sh java -jar target/auth-service-0.0.1-SNAPSHOT.jar
+#
+# The database comes from SPRING_DATASOURCE_URL etc. as usual (defaults to localhost:5432/platform).
+
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+PORT=${SMOKE_PORT:-18080}
+TIMEOUT_S=${SMOKE_TIMEOUT_S:-60}
+BASE="http://localhost:$PORT/api/auth"
+LOG=/tmp/auth-native-smoke.log
+
+if [ $# -eq 0 ]; then
+    set -- ./target/auth-service
+fi
+
+if [ "$1" = "./target/auth-service" ] && [ ! -x ./target/auth-service ]; then
+    echo -e "${YELLOW}⚠️  No native binary, build it first: ./mvnw -Pnative native:compile${NC}"
+    exit 1
+fi
+
+if lsof -ti:"$PORT" > /dev/null 2>&1; then
+    echo -e "${YELLOW}⚠️  Port $PORT is already in use${NC}"
+    exit 1
+fi
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+START=$(now_ms)
+"$@" --server.port="$PORT" > "$LOG" 2>&1 &
+PID=$!
+trap 'kill "$PID" 2> /dev/null; wait "$PID" 2> /dev/null' EXIT
+
+STARTUP=""
+while kill -0 "$PID" 2> /dev/null; do
+    # Any status code counts: the request was served
+    CODE=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/")
+    if [ "$CODE" != "000" ]; then
+        STARTUP=$(( $(now_ms) - START ))
+        break
+    fi
+    if [ $(( $(now_ms) - START )) -gt $(( TIMEOUT_S * 1000 )) ]; then
+        break
+    fi
+    sleep 0.01
+done
+
+if [ -z "$STARTUP" ]; then
+    echo -e "${RED}❌ Service did not start (see $LOG)${NC}"
+    exit 1
+fi
+echo "Time to first request: ${STARTUP} ms"
+
+FAILED=0
+
+# Helper method to POST a JSON body and check the status code; the response body lands in $BODY
+post() {
+    local name=$1 path=$2 payload=$3 expected=$4
+    local response
+    response=$(curl -s -w '\n%{http_code}' -X POST "$BASE$path" \
+        -H "Content-Type: application/json" -d "$payload")
+    BODY=$(echo "$response" | sed '$d')
+    local code
+    code=$(echo "$response" | tail -n 1)
+    if [ "$code" = "$expected" ]; then
+        echo -e "${GREEN}✅ $name ($code)${NC}"
+    else
+        echo -e "${RED}❌ $name: expected $expected, got $code${NC}"
+        echo "   $BODY"
+        FAILED=1
+    fi
+}
+
+json_field() {
+    echo "$BODY" | sed -n "s/.*\"$1\":\"\([^\"]*\)\".*/\1/p"
+}
+
+EMAIL="smoke-$(date +%s%N)@example.com"
+PASSWORD="smoke-password"
+
+post "Register" /register \
+    "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\",\"firstName\":\"Smoke\",\"lastName\":\"Test\"}" 200
+ACCESS_TOKEN=$(json_field accessToken)
+if [ -n "$ACCESS_TOKEN" ] && [ "$(echo "$BODY" | grep -c "\"email\":\"$EMAIL\"")" = "1" ]; then
+    echo -e "${GREEN}✅ Token pair and profile returned${NC}"
+else
+    echo -e "${RED}❌ Register response is missing the token or profile${NC}"
+    FAILED=1
+fi
+
+post "Register validation" /register "{\"email\":\"not-an-email\",\"password\":\"x\"}" 400
+post "Login" /login "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" 200
+REFRESH_TOKEN=$(json_field refreshToken)
+post "Wrong password" /login "{\"email\":\"$EMAIL\",\"password\":\"wrong-password\"}" 401
+post "Refresh" /refresh "{\"refreshToken\":\"$REFRESH_TOKEN\"}" 200
+REFRESH_TOKEN=$(json_field refreshToken)
+post "Logout" /logout "{\"refreshToken\":\"$REFRESH_TOKEN\"}" 200
+
+# Resident set size after the requests above
+RSS_KB=$(ps -o rss= -p "$PID" | tr -d ' ')
+echo "Resident memory: $(( RSS_KB / 1024 )) MB"
+
+if [ "$FAILED" -ne 0 ]; then
+    echo -e "${RED}❌ Smoke test failed (service log: $LOG)${NC}"
+    exit 1
+fi
+echo -e "${GREEN}Smoke test passed: first request after ${STARTUP} ms, $(( RSS_KB / 1024 )) MB resident${NC}"
@@ -0,0 +1,87 @@
+package com.smartexpenses.auth.config;
+
+import com.smartexpenses.auth.dto.AuthResponse;
+import com.smartexpenses.auth.dto.LoginRequest;
+import com.smartexpenses.auth.dto.RefreshTokenRequest;
+import com.smartexpenses.auth.dto.RegisterRequest;
+import com.smartexpenses.auth.exception.GlobalExceptionHandler;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.NativeDetector;
+
+import java.util.List;
+
+/**
+ * Native image support (mvn -Pnative native:compile, see native-smoke.sh).
+ * Spring's AOT processing covers beans, entities and controller signatures; this adds what it
+ * cannot see: JJWT's implementation classes, which jjwt-api loads by name, and the JSON
+ * types Jackson binds outside the controllers' own signatures.
+ */
+@Configuration
+@ImportRuntimeHints(NativeConfig.JjwtHints.class)
+@RegisterReflectionForBinding({
+        AuthResponse.class,
+        AuthResponse.UserInfo.class,
+        LoginRequest.class,
+        RegisterRequest.class,
+        RefreshTokenRequest.class,
+        GlobalExceptionHandler.ErrorResponse.class
+})
+public class NativeConfig {
+
+    // Runtime proxy generation is not available in a native image; the native build enhances
+    // the entities instead (hibernate-enhance-maven-plugin), so lazy associations still work.
+    // The setting's constant (AvailableSettings.BYTECODE_PROVIDER) is deprecated for removal.
+    @Bean
+    public HibernatePropertiesCustomizer nativeBytecodeProvider() {
+        return properties -> {
+            if (NativeDetector.inNativeImage()) {
+                properties.put("hibernate.bytecode.provider", "none");
+            }
+        };
+    }
+
+    static class JjwtHints implements RuntimeHintsRegistrar {
+
+        // Instantiated or called reflectively by jjwt-api (Jwts, Keys, Jwks)
+        static final List<String> REFLECTIVE_TYPES = List.of(
+                "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+                "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+                "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+                "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+                "io.jsonwebtoken.impl.security.JwksBridge",
+                "io.jsonwebtoken.impl.security.KeysBridge",
+                "io.jsonwebtoken.impl.security.StandardCurves",
+                "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyOperations",
+                "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+                // JSON (de)serializer found through META-INF/services
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        );
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            REFLECTIVE_TYPES.forEach(type -> hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS));
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+        }
+    }
+}
@@ -5,7 +5,10 @@ import com.smartexpenses.auth.dto.AuthResponse;
 import com.smartexpenses.auth.dto.LoginRequest;
 import com.smartexpenses.auth.dto.RefreshTokenRequest;
 import com.smartexpenses.auth.dto.RegisterRequest;
+import com.smartexpenses.auth.exception.AuthException;
 import com.smartexpenses.auth.service.AuthService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +17,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -21,6 +26,7 @@ public class AuthController {
 
 
     private final AuthService authService;
+    private final MeterRegistry meterRegistry;
 
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request){
@@ -30,12 +36,12 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request){
-        AuthResponse response = authService.login(request);
+        AuthResponse response = timed("auth.login", () -> authService.login(request));
         return ResponseEntity.ok(response);
     }
     @PostMapping("/refresh")
     public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
-        AuthResponse response = authService.refreshToken(request.getRefreshToken());
+        AuthResponse response = timed("auth.refresh", () -> authService.refreshToken(request.getRefreshToken()));
         return ResponseEntity.ok(response);
     }
 
@@ -44,4 +50,24 @@ public class AuthController {
         authService.logout(request.getRefreshToken());
         return ResponseEntity.ok().build();
     }
+
+    // Helper method to time a token-issuing call, tagged with how it ended
+    // (success, or the status of the rejection: unauthorized, forbidden, ...)
+    private AuthResponse timed(String name, Supplier<AuthResponse> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            AuthResponse response = call.get();
+            outcome = "success";
+            return response;
+        } catch (AuthException e) {
+            outcome = e.getStatus().name().toLowerCase();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .description("Time to issue a token pair, password check or token rotation included")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
 }
@@ -5,6 +5,7 @@ import com.smartexpenses.auth.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -16,6 +17,9 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID
 
     Optional<RefreshToken> findByToken(String token);
 
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.token = :token")
+    Optional<RefreshToken> findByTokenWithUser(@Param("token") String token);
+
     @Modifying
     @Query("DELETE FROM RefreshToken rt WHERE rt.user = :user")
     void deleteByUser(User user);
@@ -26,8 +30,6 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID
 
     void getAllByUser(User user);
 
-    void deleteAllByUser(User user);
-
     void deleteByExpiresAtBefore(LocalDateTime time);
 
 }
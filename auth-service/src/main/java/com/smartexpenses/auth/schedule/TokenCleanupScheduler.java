@@ -1,13 +1,16 @@
 package com.smartexpenses.auth.schedule;
 
 import com.smartexpenses.auth.repository.RefreshTokenRepository;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 
+// Nothing injects it, so it must not be lazy (fast-start profile) or it would never run
 @Component
+@Lazy(false)
 @EnableScheduling
 public class TokenCleanupScheduler {
 
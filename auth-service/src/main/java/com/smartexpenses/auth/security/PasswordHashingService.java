@@ -0,0 +1,135 @@
+package com.smartexpenses.auth.security;
+
+import com.smartexpenses.auth.exception.AuthException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs bcrypt hashing on a dedicated, bounded pool instead of servlet threads.
+ * A login burst can only occupy the hashing threads; once the queue is full further
+ * attempts are rejected immediately with 503, so refresh and logout keep their CPU.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${auth.password.hash-threads:0}") int threads,
+                                  @Value("${auth.password.hash-queue-capacity:64}") int queueCapacity,
+                                  @Value("${auth.password.hash-timeout-ms:3000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+
+        // Leave at least one core free for the cheap endpoints (refresh, logout)
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        logger.info("Password hashing pool started: threads={}, queueCapacity={}", poolSize, queueCapacity);
+    }
+
+    public String encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Verifies a password and, when the stored hash was produced with a lower cost than the
+     * current one, re-hashes it in the same task so the caller can persist the upgrade.
+     */
+    public Verification verify(String rawPassword, String encodedPassword) {
+        return submit(() -> {
+            if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return new Verification(false, null);
+            }
+            String upgradedHash = passwordEncoder.upgradeEncoding(encodedPassword)
+                    ? passwordEncoder.encode(rawPassword)
+                    : null;
+            return new Verification(true, upgradedHash);
+        });
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            logger.warn("Password hashing queue full, rejecting request (active={}, queued={})",
+                    executor.getActiveCount(), executor.getQueue().size());
+            throw new AuthException("Too many authentication attempts in progress, please retry shortly",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCount.incrementAndGet();
+            throw new AuthException("Authentication timed out, please retry shortly", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthException("Authentication interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @param matches      whether the raw password matched the stored hash
+     * @param upgradedHash new hash at the current cost, or null if no upgrade is needed
+     */
+    public record Verification(boolean matches, String upgradedHash) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.smartexpenses.auth.security;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,13 +17,27 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class SecurityConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+
+    // Never go below Spring's default cost, never above what a login can afford
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+
     @Value("${cors.allowed.origins:http://localhost:3000,http://localhost:3001}")
     private List<String> allowedOrigins;
 
+    // 0 = calibrate at startup against auth.password.target-hash-ms
+    @Value("${auth.password.bcrypt-strength:0}")
+    private int bcryptStrength;
+
+    @Value("${auth.password.target-hash-ms:250}")
+    private long targetHashMs;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 
@@ -29,6 +45,7 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)  // Disable CSRF for REST API
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()  // Public endpoints
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()  // Not routed by nginx
                         .anyRequest().authenticated()  // All others need auth
                 )
                 .sessionManagement(session -> session
@@ -53,6 +70,38 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptStrength > 0 ? bcryptStrength : calibrateBcryptStrength();
+        logger.info("Using bcrypt strength {}", strength);
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * Picks the highest bcrypt cost whose hash time stays within the latency target on this
+     * machine. Each cost step doubles the work, so one timed probe is enough to extrapolate.
+     * Pin auth.password.bcrypt-strength when running replicas on heterogeneous hardware.
+     */
+    private int calibrateBcryptStrength() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        probe.encode("calibration-warmup");
+
+        long start = System.nanoTime();
+        probe.encode("calibration-probe");
+        long probeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        int strength = strengthFor(probeMs, targetHashMs);
+        logger.info("Calibrated bcrypt strength {} (~{} ms per hash, target {} ms)",
+                strength, Math.max(1, probeMs) << (strength - MIN_BCRYPT_STRENGTH), targetHashMs);
+        return strength;
+    }
+
+    // Highest cost within the target, given the time of one hash at the minimum cost
+    static int strengthFor(long probeMs, long targetHashMs) {
+        long projectedMs = Math.max(1, probeMs);
+        int strength = MIN_BCRYPT_STRENGTH;
+        while (strength < MAX_BCRYPT_STRENGTH && projectedMs * 2 <= targetHashMs) {
+            strength++;
+            projectedMs *= 2;
+        }
+        return strength;
     }
 }
@@ -10,14 +10,15 @@ import com.smartexpenses.auth.model.User;
 import com.smartexpenses.auth.repository.RefreshTokenRepository;
 import com.smartexpenses.auth.repository.UserRepository;
 import com.smartexpenses.auth.security.JwtService;
+import com.smartexpenses.auth.security.PasswordHashingService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -32,15 +33,20 @@ public class AuthService {
     private final UserRepository userRepository;
     private final RefreshTokenRepository refreshTokenRepository;
     private final JwtService jwtService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${jwt.expiration}")
     private Long expiresIn;
 
 
     private AuthResponse generateTokenAndAuthResponse(User user) {
-        String accessToken = jwtService.generateToken(user.getId(), user.getEmail());
         String refreshToken = createRefreshToken(user);
+        return buildAuthResponse(user, refreshToken);
+    }
+
+    private AuthResponse buildAuthResponse(User user, String refreshToken) {
+        String accessToken = jwtService.generateToken(user.getId(), user.getEmail());
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
@@ -57,32 +63,38 @@ public class AuthService {
                 .build();
     }
 
-    @Transactional
+    // Not @Transactional: hashing runs before any connection is taken from the pool
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new AuthException("Email already registered", HttpStatus.BAD_REQUEST);
         }
-        // Create user
-        User user = User.builder()
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .firstName(request.getFirstName())
-                .lastName(request.getLastName())
-                .isActive(true)
-                .isEmailVerified(false)
-                .build();
-
-        user = userRepository.save(user);
-
-        return generateTokenAndAuthResponse(user);
-
+        String passwordHash = passwordHashingService.encode(request.getPassword());
+
+        return transactionTemplate.execute(status -> {
+            // Create user
+            User user = User.builder()
+                    .email(request.getEmail())
+                    .password(passwordHash)
+                    .firstName(request.getFirstName())
+                    .lastName(request.getLastName())
+                    .isActive(true)
+                    .isEmailVerified(false)
+                    .build();
+
+            user = userRepository.save(user);
+
+            return generateTokenAndAuthResponse(user);
+        });
     }
-    @Transactional
+
+    // Not @Transactional: a DB connection must not be held while waiting for the hashing pool
     public AuthResponse login(LoginRequest request) {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new AuthException("Invalid email or password", HttpStatus.UNAUTHORIZED));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        PasswordHashingService.Verification verification =
+                passwordHashingService.verify(request.getPassword(), user.getPassword());
+        if (!verification.matches()) {
             throw new AuthException("Invalid email or password", HttpStatus.UNAUTHORIZED);
         }
 
@@ -90,14 +102,24 @@ public class AuthService {
             throw new AuthException("Account is deactivated", HttpStatus.FORBIDDEN);
         }
 
-        return generateTokenAndAuthResponse(user);
+        return transactionTemplate.execute(status -> {
+            User authenticated = user;
+            // Transparent rehash when the configured bcrypt cost went up
+            if (verification.upgradedHash() != null) {
+                authenticated.setPassword(verification.upgradedHash());
+                authenticated = userRepository.save(authenticated);
+                logger.info("Upgraded password hash cost for user: {}", authenticated.getId());
+            }
+            return generateTokenAndAuthResponse(authenticated);
+        });
     }
 
 
     @Transactional
     public AuthResponse refreshToken(String refreshTokenValue) {
 
-        RefreshToken token = refreshTokenRepository.findByToken(refreshTokenValue)
+        // Token and user in one query instead of a lazy proxy load
+        RefreshToken token = refreshTokenRepository.findByTokenWithUser(refreshTokenValue)
                 .orElseThrow(() -> new AuthException("Invalid refresh token", HttpStatus.UNAUTHORIZED));
 
         User user = token.getUser();
@@ -110,7 +132,7 @@ public class AuthService {
         // 2. REUSE DETECTION
         if (token.isUsed()) {
 
-            refreshTokenRepository.deleteAllByUser(user);
+            refreshTokenRepository.deleteByUser(user);
             sendTokenReuseAlert(user);
             throw new AuthException("Refresh token reuse detected", HttpStatus.UNAUTHORIZED);
         }
@@ -121,21 +143,7 @@ public class AuthService {
         String newRefreshToken = createRefreshToken(user);
 
         // 5. Creăm access token nou
-        String newAccessToken = jwtService.generateToken(user.getId(), user.getEmail());
-
-        return AuthResponse.builder()
-                .accessToken(newAccessToken)
-                .refreshToken(newRefreshToken)
-                .expiresIn(expiresIn / 1000)
-                .tokenType("Bearer")
-                .user(AuthResponse.UserInfo.builder()
-                        .id(user.getId())
-                        .email(user.getEmail())
-                        .firstName(user.getFirstName())
-                        .lastName(user.getLastName())
-                        .avatarUrl(user.getAvatarUrl())
-                        .build())
-                .build();
+        return buildAuthResponse(user, newRefreshToken);
     }
 
     private void sendTokenReuseAlert(User user) {
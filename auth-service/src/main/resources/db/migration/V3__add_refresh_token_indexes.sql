@@ -0,0 +1,13 @@
+-- Indexes for the hot queries, now that Flyway owns the schema (Hibernate only validates it)
+-- Schemas created by ddl-auto=update are baselined at V1, so V1's indexes may be missing there.
+
+-- Revoking a user's tokens on logout / refresh
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_id ON app_auth.refresh_tokens(user_id);
+
+-- Purging expired tokens
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON app_auth.refresh_tokens(expires_at);
+
+-- Lookups by token and by email use the indexes behind their UNIQUE constraints;
+-- these plain copies only doubled the write cost
+DROP INDEX IF EXISTS app_auth.idx_refresh_tokens_token;
+DROP INDEX IF EXISTS app_auth.idx_users_email;
@@ -0,0 +1,35 @@
+package com.smartexpenses.auth.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeConfigTests {
+
+	@Test
+	void jjwtImplementationClassesExist() {
+		// A JJWT upgrade that renames one of them would only fail inside the native image
+		ClassLoader classLoader = getClass().getClassLoader();
+		for (String type : NativeConfig.JjwtHints.REFLECTIVE_TYPES) {
+			assertThat(ClassUtils.isPresent(type, classLoader)).as(type).isTrue();
+		}
+	}
+
+	@Test
+	void registersJjwtHints() {
+		RuntimeHints hints = new RuntimeHints();
+		new NativeConfig.JjwtHints().registerHints(hints, getClass().getClassLoader());
+
+		assertThat(RuntimeHintsPredicates.reflection()
+				.onType(TypeReference.of("io.jsonwebtoken.impl.DefaultJwtBuilder"))).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection()
+				.onType(TypeReference.of("io.jsonwebtoken.impl.security.KeysBridge"))).accepts(hints);
+		assertThat(RuntimeHintsPredicates.resource()
+				.forResource("META-INF/services/io.jsonwebtoken.io.Serializer")).accepts(hints);
+	}
+
+}
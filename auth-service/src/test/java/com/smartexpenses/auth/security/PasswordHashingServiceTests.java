@@ -0,0 +1,80 @@
+package com.smartexpenses.auth.security;
+
+import com.smartexpenses.auth.exception.AuthException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingServiceTests {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final PasswordHashingService service = new PasswordHashingService(new BlockingEncoder(), 1, 1, 10000);
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		service.shutdown();
+	}
+
+	@Test
+	void fullQueueIsRejectedWith503() throws Exception {
+		// One hash running, one queued: the pool and its queue are full
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"));
+		long deadline = System.currentTimeMillis() + 5000;
+		while ((service.getActiveCount() < 1 || service.getQueueSize() < 1) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+
+		assertThatThrownBy(() -> service.encode("third"))
+				.isInstanceOfSatisfying(AuthException.class,
+						e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+		assertThat(service.getRejectedCount()).isEqualTo(1);
+
+		// Accepted work still completes once the pool frees up
+		release.countDown();
+		assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:first");
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:second");
+	}
+
+	@Test
+	void slowHashTimesOutWith503() {
+		PasswordHashingService impatient = new PasswordHashingService(new BlockingEncoder(), 1, 1, 50);
+		try {
+			assertThatThrownBy(() -> impatient.encode("slow"))
+					.isInstanceOfSatisfying(AuthException.class,
+							e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+			assertThat(impatient.getRejectedCount()).isEqualTo(1);
+		} finally {
+			impatient.shutdown();
+		}
+	}
+
+	// Hashes only once released, so tests control how long the pool stays busy
+	private final class BlockingEncoder implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "hash:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	}
+
+}
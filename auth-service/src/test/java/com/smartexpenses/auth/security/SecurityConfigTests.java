@@ -0,0 +1,25 @@
+package com.smartexpenses.auth.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityConfigTests {
+
+	@Test
+	void calibrationPicksTheHighestCostWithinTheTarget() {
+		// 10 ms at cost 10 doubles to 160 ms at cost 14; 320 ms would miss 250 ms
+		assertThat(SecurityConfig.strengthFor(10, 250)).isEqualTo(14);
+		assertThat(SecurityConfig.strengthFor(125, 250)).isEqualTo(11);
+	}
+
+	@Test
+	void calibrationStaysWithinTenToSixteen() {
+		// A slow machine never drops below Spring's default cost
+		assertThat(SecurityConfig.strengthFor(5000, 250)).isEqualTo(10);
+		// A fast machine (or a probe under a millisecond) never goes past the cap
+		assertThat(SecurityConfig.strengthFor(0, 250)).isEqualTo(16);
+		assertThat(SecurityConfig.strengthFor(1, Long.MAX_VALUE)).isEqualTo(16);
+	}
+
+}
@@ -21,6 +21,8 @@ export default function BoardsPage() {
   const [newBoardIsPublic, setNewBoardIsPublic] = useState(false);
   const [showPublicBoards, setShowPublicBoards] = useState(false);
   const [publicBoards, setPublicBoards] = useState<Board[]>([]);
+  const [publicBoardsCursor, setPublicBoardsCursor] = useState<string | null>(null);
+  const [publicBoardsTotal, setPublicBoardsTotal] = useState<number | null>(null);
   
   // Delete Modal State
   const [showDeleteModal, setShowDeleteModal] = useState(false);
@@ -97,10 +99,12 @@ export default function BoardsPage() {
 
   const currentUser = useAuthStore((state) => state.user);
 
-  const handleLoadPublicBoards = async () => {
+  const handleLoadPublicBoards = async (loadMore = false) => {
     try {
-      const publicBoardsList = await apiClient.getPublicBoards();
-      setPublicBoards(publicBoardsList);
+      const page = await apiClient.getPublicBoardsPage(loadMore ? publicBoardsCursor ?? undefined : undefined);
+      setPublicBoards((prev) => (loadMore ? [...prev, ...page.items] : page.items));
+      setPublicBoardsCursor(page.nextCursor ?? null);
+      if (!loadMore) setPublicBoardsTotal(page.total ?? null);
       setShowPublicBoards(true);
     } catch (err: any) {
       console.error('Failed to load public boards:', err);
@@ -166,7 +170,7 @@ export default function BoardsPage() {
             <span className="text-xl leading-none">+</span> New Board
           </button>
           <button
-            onClick={handleLoadPublicBoards}
+            onClick={() => handleLoadPublicBoards()}
             className="bg-white/60 hover:bg-white border border-gray-200 text-gray-700 font-bold px-6 py-3 rounded-xl transition duration-200 flex items-center gap-2 shadow-sm hover:shadow-md backdrop-blur-sm"
           >
             Explore Public Gallery
@@ -210,6 +214,16 @@ export default function BoardsPage() {
                 ))}
               </div>
             )}
+            {publicBoardsCursor && (
+              <div className="flex justify-center mt-8">
+                <button
+                  onClick={() => handleLoadPublicBoards(true)}
+                  className="text-sm font-semibold text-gray-600 hover:text-gray-900 bg-white/60 px-4 py-2 rounded-lg border border-gray-200 transition-colors"
+                >
+                  Load more{publicBoardsTotal !== null ? ` (${publicBoards.length} of ${publicBoardsTotal})` : ''}
+                </button>
+              </div>
+            )}
           </div>
         )}
 
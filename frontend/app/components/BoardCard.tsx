@@ -1,8 +1,9 @@
 'use client';
 
 import { Board } from '@/app/types';
+import { apiClient } from '@/app/lib/api';
 import Link from 'next/link';
-import React from 'react';
+import React, { useEffect, useState } from 'react';
 
 interface BoardCardProps {
   board: Board;
@@ -11,6 +12,30 @@ interface BoardCardProps {
 }
 
 export default function BoardCard({ board, onDelete, canDelete = false }: BoardCardProps) {
+  const thumbnailPath = board.summary?.thumbnailUrl;
+  const [thumbnail, setThumbnail] = useState<string | null>(null);
+
+  // The URL changes with the board's content version, so this refetches only after edits
+  useEffect(() => {
+    if (!thumbnailPath) return;
+    let objectUrl: string | null = null;
+    let cancelled = false;
+    apiClient.getImageUrl(thumbnailPath)
+      .then((url) => {
+        if (cancelled) {
+          URL.revokeObjectURL(url);
+          return;
+        }
+        objectUrl = url;
+        setThumbnail(url);
+      })
+      .catch(() => setThumbnail(null));
+    return () => {
+      cancelled = true;
+      if (objectUrl) URL.revokeObjectURL(objectUrl);
+    };
+  }, [thumbnailPath]);
+
   return (
     <div className="group relative">
       {/* Delete Button - Positioned outside the link to prevent navigation */}
@@ -53,6 +78,15 @@ export default function BoardCard({ board, onDelete, canDelete = false }: BoardC
             )}
           </div>
 
+          {thumbnail && (
+            // eslint-disable-next-line @next/next/no-img-element
+            <img
+              src={thumbnail}
+              alt=""
+              className="w-full h-32 object-contain rounded-xl bg-white/70 border border-gray-100 mb-4 relative z-10"
+            />
+          )}
+
           <h3 className="text-xl font-bold text-gray-900 mb-2 tracking-tight group-hover:text-blue-600 transition-colors relative z-10">
             {board.name}
           </h3>
@@ -63,7 +97,9 @@ export default function BoardCard({ board, onDelete, canDelete = false }: BoardC
 
           <div className="mt-auto pt-4 border-t border-gray-100/50 flex items-center justify-between relative z-10">
             <span className="text-xs font-semibold text-gray-400 uppercase tracking-wider">
-              Updated {new Date(board.updatedAt || board.createdAt).toLocaleDateString(undefined, { month: 'short', day: 'numeric' })}
+              Updated {new Date(board.summary?.lastActivityAt || board.updatedAt || board.createdAt).toLocaleDateString(undefined, { month: 'short', day: 'numeric' })}
+              {board.summary && ` · ${board.summary.shapeCount} shapes`}
+              {board.summary && board.summary.activeUsers > 0 && ` · ${board.summary.activeUsers} online`}
             </span>
             <span className="text-xs font-bold text-blue-600 opacity-0 group-hover:opacity-100 transition-opacity transform translate-x-2 group-hover:translate-x-0">
               Open Board →
@@ -3,7 +3,7 @@
 import { useEffect, useRef, useState, useCallback } from 'react';
 import * as fabric from 'fabric';
 import { wsClient } from '@/app/lib/websocket';
-import { WebSocketMessage, WebSocketMessageType, ShapeType, Shape } from '@/app/types';
+import { WebSocketMessage, WebSocketMessageType, ShapeType, Shape, BoardPresence } from '@/app/types';
 import { useAuthStore } from '@/app/store/authStore';
 import WhiteboardToolbar from './WhiteboardToolbar';
 import TextInputModal from './TextInputModal';
@@ -165,7 +165,7 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
     }
 
     if (fabricObject) {
-      (fabricObject as any).set('data', { shapeId: shape.id, layerOrder: shape.layerOrder });
+      (fabricObject as any).set('data', { shapeId: shape.id, layerOrder: shape.layerOrder, layerKey: shape.layerKey, version: shape.version });
       canvas.add(fabricObject);
     }
   }, []);
@@ -182,7 +182,7 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
           if (currentUserId && message.userId === currentUserId) {
             const localShape = existingObjects.find((obj: any) => obj.data?.isLocal && !obj.data?.shapeId);
             if (localShape) {
-              (localShape as any).set('data', { ...(localShape as any).data, shapeId: message.shapeId, isLocal: false });
+              (localShape as any).set('data', { ...(localShape as any).data, shapeId: message.shapeId, isLocal: false, layerKey: message.layerKey, version: message.version });
               return;
             }
           }
@@ -193,6 +193,8 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
             type: message.shapeType,
             data: message.shapeData,
             layerOrder: message.layerOrder || 0,
+            layerKey: message.layerKey,
+            version: message.version,
             createdAt: new Date().toISOString(),
             updatedAt: new Date().toISOString(),
             createdBy: message.userId,
@@ -202,8 +204,20 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
         }
         break;
       case WebSocketMessageType.SHAPE_UPDATE:
+      case WebSocketMessageType.SHAPE_CONFLICT:
         const objects = canvas.getObjects();
         const obj = objects.find((o: any) => o.data?.shapeId === message.shapeId);
+        if (obj && message.version !== undefined && message.version !== null) {
+          (obj as any).set('data', { ...(obj as any).data, version: message.version });
+        }
+        // Restack: shapes are ordered by layerKey, so its index is the number of lower keys
+        if (obj && message.layerKey && message.layerKey !== (obj as any).data?.layerKey) {
+          (obj as any).set('data', { ...(obj as any).data, layerKey: message.layerKey });
+          const index = objects.filter((o: any) => o !== obj && o.data?.layerKey && o.data.layerKey < message.layerKey!).length;
+          canvas.moveObjectTo(obj, index);
+          canvas.renderAll();
+        }
+        // A conflict without data means we lost a race; the next full load will resync the shape
         if (obj && message.shapeData) {
           isApplyingServerUpdateRef.current = true;
           
@@ -233,6 +247,34 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
           }, 100);
         }
         break;
+      case WebSocketMessageType.SHAPE_VERSIONS:
+        // CRDT ops were persisted: later versioned updates are based on these versions
+        if (message.versions) {
+          canvas.getObjects().forEach((o: any) => {
+            const version = o.data?.shapeId ? message.versions![o.data.shapeId] : undefined;
+            if (version !== undefined) {
+              o.set('data', { ...o.data, version });
+            }
+          });
+        }
+        break;
+      case WebSocketMessageType.GROUP_TRANSFORM:
+        // One frame moves the whole subtree; every listed shape was bumped one version
+        if (message.transform && message.shapeIds) {
+          const moved = new Set(message.shapeIds);
+          isApplyingServerUpdateRef.current = true;
+          canvas.getObjects().forEach((o: any) => {
+            if (!o.data?.shapeId || !moved.has(o.data.shapeId)) return;
+            o.set({ left: (o.left ?? 0) + message.transform!.dx, top: (o.top ?? 0) + message.transform!.dy });
+            o.set('data', { ...o.data, version: (o.data.version ?? 0) + 1 });
+            o.setCoords();
+          });
+          canvas.renderAll();
+          setTimeout(() => {
+            isApplyingServerUpdateRef.current = false;
+          }, 100);
+        }
+        break;
       case WebSocketMessageType.SHAPE_DELETE:
         const objects2 = canvas.getObjects();
         const objToRemove = objects2.find((o: any) => o.data?.shapeId === message.shapeId);
@@ -276,6 +318,20 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
   }, []);
 
   const handlePresenceEvent = useCallback((message: WebSocketMessage) => {
+    if (message.type === WebSocketMessageType.PRESENCE_DIFF && message.presence) {
+      const { joined, left } = message.presence;
+      setActiveUsers((prev) => {
+        const newMap = new Map(prev);
+        left.forEach((user) => newMap.delete(user.userId));
+        joined.forEach((user) => {
+          if (!newMap.has(user.userId)) {
+            newMap.set(user.userId, { userId: user.userId, email: user.email || 'Unknown' });
+          }
+        });
+        return newMap;
+      });
+      return;
+    }
     if (message.userId) {
       setActiveUsers((prev) => {
         const newMap = new Map(prev);
@@ -292,6 +348,18 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
     }
   }, []);
 
+  const handlePresenceSnapshot = useCallback((presence: BoardPresence) => {
+    setActiveUsers((prev) => {
+      const newMap = new Map(prev);
+      presence.users.forEach((user) => {
+        if (!newMap.has(user.userId)) {
+          newMap.set(user.userId, { userId: user.userId, email: user.email || 'Unknown' });
+        }
+      });
+      return newMap;
+    });
+  }, []);
+
   const extractShapeData = useCallback((obj: fabric.Object): { type: string; data: Record<string, any> } | null => {
     if (obj instanceof fabric.Rect) {
       return {
@@ -796,13 +864,15 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
         if (isApplyingServerUpdateRef.current) return;
         
         // Throttle updates during drag to prevent network/render lag (~20fps sync)
+        // Sent as CRDT ops: they merge without a version check; the versions they get once
+        // persisted arrive as SHAPE_VERSIONS
         const now = Date.now();
         if (now - lastShapeUpdateRef.current > 50) {
             const obj = e.target as any;
             if (obj?.data?.shapeId && !obj.data?.isLocal) {
                 const shapeData = extractShapeData(obj);
                 if (shapeData && wsClient.isConnected()) {
-                    wsClient.sendShapeUpdate({
+                    wsClient.sendShapeOp({
                         boardId,
                         shapeId: obj.data.shapeId,
                         shapeData: shapeData.data,
@@ -831,6 +901,7 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
                 boardId,
                 shapeId: obj.data.shapeId,
                 shapeData: shapeData.data,
+                version: obj.data.version,
             });
             }
         }
@@ -879,6 +950,25 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
     });
 
     const handleKeyDown = (e: KeyboardEvent) => {
+      // ']' brings the selected shape to the front, '[' sends it to the back
+      if ((e.key === ']' || e.key === '[') && canvas.getActiveObject()) {
+        const obj = canvas.getActiveObject() as any;
+        if (obj?.data?.shapeId && wsClient.isConnected()) {
+          e.preventDefault();
+          if (e.key === ']') {
+            canvas.bringObjectToFront(obj);
+          } else {
+            canvas.sendObjectToBack(obj);
+          }
+          canvas.renderAll();
+          wsClient.sendShapeReorder({
+            boardId,
+            shapeId: obj.data.shapeId,
+            position: e.key === ']' ? 'front' : 'back',
+          });
+        }
+        return;
+      }
       if ((e.key === 'Delete' || e.key === 'Backspace') && canvas.getActiveObject()) {
         e.preventDefault();
         const obj = canvas.getActiveObject() as any;
@@ -1209,6 +1299,7 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
         onShapeEvent: (msg) => handleShapeEvent(msg, canvas),
         onCursorEvent: handleCursorEvent,
         onPresenceEvent: handlePresenceEvent,
+        onPresenceSnapshot: handlePresenceSnapshot,
         onConnect: () => {
           console.log('Connected to whiteboard session:', boardId);
         },
@@ -1242,7 +1333,7 @@ export default function WhiteboardCanvas({ boardId, token, shapes, onShapeChange
       fabricCanvasRef.current = null;
       isInitializedRef.current = false;
     };
-  }, [boardId, token, handleShapeEvent, handleCursorEvent, handlePresenceEvent, setupCanvasEvents, handleToolSelect]);
+  }, [boardId, token, handleShapeEvent, handleCursorEvent, handlePresenceEvent, handlePresenceSnapshot, setupCanvasEvents, handleToolSelect]);
 
   // Secondary effect for shapes loading - Ensures rendering after fetch
   useEffect(() => {
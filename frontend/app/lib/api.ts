@@ -1,4 +1,4 @@
-import { Board, Shape, Collaborator, AuthResponse, LoginRequest, RegisterRequest } from '@/app/types';
+import { Board, Shape, Collaborator, AuthResponse, LoginRequest, RegisterRequest, ShapeSearchResponse, CursorPage, BoardTile } from '@/app/types';
 
 // Client-side URLs (public/browser access via Nginx)
 const PUBLIC_API_URL = process.env.NEXT_PUBLIC_API_URL || ''; 
@@ -121,7 +121,7 @@ class ApiClient {
         throw new Error('Not authenticated. Please login first.');
       }
 
-      const response = await fetch(`${getApiBaseUrl()}/api/boards`, {
+      const response = await fetch(`${getApiBaseUrl()}/api/boards?include=summary`, {
         headers: this.getHeaders(),
       });
 
@@ -182,7 +182,7 @@ class ApiClient {
         throw new Error('Not authenticated. Please login first.');
       }
 
-      const response = await fetch(`${getApiBaseUrl()}/api/boards`, {
+      const response = await fetch(`${getApiBaseUrl()}/api/boards?include=summary`, {
         method: 'POST',
         headers: this.getHeaders(),
         body: JSON.stringify(data),
@@ -232,6 +232,19 @@ class ApiClient {
     }
   }
 
+  async getPublicBoardsPage(cursor?: string, limit = 24): Promise<CursorPage<Board>> {
+    const params = new URLSearchParams({ limit: String(limit) });
+    if (cursor) params.set('cursor', cursor);
+    params.set('include', 'summary');
+    const response = await fetch(`${getApiBaseUrl()}/api/boards/public/page?${params}`);
+
+    if (!response.ok) {
+      throw new Error('Failed to fetch public boards');
+    }
+
+    return response.json();
+  }
+
   async getPublicBoards(): Promise<Board[]> {
     const response = await fetch(`${getApiBaseUrl()}/api/boards/public`);
 
@@ -242,6 +255,33 @@ class ApiClient {
     return response.json();
   }
 
+  async searchBoards(query: string, cursor?: string, limit = 20): Promise<CursorPage<Board>> {
+    const params = new URLSearchParams({ q: query, limit: String(limit) });
+    if (cursor) params.set('cursor', cursor);
+    const response = await fetch(`${getApiBaseUrl()}/api/boards/search?${params}`, {
+      headers: this.getHeaders(),
+    });
+
+    if (!response.ok) {
+      throw new Error('Failed to search boards');
+    }
+
+    return response.json();
+  }
+
+  // Returns an object URL for the image; callers revoke it when done
+  async getImageUrl(path: string): Promise<string> {
+    const response = await fetch(`${getApiBaseUrl()}${path}`, {
+      headers: this.getHeaders(),
+    });
+
+    if (!response.ok) {
+      throw new Error('Failed to fetch image');
+    }
+
+    return URL.createObjectURL(await response.blob());
+  }
+
   // Shape endpoints
   async getShapes(boardId: string): Promise<Shape[]> {
     try {
@@ -312,6 +352,32 @@ class ApiClient {
     }
   }
 
+  async searchBoard(boardId: string, query: string, page = 0, size = 20): Promise<ShapeSearchResponse> {
+    const params = new URLSearchParams({ q: query, page: String(page), size: String(size) });
+    const response = await fetch(`${getApiBaseUrl()}/api/boards/${boardId}/search?${params}`, {
+      headers: this.getHeaders(),
+    });
+
+    if (!response.ok) {
+      throw new Error('Failed to search board');
+    }
+
+    return response.json();
+  }
+
+  // Tiles are revalidated with their ETag, so refetching an unchanged tile is cheap
+  async getTile(boardId: string, zoom: number, x: number, y: number): Promise<BoardTile> {
+    const response = await fetch(`${getApiBaseUrl()}/api/boards/${boardId}/tiles/${zoom}/${x}/${y}.json`, {
+      headers: this.getHeaders(),
+    });
+
+    if (!response.ok) {
+      throw new Error('Failed to fetch tile');
+    }
+
+    return response.json();
+  }
+
   // Collaborator endpoints
   async getCollaborators(boardId: string): Promise<Collaborator[]> {
     const response = await fetch(`${getApiBaseUrl()}/api/boards/${boardId}/collaborators`, {
@@ -1,6 +1,6 @@
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
-import { WebSocketMessage, WebSocketMessageType } from '@/app/types';
+import { BoardPresence, WebSocketMessage, WebSocketMessageType } from '@/app/types';
 
 // Deduce WebSocket URL from API URL if not explicitly provided
 const getWsUrl = () => {
@@ -36,6 +36,7 @@ class WebSocketClient {
     onShapeEvent?: (message: WebSocketMessage) => void;
     onCursorEvent?: (message: WebSocketMessage) => void;
     onPresenceEvent?: (message: WebSocketMessage) => void;
+    onPresenceSnapshot?: (presence: BoardPresence) => void;
     onConnect?: () => void;
     onDisconnect?: () => void;
     onError?: (error: Error) => void;
@@ -69,6 +70,12 @@ class WebSocketClient {
           callbacks.onShapeEvent?.(event);
         });
 
+        // Conflict replies for our own stale updates
+        this.client?.subscribe('/user/queue/shapes', (message) => {
+          const event: WebSocketMessage = JSON.parse(message.body);
+          callbacks.onShapeEvent?.(event);
+        });
+
         // Subscribe to cursor events
         this.client?.subscribe(`/topic/board/${boardId}/cursors`, (message) => {
           const event: WebSocketMessage = JSON.parse(message.body);
@@ -81,6 +88,12 @@ class WebSocketClient {
           callbacks.onPresenceEvent?.(event);
         });
 
+        // One-shot snapshot of users already on the board
+        this.client?.subscribe(`/app/board/${boardId}/presence`, (message) => {
+          const presence: BoardPresence = JSON.parse(message.body);
+          callbacks.onPresenceSnapshot?.(presence);
+        });
+
         callbacks.onConnect?.();
       },
       onDisconnect: () => {
@@ -109,7 +122,7 @@ class WebSocketClient {
       boardId: data.boardId,
       shapeType: data.shapeType as any,
       shapeData: data.shapeData,
-      layerOrder: data.layerOrder,
+      layerKey: data.layerKey,
     };
 
     this.client.publish({
@@ -123,6 +136,8 @@ class WebSocketClient {
     shapeId: string;
     shapeData?: Record<string, any>;
     layerOrder?: number;
+    version?: number;
+    patch?: boolean;
   }) {
     if (!this.client?.active) return;
 
@@ -132,6 +147,8 @@ class WebSocketClient {
       shapeId: data.shapeId,
       shapeData: data.shapeData,
       layerOrder: data.layerOrder,
+      version: data.version,
+      patch: data.patch,
     };
 
     this.client.publish({
@@ -140,6 +157,30 @@ class WebSocketClient {
     });
   }
 
+  // CRDT op: fields are merged last-writer-wins on the server; deletes win over edits
+  sendShapeOp(data: {
+    boardId: string;
+    shapeId: string;
+    delete?: boolean;
+    shapeData?: Record<string, any>;
+    layerKey?: string;
+  }) {
+    if (!this.client?.active) return;
+
+    const message: WebSocketMessage = {
+      type: data.delete ? WebSocketMessageType.SHAPE_DELETE : WebSocketMessageType.SHAPE_UPDATE,
+      boardId: data.boardId,
+      shapeId: data.shapeId,
+      shapeData: data.shapeData,
+      layerOrder: data.layerOrder,
+    };
+
+    this.client.publish({
+      destination: '/app/shape/op',
+      body: JSON.stringify(message),
+    });
+  }
+
   sendShapeDelete(data: { boardId: string; shapeId: string }) {
     if (!this.client?.active) return;
 
@@ -155,6 +196,37 @@ class WebSocketClient {
     });
   }
 
+  sendShapeReorder(data: { boardId: string; shapeId: string; position: 'front' | 'back' }) {
+    if (!this.client?.active) return;
+
+    const message: WebSocketMessage = {
+      type: WebSocketMessageType.SHAPE_UPDATE,
+      boardId: data.boardId,
+      shapeId: data.shapeId,
+    };
+
+    this.client.publish({
+      destination: `/app/shape/${data.position}`,
+      body: JSON.stringify(message),
+    });
+  }
+
+  sendGroupTransform(data: { boardId: string; shapeId: string; dx: number; dy: number }) {
+    if (!this.client?.active) return;
+
+    const message: WebSocketMessage = {
+      type: WebSocketMessageType.GROUP_TRANSFORM,
+      boardId: data.boardId,
+      shapeId: data.shapeId,
+      transform: { dx: data.dx, dy: data.dy },
+    };
+
+    this.client.publish({
+      destination: '/app/group/transform',
+      body: JSON.stringify(message),
+    });
+  }
+
   sendCursorMove(boardId: string, x: number, y: number) {
     if (!this.client?.active) return;
 
@@ -170,6 +242,22 @@ class WebSocketClient {
     });
   }
 
+  // Tile-scoped invalidations; returns a function that ends the subscription
+  subscribeToTile(boardId: string, zoom: number, x: number, y: number, onInvalidate: (message: WebSocketMessage) => void) {
+    const subscription = this.client?.subscribe(`/topic/board/${boardId}/tiles/${zoom}/${x}/${y}`, (message) => {
+      onInvalidate(JSON.parse(message.body));
+    });
+    return () => subscription?.unsubscribe();
+  }
+
+  // Whole-board invalidations: every tile of the board is stale
+  subscribeToTileResets(boardId: string, onReset: (message: WebSocketMessage) => void) {
+    const subscription = this.client?.subscribe(`/topic/board/${boardId}/tiles`, (message) => {
+      onReset(JSON.parse(message.body));
+    });
+    return () => subscription?.unsubscribe();
+  }
+
   disconnect() {
     if (this.client?.active) {
       this.client.deactivate();
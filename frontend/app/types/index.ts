@@ -7,14 +7,26 @@ export interface Board {
   isPublic: boolean;
   createdAt: string;
   updatedAt: string;
+  summary?: BoardSummary;
+}
+
+export interface BoardSummary {
+  shapeCount: number;
+  lastActivityAt?: string;
+  activeUsers: number;
+  contentVersion: number;
+  thumbnailUrl?: string;
 }
 
 export interface Shape {
   id: string;
   boardId: string;
+  parentId?: string;
   type: ShapeType;
   data: Record<string, any>;
   layerOrder: number;
+  layerKey?: string;
+  version?: number;
   createdBy?: string;
   createdAt: string;
   updatedAt: string;
@@ -50,24 +62,105 @@ export enum WebSocketMessageType {
   SHAPE_CREATE = 'SHAPE_CREATE',
   SHAPE_UPDATE = 'SHAPE_UPDATE',
   SHAPE_DELETE = 'SHAPE_DELETE',
+  SHAPE_CONFLICT = 'SHAPE_CONFLICT',
+  SHAPE_VERSIONS = 'SHAPE_VERSIONS',
+  GROUP_TRANSFORM = 'GROUP_TRANSFORM',
   USER_JOIN = 'USER_JOIN',
   USER_LEAVE = 'USER_LEAVE',
+  PRESENCE_DIFF = 'PRESENCE_DIFF',
   CURSOR_MOVE = 'CURSOR_MOVE',
+  TILE_INVALIDATE = 'TILE_INVALIDATE',
 }
 
 export interface WebSocketMessage {
   type: WebSocketMessageType;
   boardId?: string;
   shapeId?: string;
+  parentId?: string;
+  transform?: { dx: number; dy: number };
+  shapeIds?: string[];
   shapeType?: ShapeType;
   shapeData?: Record<string, any>;
   layerOrder?: number;
+  layerKey?: string;
+  version?: number;
+  versions?: Record<string, number>;
+  patch?: boolean;
+  clock?: string;
   userId?: string;
   userEmail?: string;
   cursor?: { x: number; y: number };
+  presence?: {
+    joined: { userId: string; email: string }[];
+    left: { userId: string; email: string }[];
+  };
+  tile?: TileRef;
   timestamp?: number;
 }
 
+export interface TileRef {
+  zoom: number;
+  x: number;
+  y: number;
+  version: number;
+}
+
+export interface BoardPresence {
+  boardId: string;
+  users: { userId: string; email: string; sessions: number }[];
+  timestamp: number;
+}
+
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor?: string | null;
+  total?: number | null;
+}
+
+export interface ShapeBounds {
+  x: number;
+  y: number;
+  width: number;
+  height: number;
+}
+
+export interface ShapeSearchHit {
+  shapeId: string;
+  type: ShapeType;
+  text?: string;
+  rank: number;
+  bounds: ShapeBounds;
+}
+
+export interface ShapeSearchResponse {
+  boardId: string;
+  query: string;
+  page: number;
+  size: number;
+  total: number;
+  hits: ShapeSearchHit[];
+}
+
+export enum TileDetail {
+  FULL = 'FULL',
+  SIMPLIFIED = 'SIMPLIFIED',
+  AGGREGATED = 'AGGREGATED',
+}
+
+export interface BoardTile {
+  boardId: string;
+  zoom: number;
+  x: number;
+  y: number;
+  version: number;
+  detail: TileDetail;
+  bounds: ShapeBounds;
+  shapes?: Shape[];
+  simplified?: { id: string; type: ShapeType; bounds: ShapeBounds; color?: string }[];
+  omitted?: number;
+  cells?: { bounds: ShapeBounds; count: number }[];
+}
+
 // Auth Types
 export interface User {
   id: string;
@@ -0,0 +1,76 @@
+#!/bin/bash
+
+# CollabBoard - Startup Benchmark
+# Measures time-to-first-request: from JVM launch until the service answers any HTTP request.
+#
+# Usage: ./startup-bench.sh <jar> <port> [runs] [extra java options...]
+#
+#   ./startup-bench.sh whiteboard-service/target/whiteboard-service-0.0.1-SNAPSHOT.jar 8081 5
+#
+#   # Fast start: mvn package -Dfast-start, extract, train a CDS archive (see Dockerfile.fast-start)
+#   ./startup-bench.sh app/whiteboard-service-0.0.1-SNAPSHOT.jar 8081 5 \
+#       -XX:SharedArchiveFile=app/app.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start
+#
+# The service needs its database as usual (SPRING_DATASOURCE_URL etc. from the environment).
+
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+if [ $# -lt 2 ]; then
+    echo "Usage: $0 <jar> <port> [runs] [extra java options...]"
+    exit 1
+fi
+
+JAR=$1
+PORT=$2
+RUNS=${3:-5}
+shift $(( $# >= 3 ? 3 : 2 ))
+TIMEOUT_S=${BENCH_TIMEOUT_S:-120}
+
+if lsof -ti:"$PORT" > /dev/null 2>&1; then
+    echo -e "${YELLOW}⚠️  Port $PORT is already in use${NC}"
+    exit 1
+fi
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+TIMES=()
+for run in $(seq 1 "$RUNS"); do
+    START=$(now_ms)
+    java "$@" -jar "$JAR" --server.port="$PORT" > "/tmp/startup-bench-$run.log" 2>&1 &
+    PID=$!
+
+    ELAPSED=""
+    while kill -0 "$PID" 2> /dev/null; do
+        # Any status code counts: the request was served
+        CODE=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/")
+        if [ "$CODE" != "000" ]; then
+            ELAPSED=$(( $(now_ms) - START ))
+            break
+        fi
+        if [ $(( $(now_ms) - START )) -gt $(( TIMEOUT_S * 1000 )) ]; then
+            break
+        fi
+        sleep 0.05
+    done
+
+    kill "$PID" 2> /dev/null
+    wait "$PID" 2> /dev/null
+
+    if [ -z "$ELAPSED" ]; then
+        echo -e "${YELLOW}Run $run: no response (see /tmp/startup-bench-$run.log)${NC}"
+        exit 1
+    fi
+    echo "Run $run: ${ELAPSED} ms"
+    TIMES+=("$ELAPSED")
+done
+
+SORTED=($(printf '%s\n' "${TIMES[@]}" | sort -n))
+SUM=0
+for t in "${TIMES[@]}"; do
+    SUM=$(( SUM + t ))
+done
+echo -e "${GREEN}Time to first request over $RUNS runs: min ${SORTED[0]} ms, median ${SORTED[$(( RUNS / 2 ))]} ms, avg $(( SUM / RUNS )) ms${NC}"
@@ -0,0 +1,43 @@
+package com.smartexpenses.whiteboard.cache;
+
+import java.util.UUID;
+
+/**
+ * A committed change to a cached entity, sent to the other replicas so they drop their copy
+ * @param nodeId node that made the change (it already updated its own cache)
+ * @param entity which cached entity changed
+ * @param id     id of the changed row (the board, for tile caches)
+ * @param deleted true if the row was deleted
+ * @param detail what changed within the entry, in a form its cache defines, or null
+ */
+public record CacheInvalidation(String nodeId, Entity entity, UUID id, boolean deleted, String detail) {
+
+    public enum Entity {
+        BOARD,
+        COLLABORATOR,
+        TILE_VERSIONS,
+        TILE_INDEX,
+        WRITER // A user's committed write, for read-your-writes routing
+    }
+
+    public CacheInvalidation(String nodeId, Entity entity, UUID id, boolean deleted) {
+        this(nodeId, entity, id, deleted, null);
+    }
+
+    /**
+     * Wire form: nodeId|entity|id|deleted[|detail] (node ids never contain '|')
+     */
+    public String encode() {
+        String payload = nodeId + "|" + entity + "|" + id + "|" + deleted;
+        return detail != null ? payload + "|" + detail : payload;
+    }
+
+    public static CacheInvalidation decode(String payload) {
+        String[] parts = payload.split("\\|", 5);
+        if (parts.length < 4) {
+            throw new IllegalArgumentException("Malformed cache invalidation: " + payload);
+        }
+        return new CacheInvalidation(parts[0], Entity.valueOf(parts[1]), UUID.fromString(parts[2]),
+                Boolean.parseBoolean(parts[3]), parts.length == 5 ? parts[4] : null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.smartexpenses.whiteboard.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cache invalidations between replicas
+ * Delivery may be at-least-once: evicting an entry twice is harmless.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Send a change committed on this node to the other nodes
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Receive changes committed on other nodes
+     */
+    void subscribe(Consumer<CacheInvalidation> consumer);
+
+    /**
+     * Called when invalidations may have been lost (e.g. after reconnecting), so all cached
+     * copies must be dropped
+     */
+    void onGap(Runnable action);
+}
@@ -0,0 +1,15 @@
+package com.smartexpenses.whiteboard.cache;
+
+/**
+ * Second-level cache regions; each is sized in hibernate-caffeine.conf
+ */
+public final class CacheRegions {
+
+    public static final String BOARDS = "boards";
+    public static final String COLLABORATORS = "board-collaborators";
+    // Cached results of collaborator lookups (access checks, roles, collaborator lists)
+    public static final String BOARD_ACCESS = "board-access";
+
+    private CacheRegions() {
+    }
+}
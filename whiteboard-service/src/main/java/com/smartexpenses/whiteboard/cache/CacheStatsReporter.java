@@ -0,0 +1,69 @@
+package com.smartexpenses.whiteboard.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Logs hit ratios of the second-level cache regions
+ * Needs hibernate.generate_statistics=true; does nothing otherwise.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheStatsReporter {
+
+    private static final List<String> REGIONS = List.of(
+            CacheRegions.BOARDS, CacheRegions.COLLABORATORS, CacheRegions.BOARD_ACCESS);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @PostConstruct
+    public void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Hits / (hits + misses) of a region since startup, or NaN before its first lookup
+     */
+    public double hitRatio(String region) {
+        CacheRegionStatistics stats = regionStatistics(region);
+        if (stats == null) {
+            return Double.NaN;
+        }
+        long lookups = stats.getHitCount() + stats.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) stats.getHitCount() / lookups;
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.cache.stats-log-ms:60000}")
+    public void logStats() {
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        for (String region : REGIONS) {
+            CacheRegionStatistics stats = regionStatistics(region);
+            if (stats != null) {
+                log.info("Cache region {}: hits={}, misses={}, puts={}, hitRatio={}",
+                        region, stats.getHitCount(), stats.getMissCount(), stats.getPutCount(),
+                        String.format("%.2f", hitRatio(region)));
+            }
+        }
+    }
+
+    // Query result regions are tracked apart from entity regions
+    private CacheRegionStatistics regionStatistics(String region) {
+        return CacheRegions.BOARD_ACCESS.equals(region)
+                ? statistics.getQueryRegionStatistics(region)
+                : statistics.getCacheRegionStatistics(region);
+    }
+}
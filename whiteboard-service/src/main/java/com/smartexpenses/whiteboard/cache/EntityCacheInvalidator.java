@@ -0,0 +1,137 @@
+package com.smartexpenses.whiteboard.cache;
+
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import com.smartexpenses.whiteboard.model.Board;
+import com.smartexpenses.whiteboard.model.BoardCollaborator;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Keeps the second-level caches of all replicas consistent. Hibernate updates the cache of
+ * the node that commits a change; this tells the other nodes, after commit, to evict
+ * their copy of the row and the collaborator lookups that may depend on it.
+ * Bulk JPQL deletes fire no events, but they only run as part of deleting a board,
+ * and a board delete evicts every collaborator entry on the other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EntityCacheInvalidator implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationBus bus;
+    private final NodeIdentity nodeIdentity;
+
+    private Cache cache;
+
+    @PostConstruct
+    public void init() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        cache = sessionFactory.getCache();
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        bus.subscribe(this::applyRemote);
+        bus.onGap(this::evictAll);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // A new board is not cached anywhere yet, but a new collaborator changes access checks
+        if (event.getEntity() instanceof BoardCollaborator collaborator) {
+            publish(CacheInvalidation.Entity.COLLABORATOR, collaborator.getId(), false);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publishFor(event.getEntity(), false);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publishFor(event.getEntity(), true);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return type == Board.class || type == BoardCollaborator.class;
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Rolled back: nothing changed on the other nodes
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Rolled back: nothing changed on the other nodes
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Rolled back: nothing changed on the other nodes
+    }
+
+    private void publishFor(Object entity, boolean deleted) {
+        if (entity instanceof Board board) {
+            publish(CacheInvalidation.Entity.BOARD, board.getId(), deleted);
+        } else if (entity instanceof BoardCollaborator collaborator) {
+            publish(CacheInvalidation.Entity.COLLABORATOR, collaborator.getId(), deleted);
+        }
+    }
+
+    private void publish(CacheInvalidation.Entity entity, UUID id, boolean deleted) {
+        bus.publish(new CacheInvalidation(nodeIdentity.getNodeId(), entity, id, deleted));
+    }
+
+    private void applyRemote(CacheInvalidation invalidation) {
+        if (nodeIdentity.getNodeId().equals(invalidation.nodeId())) {
+            return; // Our own change, already applied to our cache
+        }
+        switch (invalidation.entity()) {
+            case BOARD -> {
+                cache.evictEntityData(Board.class, invalidation.id());
+                if (invalidation.deleted()) {
+                    // Its collaborators went with it in a bulk delete we saw no events for
+                    cache.evictEntityData(BoardCollaborator.class);
+                    cache.evictQueryRegion(CacheRegions.BOARD_ACCESS);
+                }
+            }
+            case COLLABORATOR -> {
+                cache.evictEntityData(BoardCollaborator.class, invalidation.id());
+                cache.evictQueryRegion(CacheRegions.BOARD_ACCESS);
+            }
+            default -> {
+                return; // Not a Hibernate cache
+            }
+        }
+        log.debug("Applied remote cache invalidation {}", invalidation);
+    }
+
+    private void evictAll() {
+        cache.evictEntityData(Board.class);
+        cache.evictEntityData(BoardCollaborator.class);
+        cache.evictQueryRegion(CacheRegions.BOARD_ACCESS);
+        log.info("Evicted all cached boards and collaborators after missing invalidations");
+    }
+}
@@ -0,0 +1,29 @@
+package com.smartexpenses.whiteboard.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Single-node bus: there are no other caches to invalidate
+ */
+@Component
+@ConditionalOnProperty(name = "whiteboard.cache.invalidation", havingValue = "local", matchIfMissing = true)
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        // Nothing to do on a single node
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> consumer) {
+        // No remote changes on a single node
+    }
+
+    @Override
+    public void onGap(Runnable action) {
+        // Nothing can be missed on a single node
+    }
+}
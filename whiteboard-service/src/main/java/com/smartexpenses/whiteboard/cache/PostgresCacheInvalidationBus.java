@@ -0,0 +1,145 @@
+package com.smartexpenses.whiteboard.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Sends invalidations with Postgres NOTIFY and receives them with LISTEN, so replicas need
+ * nothing beyond the database they already share. One connection per node is held for
+ * listening. Notifications sent while it is down are lost, so after reconnecting the
+ * node treats everything it cached as stale.
+ * Changes are published after their transaction commits, while its connection may still be
+ * bound to the thread, so each NOTIFY commits in a transaction of its own.
+ */
+@Component
+@ConditionalOnProperty(name = "whiteboard.cache.invalidation", havingValue = "postgres")
+@Slf4j
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final String CHANNEL = "whiteboard_cache";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long pollMs;
+    private final long reconnectMs;
+
+    private final List<Consumer<CacheInvalidation>> consumers = new CopyOnWriteArrayList<>();
+    private final List<Runnable> gapActions = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public PostgresCacheInvalidationBus(DataSource dataSource,
+                                        JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${whiteboard.cache.listen-poll-ms:500}") long pollMs,
+                                        @Value("${whiteboard.cache.reconnect-ms:5000}") long reconnectMs) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pollMs = pollMs;
+        this.reconnectMs = reconnectMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.queryForObject(
+                    "SELECT pg_notify(?, ?)", Object.class, CHANNEL, invalidation.encode()));
+        } catch (RuntimeException e) {
+            // The other nodes keep a stale copy until it expires
+            log.error("Failed to publish cache invalidation {}", invalidation, e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> consumer) {
+        consumers.add(consumer);
+    }
+
+    @Override
+    public void onGap(Runnable action) {
+        gapActions.add(action);
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (connectedBefore) {
+                    gapActions.forEach(Runnable::run); // Anything may have changed while we were away
+                }
+                connectedBefore = true;
+                log.info("Listening for cache invalidations on {}", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener disconnected, retrying in {} ms: {}", reconnectMs, e.getMessage());
+                    sleep(reconnectMs);
+                }
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        try {
+            CacheInvalidation invalidation = CacheInvalidation.decode(payload);
+            consumers.forEach(consumer -> consumer.accept(invalidation));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring cache invalidation '{}': {}", payload, e.getMessage());
+        }
+    }
+
+    private void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
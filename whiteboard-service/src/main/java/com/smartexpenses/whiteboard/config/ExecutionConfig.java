@@ -0,0 +1,87 @@
+package com.smartexpenses.whiteboard.config;
+
+import com.smartexpenses.whiteboard.execution.InstrumentedExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Execution mode for STOMP inbound message handling.
+ * "platform" uses a fixed thread pool; "virtual" runs each message on a virtual thread
+ * (Java 21+) so a blocking JPA call parks a virtual thread instead of holding a pool slot.
+ * On older runtimes "virtual" falls back to the platform pool.
+ * Servlet threads are switched separately via spring.threads.virtual.enabled.
+ */
+@Configuration
+@Slf4j
+public class ExecutionConfig {
+
+    @Value("${whiteboard.execution.mode:platform}")
+    private String mode;
+
+    @Value("${whiteboard.execution.inbound-pool-size:0}")
+    private int inboundPoolSize;
+
+    @Value("${whiteboard.execution.inbound-queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${whiteboard.execution.max-concurrency:-1}")
+    private int maxConcurrency;
+
+    @Value("${whiteboard.execution.saturation-warn-threshold:500}")
+    private int saturationWarnThreshold;
+
+    @Bean
+    public InstrumentedExecutor inboundExecutor() {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            if (Runtime.version().feature() >= 21) {
+                log.info("STOMP inbound channel on virtual threads (maxConcurrency={})", maxConcurrency);
+                return new InstrumentedExecutor("inbound", virtualThreadExecutor());
+            }
+            log.warn("whiteboard.execution.mode=virtual needs Java 21+, running on Java {}; using platform threads",
+                    Runtime.version().feature());
+        }
+        ThreadPoolTaskExecutor pool = platformPool();
+        log.info("STOMP inbound channel on platform threads (poolSize={}, queueCapacity={})",
+                pool.getCorePoolSize(), inboundQueueCapacity);
+        return new InstrumentedExecutor("inbound", pool);
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.execution.stats-log-ms:60000}")
+    public void logInboundStats() {
+        InstrumentedExecutor executor = inboundExecutor();
+        if (executor.getWaiting() >= saturationWarnThreshold) {
+            log.warn("Inbound executor saturated: {}", executor);
+        } else {
+            log.info("Inbound executor: {}", executor);
+        }
+    }
+
+    private Executor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ws-inbound-vt-");
+        executor.setVirtualThreads(true);
+        if (maxConcurrency > 0) {
+            // Bounds concurrent handlers, e.g. to the JDBC pool size
+            executor.setConcurrencyLimit(maxConcurrency);
+        }
+        return executor;
+    }
+
+    private ThreadPoolTaskExecutor platformPool() {
+        int poolSize = inboundPoolSize > 0 ? inboundPoolSize : Runtime.getRuntime().availableProcessors() * 2;
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ws-inbound-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(inboundQueueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+        return executor;
+    }
+}
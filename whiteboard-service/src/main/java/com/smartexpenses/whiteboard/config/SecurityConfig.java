@@ -33,7 +33,7 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(AbstractHttpConfigurer::disable)  // Disable CSRF for REST API
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/boards/public").permitAll()  // Public endpoint
+                .requestMatchers("/api/boards/public", "/api/boards/public/page").permitAll()  // Public endpoints
                 .anyRequest().permitAll()  // Allow all - JWT validation happens in controllers
             )
             .sessionManagement(session -> session
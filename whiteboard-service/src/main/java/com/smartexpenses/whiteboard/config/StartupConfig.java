@@ -0,0 +1,35 @@
+package com.smartexpenses.whiteboard.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * With lazy initialization (fast-start profile) a bean is only created when something first
+ * needs it. Beans that work on their own, through scheduled methods or listeners registered
+ * in {@code @PostConstruct}, would then never start, so they stay eager.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundBeansStayEager() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (hasAnnotatedMethod(beanType, Scheduled.class) || hasAnnotatedMethod(beanType, PostConstruct.class));
+    }
+
+    private static boolean hasAnnotatedMethod(Class<?> type, Class<? extends Annotation> annotation) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(type,
+                method -> found.set(true),
+                method -> !found.get() && AnnotatedElementUtils.hasAnnotation(method, annotation));
+        return found.get();
+    }
+}
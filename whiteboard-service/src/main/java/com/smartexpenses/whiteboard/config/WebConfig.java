@@ -0,0 +1,19 @@
+package com.smartexpenses.whiteboard.config;
+
+import com.smartexpenses.whiteboard.datasource.CurrentUserInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CurrentUserInterceptor currentUserInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(currentUserInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -2,6 +2,7 @@ package com.smartexpenses.whiteboard.controller;
 
 import com.smartexpenses.whiteboard.dto.BoardResponse;
 import com.smartexpenses.whiteboard.dto.CreateBoardRequest;
+import com.smartexpenses.whiteboard.dto.CursorPage;
 import com.smartexpenses.whiteboard.dto.UpdateBoardRequest;
 import com.smartexpenses.whiteboard.service.BoardService;
 import com.smartexpenses.whiteboard.util.JwtUtil;
@@ -11,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -44,10 +46,11 @@ public class BoardController {
 
     @GetMapping
     public ResponseEntity<List<BoardResponse>> getUserBoards(
+            @RequestParam(required = false) String include,
             @RequestHeader("Authorization") String authorization) {
         
         UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
-        List<BoardResponse> boards = boardService.getUserBoards(userId);
+        List<BoardResponse> boards = boardService.getUserBoards(userId, includesSummary(include));
         return ResponseEntity.ok(boards);
     }
 
@@ -57,6 +60,27 @@ public class BoardController {
         return ResponseEntity.ok(boards);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<BoardResponse>> getUserBoardsPage(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String include,
+            @RequestHeader("Authorization") String authorization) {
+
+        UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
+        CursorPage<BoardResponse> page = boardService.getUserBoardsPage(userId, limit, cursor, includesSummary(include));
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/public/page")
+    public ResponseEntity<CursorPage<BoardResponse>> getPublicBoardsPage(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String include) {
+        CursorPage<BoardResponse> page = boardService.getPublicBoardsPage(limit, cursor, includesSummary(include));
+        return ResponseEntity.ok(page);
+    }
+
     @PutMapping("/{boardId}")
     public ResponseEntity<BoardResponse> updateBoard(
             @PathVariable UUID boardId,
@@ -77,4 +101,9 @@ public class BoardController {
         boardService.deleteBoard(boardId, userId);
         return ResponseEntity.noContent().build();
     }
+
+    // Helper method to read the comma-separated include parameter
+    private static boolean includesSummary(String include) {
+        return include != null && Arrays.asList(include.split(",")).contains("summary");
+    }
 }
@@ -0,0 +1,29 @@
+package com.smartexpenses.whiteboard.controller;
+
+import com.smartexpenses.whiteboard.dto.BoardPresenceResponse;
+import com.smartexpenses.whiteboard.service.PresenceService;
+import com.smartexpenses.whiteboard.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/boards/{boardId}/presence")
+@RequiredArgsConstructor
+public class PresenceController {
+
+    private final PresenceService presenceService;
+    private final JwtUtil jwtUtil;
+
+    @GetMapping
+    public ResponseEntity<BoardPresenceResponse> getBoardPresence(
+            @PathVariable UUID boardId,
+            @RequestHeader("Authorization") String authorization) {
+
+        UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
+        BoardPresenceResponse presence = presenceService.getBoardPresence(boardId, userId);
+        return ResponseEntity.ok(presence);
+    }
+}
@@ -0,0 +1,57 @@
+package com.smartexpenses.whiteboard.controller;
+
+import com.smartexpenses.whiteboard.render.BoardRenderService;
+import com.smartexpenses.whiteboard.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/boards/{boardId}")
+@RequiredArgsConstructor
+public class RenderController {
+
+    private final BoardRenderService boardRenderService;
+    private final JwtUtil jwtUtil;
+
+    @GetMapping("/thumbnail.png")
+    public ResponseEntity<byte[]> getThumbnail(
+            @PathVariable UUID boardId,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestHeader("Authorization") String authorization) {
+
+        UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
+        return toResponse(boardRenderService.thumbnail(boardId, userId), ifNoneMatch);
+    }
+
+    @GetMapping("/tiles/{zoom}/{x}/{y}.png")
+    public ResponseEntity<byte[]> getTile(
+            @PathVariable UUID boardId,
+            @PathVariable int zoom,
+            @PathVariable long x,
+            @PathVariable long y,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestHeader("Authorization") String authorization) {
+
+        UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
+        return toResponse(boardRenderService.tile(boardId, zoom, x, y, userId), ifNoneMatch);
+    }
+
+    // Helper method to answer with the image, or 304 when the client already has this version
+    private ResponseEntity<byte[]> toResponse(BoardRenderService.RenderedImage image, String ifNoneMatch) {
+        String etag = "\"" + image.etag() + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(image.png());
+    }
+}
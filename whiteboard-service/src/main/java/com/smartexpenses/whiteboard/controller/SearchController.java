@@ -0,0 +1,48 @@
+package com.smartexpenses.whiteboard.controller;
+
+import com.smartexpenses.whiteboard.dto.BoardResponse;
+import com.smartexpenses.whiteboard.dto.CursorPage;
+import com.smartexpenses.whiteboard.dto.ShapeSearchResponse;
+import com.smartexpenses.whiteboard.service.BoardService;
+import com.smartexpenses.whiteboard.service.SearchService;
+import com.smartexpenses.whiteboard.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/boards")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+    private final BoardService boardService;
+    private final JwtUtil jwtUtil;
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<BoardResponse>> searchBoards(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader("Authorization") String authorization) {
+
+        UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
+        CursorPage<BoardResponse> response = boardService.searchUserBoards(userId, query, limit, cursor);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{boardId}/search")
+    public ResponseEntity<ShapeSearchResponse> searchBoard(
+            @PathVariable UUID boardId,
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader("Authorization") String authorization) {
+
+        UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
+        ShapeSearchResponse response = searchService.searchBoard(boardId, query, page, size, userId);
+        return ResponseEntity.ok(response);
+    }
+}
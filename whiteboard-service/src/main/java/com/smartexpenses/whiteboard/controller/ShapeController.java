@@ -1,6 +1,8 @@
 package com.smartexpenses.whiteboard.controller;
 
 import com.smartexpenses.whiteboard.dto.CreateShapeRequest;
+import com.smartexpenses.whiteboard.dto.GroupTransformRequest;
+import com.smartexpenses.whiteboard.dto.GroupTransformResponse;
 import com.smartexpenses.whiteboard.dto.ShapeResponse;
 import com.smartexpenses.whiteboard.dto.UpdateShapeRequest;
 import com.smartexpenses.whiteboard.service.ShapeService;
@@ -58,6 +60,41 @@ public class ShapeController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/{shapeId}/transform")
+    public ResponseEntity<GroupTransformResponse> translateGroup(
+            @PathVariable UUID boardId,
+            @PathVariable UUID shapeId,
+            @Valid @RequestBody GroupTransformRequest request,
+            @RequestHeader("Authorization") String authorization) {
+
+        UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
+        GroupTransformResponse response = shapeService.translateGroup(
+                shapeId, boardId, request.getDx(), request.getDy(), userId);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{shapeId}/front")
+    public ResponseEntity<ShapeResponse> bringToFront(
+            @PathVariable UUID boardId,
+            @PathVariable UUID shapeId,
+            @RequestHeader("Authorization") String authorization) {
+
+        UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
+        ShapeResponse response = shapeService.bringToFront(shapeId, boardId, userId);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{shapeId}/back")
+    public ResponseEntity<ShapeResponse> sendToBack(
+            @PathVariable UUID boardId,
+            @PathVariable UUID shapeId,
+            @RequestHeader("Authorization") String authorization) {
+
+        UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
+        ShapeResponse response = shapeService.sendToBack(shapeId, boardId, userId);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{shapeId}")
     public ResponseEntity<Void> deleteShape(
             @PathVariable UUID boardId,
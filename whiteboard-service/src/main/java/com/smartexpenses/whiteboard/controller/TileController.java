@@ -0,0 +1,46 @@
+package com.smartexpenses.whiteboard.controller;
+
+import com.smartexpenses.whiteboard.dto.BoardTileResponse;
+import com.smartexpenses.whiteboard.render.TileVersions;
+import com.smartexpenses.whiteboard.tiles.BoardTileService;
+import com.smartexpenses.whiteboard.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/boards/{boardId}")
+@RequiredArgsConstructor
+public class TileController {
+
+    private final BoardTileService boardTileService;
+    private final TileVersions tileVersions;
+    private final JwtUtil jwtUtil;
+
+    @GetMapping("/tiles/{zoom}/{x}/{y}.json")
+    public ResponseEntity<BoardTileResponse> getTile(
+            @PathVariable UUID boardId,
+            @PathVariable int zoom,
+            @PathVariable long x,
+            @PathVariable long y,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestHeader("Authorization") String authorization) {
+
+        UUID userId = jwtUtil.extractUserIdFromHeader(authorization);
+        BoardTileResponse tile = boardTileService.getTile(boardId, zoom, x, y, userId);
+
+        // Versions restart with the process, so the generation is part of the tag
+        String etag = "\"" + tileVersions.getGeneration() + "-" + tile.getVersion() + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(tile);
+    }
+}
@@ -0,0 +1,126 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory CRDT state of a board
+ * Shapes are merged independently, so ops on different shapes never contend and ops on
+ * the same shape only hold that shape's monitor for the merge itself.
+ * Layer order is a sequence derived from (layerKey, shapeId): a move picks a fractional key
+ * between its new neighbours, and ties between concurrent moves to the same position
+ * resolve the same way on every replica.
+ */
+public class BoardDocument {
+
+    private final UUID boardId;
+    private final ConcurrentMap<UUID, ShapeDocument> shapes = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private volatile long lastAccess = System.currentTimeMillis();
+    // Ops share the read side; eviction takes the write side so no op lands on a dropped copy
+    private final ReadWriteLock retireLock = new ReentrantReadWriteLock();
+    private boolean retired; // guarded by retireLock
+
+    BoardDocument(UUID boardId) {
+        this.boardId = boardId;
+    }
+
+    void load(UUID shapeId, ShapeDocument document) {
+        shapes.put(shapeId, document);
+    }
+
+    /**
+     * Merge an op; ops for shapes this board has never seen create them
+     * @return the op's effect, or null if the document was retired and the op not applied
+     */
+    ShapeDocument.Applied apply(ShapeOp op) {
+        retireLock.readLock().lock();
+        try {
+            if (retired) {
+                return null;
+            }
+            lastAccess = System.currentTimeMillis();
+            ShapeDocument document = shapes.computeIfAbsent(op.shapeId(), id -> new ShapeDocument(op.shapeType()));
+            ShapeDocument.Applied applied = document.apply(op);
+            if (applied.changed()) {
+                dirty.add(op.shapeId());
+            }
+            return applied;
+        } finally {
+            retireLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stop accepting ops, provided nothing is left to flush
+     * @return true if the document is now retired and may be dropped
+     */
+    boolean retireIfClean() {
+        retireLock.writeLock().lock();
+        try {
+            if (!dirty.isEmpty()) {
+                return false;
+            }
+            retired = true;
+            return true;
+        } finally {
+            retireLock.writeLock().unlock();
+        }
+    }
+
+    public ShapeDocument getShape(UUID shapeId) {
+        lastAccess = System.currentTimeMillis();
+        return shapes.get(shapeId);
+    }
+
+    /**
+     * Live shapes in layer order, bottom first
+     */
+    public List<UUID> getLayerSequence() {
+        return shapes.entrySet().stream()
+                .filter(entry -> !entry.getValue().isDeleted())
+                .sorted(Comparator.<Map.Entry<UUID, ShapeDocument>, String>comparing(entry -> entry.getValue().getLayerKey(),
+                                Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(Map.Entry::getKey))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Drain the set of shapes changed since the last flush
+    Set<UUID> takeDirty() {
+        Set<UUID> taken = ConcurrentHashMap.newKeySet();
+        for (UUID shapeId : dirty) {
+            if (dirty.remove(shapeId)) {
+                taken.add(shapeId);
+            }
+        }
+        return taken;
+    }
+
+    void markDirty(Set<UUID> shapeIds) {
+        dirty.addAll(shapeIds);
+    }
+
+    void forget(UUID shapeId) {
+        shapes.remove(shapeId);
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    public UUID getBoardId() {
+        return boardId;
+    }
+
+    public int size() {
+        return shapes.size();
+    }
+}
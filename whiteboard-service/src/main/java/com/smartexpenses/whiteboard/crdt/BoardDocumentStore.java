@@ -0,0 +1,358 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartexpenses.whiteboard.exception.ResourceNotFoundException;
+import com.smartexpenses.whiteboard.model.Shape;
+import com.smartexpenses.whiteboard.repository.ShapeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the CRDT documents of active boards and persists them write-behind.
+ * A board is loaded from the database on first use; ops are merged in memory without
+ * locks or row versions, and changed shapes are written back every flush interval.
+ * Idle boards with nothing left to flush are dropped from memory.
+ * A flush that changes a row bumps its version, so a conditional update based on a state
+ * read before the ops is rejected as stale; listeners get the new versions to pass on.
+ * Writes made through the database are folded in only once their transaction commits.
+ */
+@Component
+@Slf4j
+public class BoardDocumentStore {
+
+    private static final String DATABASE_NODE = "db";
+    private static final int RETIRE_ATTEMPTS = 3;
+
+    private final ShapeRepository shapeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HybridLogicalClock clock;
+    private final ShapeOpReplicator replicator;
+    private final ObjectMapper objectMapper;
+    private final long idleEvictMs;
+
+    private final ConcurrentMap<UUID, BoardDocument> documents = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public BoardDocumentStore(ShapeRepository shapeRepository,
+                              TransactionTemplate transactionTemplate,
+                              HybridLogicalClock clock,
+                              ShapeOpReplicator replicator,
+                              ObjectMapper objectMapper,
+                              @Value("${whiteboard.crdt.idle-evict-ms:600000}") long idleEvictMs) {
+        this.shapeRepository = shapeRepository;
+        // Flushes commit on their own, also when called from inside a request's transaction
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clock = clock;
+        this.replicator = replicator;
+        this.objectMapper = objectMapper;
+        this.idleEvictMs = idleEvictMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        replicator.subscribe(this::applyRemote);
+        replicator.onGap(this::evictAll); // Ops from other nodes may be missing: reload from the database
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stamp and apply an op received from a client on this node
+     * @return the op as applied (with its timestamp) and the part of it that won
+     */
+    public AppliedOp applyLocal(UUID boardId, UUID shapeId, ShapeOp.Kind kind,
+                                Map<String, Object> fields, String layerKey) {
+        while (true) {
+            BoardDocument document = getDocument(boardId);
+            ShapeDocument shape = document.getShape(shapeId);
+            if (shape == null && kind != ShapeOp.Kind.CREATE) {
+                throw new ResourceNotFoundException("Shape", shapeId);
+            }
+
+            ShapeOp op = new ShapeOp(boardId, shapeId, kind, shape != null ? shape.getType() : null,
+                    fields, layerKey, clock.now());
+            ShapeDocument.Applied applied = document.apply(op);
+            if (applied == null) {
+                documents.remove(boardId, document); // Evicted meanwhile: retry on a fresh copy
+                continue;
+            }
+            replicator.publish(op);
+            return new AppliedOp(op, applied.fields(), applied.layerKey(), applied.deleted());
+        }
+    }
+
+    /**
+     * Register a shape created through the database (ids are assigned there), once the
+     * surrounding transaction commits
+     */
+    public void recordCreated(Shape shape) {
+        UUID boardId = shape.getBoard().getId();
+        afterCommit(() -> {
+            ShapeOp op = new ShapeOp(boardId, shape.getId(), ShapeOp.Kind.CREATE, shape.getType(),
+                    shape.getData(), shape.getLayerKey(), clock.now());
+            BoardDocument document = documents.get(boardId);
+            if (document != null) {
+                document.apply(op); // Null if just evicted: the row is loaded with the board next time
+            }
+            replicator.publish(op); // Other nodes may have the board loaded even if this one has not
+        });
+    }
+
+    /**
+     * Fold a write made directly to the database (REST or versioned update) into a loaded
+     * document, as an op stamped at commit, so the next flush does not overwrite it.
+     * Only what the write changed is stamped; the other fields keep the registers they have,
+     * so ops not yet flushed are not reverted to the row's older values.
+     * @param changedFields fields the write set, with null for fields it removed
+     * @param layerKey      layer key the write set, or null if unchanged
+     */
+    public void recordExternalWrite(UUID boardId, UUID shapeId, Map<String, Object> changedFields,
+                                    String layerKey) {
+        afterCommit(() -> {
+            ShapeOp op = new ShapeOp(boardId, shapeId, ShapeOp.Kind.UPDATE, null, changedFields, layerKey,
+                    clock.now());
+            BoardDocument document = documents.get(boardId);
+            if (document != null && document.getShape(shapeId) != null) {
+                document.apply(op);
+            }
+            replicator.publish(op);
+        });
+    }
+
+    public void recordExternalDelete(UUID boardId, UUID shapeId) {
+        afterCommit(() -> {
+            ShapeOp op = new ShapeOp(boardId, shapeId, ShapeOp.Kind.DELETE, null, null, null, clock.now());
+            BoardDocument document = documents.get(boardId);
+            if (document != null) {
+                document.apply(op);
+                document.forget(shapeId);
+            }
+            replicator.publish(op);
+        });
+    }
+
+    /**
+     * Document for a board, loading it from the database on first use
+     */
+    public BoardDocument getDocument(UUID boardId) {
+        return documents.computeIfAbsent(boardId, this::load);
+    }
+
+    /**
+     * A shape's in-memory state if its board is loaded here, else null
+     * Newer than the row until the next flush; readers that serve rows overlay it.
+     */
+    public ShapeDocument getLoadedShape(UUID boardId, UUID shapeId) {
+        BoardDocument document = documents.get(boardId);
+        return document != null ? document.getShape(shapeId) : null;
+    }
+
+    /**
+     * Persist a board's pending changes now, for readers that go to the database
+     */
+    public void flush(UUID boardId) {
+        BoardDocument document = documents.get(boardId);
+        if (document != null) {
+            flushDocument(document);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.crdt.flush-ms:500}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (BoardDocument document : documents.values()) {
+            flushDocument(document);
+            if (now - document.getLastAccess() > idleEvictMs) {
+                synchronized (document) {
+                    // An op that arrived since the flush keeps the board loaded until the next round
+                    if (document.retireIfClean()) {
+                        documents.remove(document.getBoardId(), document);
+                        log.debug("Evicted idle board document {}", document.getBoardId());
+                    }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public boolean isLoaded(UUID boardId) {
+        return documents.containsKey(boardId);
+    }
+
+    public int getLoadedBoardCount() {
+        return documents.size();
+    }
+
+    private void applyRemote(ShapeOp op) {
+        clock.observe(op.timestamp());
+        BoardDocument document = documents.get(op.boardId());
+        if (document != null) {
+            document.apply(op);
+        }
+        // Not loaded (or just evicted) here: the owning node persists it, and we load the result on first use
+    }
+
+    // Helper method to flush every board and drop them all
+    private void evictAll() {
+        for (BoardDocument document : documents.values()) {
+            if (!retire(document)) {
+                log.warn("Kept board document {}: pending changes could not be flushed", document.getBoardId());
+            }
+        }
+        log.info("Dropped board documents after a gap in op replication");
+    }
+
+    // Flush until clean, then stop the document taking ops and drop it; false if it stayed dirty
+    private boolean retire(BoardDocument document) {
+        synchronized (document) {
+            for (int attempt = 0; attempt < RETIRE_ATTEMPTS; attempt++) {
+                flushDocument(document);
+                if (document.retireIfClean()) {
+                    documents.remove(document.getBoardId(), document);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // One flush at a time per board, and never alongside its eviction
+    private void flushDocument(BoardDocument document) {
+        synchronized (document) {
+            Set<UUID> dirty = document.takeDirty();
+            if (!dirty.isEmpty()) {
+                persist(document, dirty);
+            }
+        }
+    }
+
+    private BoardDocument load(UUID boardId) {
+        BoardDocument document = new BoardDocument(boardId);
+        List<Shape> shapes = shapeRepository.findByBoardIdOrderByLayerKeyAscIdAsc(boardId);
+        for (Shape shape : shapes) {
+            long wallTime = shape.getUpdatedAt() != null
+                    ? shape.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : 0L;
+            document.load(shape.getId(), ShapeDocument.fromSnapshot(shape.getType(), shape.getData(),
+                    shape.getLayerKey(), new HlcTimestamp(wallTime, 0, DATABASE_NODE)));
+        }
+        log.debug("Loaded board document {} with {} shapes", boardId, shapes.size());
+        return document;
+    }
+
+    private void persist(BoardDocument document, Set<UUID> shapeIds) {
+        Map<UUID, Long> versions = new HashMap<>();
+        Set<UUID> raced = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Shape shape : shapeRepository.findAllById(shapeIds)) {
+                    ShapeDocument state = document.getShape(shape.getId());
+                    if (state == null) {
+                        continue;
+                    }
+                    if (state.isDeleted()) {
+                        shapeRepository.delete(shape);
+                        document.forget(shape.getId());
+                        continue;
+                    }
+                    Map<String, Object> data = state.materialize();
+                    if (data.equals(shape.getData()) && Objects.equals(state.getLayerKey(), shape.getLayerKey())) {
+                        continue; // Already written, e.g. by the node the op came from
+                    }
+                    if (shapeRepository.writeMergedState(shape.getBoard().getId(), shape.getId(), toJson(data),
+                            state.getLayerKey(), shape.getVersion()) == 0) {
+                        raced.add(shape.getId()); // A versioned update got in first
+                    } else {
+                        versions.put(shape.getId(), shape.getVersion() + 1);
+                    }
+                }
+            });
+        } catch (OptimisticLockingFailureException e) {
+            // A versioned update hit a row we were deleting; retry with the merged state next flush
+            document.markDirty(shapeIds);
+            log.debug("Retrying flush of board {}: {}", document.getBoardId(), e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            document.markDirty(shapeIds);
+            log.error("Failed to flush board document {}", document.getBoardId(), e);
+            return;
+        }
+        if (!raced.isEmpty()) {
+            document.markDirty(raced); // Merge onto the new row next flush
+        }
+        if (!versions.isEmpty()) {
+            listeners.forEach(listener -> listener.shapesFlushed(document.getBoardId(), versions));
+        }
+    }
+
+    // Run once the surrounding transaction commits, or now if there is none
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private String toJson(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Shape data is not serializable", e);
+        }
+    }
+
+    public interface Listener {
+        /**
+         * Rows of a board were rewritten by a flush
+         * @param versions new row version per shape
+         */
+        void shapesFlushed(UUID boardId, Map<UUID, Long> versions);
+    }
+
+    /**
+     * Result of a local op
+     * @param fields   fields the op won (to broadcast)
+     * @param layerKey new layer key, or null if unchanged
+     * @param deleted  true if the op deleted the shape
+     */
+    public record AppliedOp(ShapeOp op, Map<String, Object> fields, String layerKey, boolean deleted) {
+        public boolean changed() {
+            return deleted || layerKey != null || !fields.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import java.util.Comparator;
+
+/**
+ * Hybrid logical clock timestamp
+ * Ordered by wall time, then counter, then node id, so any two timestamps from
+ * different nodes compare deterministically and every replica picks the same winner.
+ */
+public record HlcTimestamp(long wallTime, int counter, String nodeId) implements Comparable<HlcTimestamp> {
+
+    private static final Comparator<HlcTimestamp> ORDER = Comparator
+            .comparingLong(HlcTimestamp::wallTime)
+            .thenComparingInt(HlcTimestamp::counter)
+            .thenComparing(HlcTimestamp::nodeId);
+
+    @Override
+    public int compareTo(HlcTimestamp other) {
+        return ORDER.compare(this, other);
+    }
+
+    public boolean isAfter(HlcTimestamp other) {
+        return other == null || compareTo(other) > 0;
+    }
+
+    /**
+     * Compact wire form: wallTime:counter:nodeId
+     */
+    @Override
+    public String toString() {
+        return wallTime + ":" + counter + ":" + nodeId;
+    }
+
+    public static HlcTimestamp parse(String value) {
+        String[] parts = value.split(":", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid HLC timestamp: " + value);
+        }
+        return new HlcTimestamp(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), parts[2]);
+    }
+}
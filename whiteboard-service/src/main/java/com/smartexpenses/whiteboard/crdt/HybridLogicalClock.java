@@ -0,0 +1,54 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hybrid logical clock for this node
+ * Timestamps follow wall time but never go backwards and always move past any
+ * timestamp received from another node, so causally later ops win LWW merges.
+ */
+@Component
+public class HybridLogicalClock {
+
+    private final String nodeId;
+    private long lastWallTime;
+    private int counter;
+
+    public HybridLogicalClock(NodeIdentity nodeIdentity) {
+        this.nodeId = nodeIdentity.getNodeId();
+    }
+
+    public synchronized HlcTimestamp now() {
+        long wall = System.currentTimeMillis();
+        if (wall > lastWallTime) {
+            lastWallTime = wall;
+            counter = 0;
+        } else {
+            counter++;
+        }
+        return new HlcTimestamp(lastWallTime, counter, nodeId);
+    }
+
+    /**
+     * Advance past a timestamp received from another node
+     */
+    public synchronized void observe(HlcTimestamp remote) {
+        long wall = System.currentTimeMillis();
+        long max = Math.max(wall, Math.max(lastWallTime, remote.wallTime()));
+        if (max == lastWallTime && max == remote.wallTime()) {
+            counter = Math.max(counter, remote.counter()) + 1;
+        } else if (max == lastWallTime) {
+            counter++;
+        } else if (max == remote.wallTime()) {
+            counter = remote.counter() + 1;
+        } else {
+            counter = 0;
+        }
+        lastWallTime = max;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
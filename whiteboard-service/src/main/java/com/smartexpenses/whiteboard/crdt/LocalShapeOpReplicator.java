@@ -0,0 +1,29 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Single-node replicator: there are no other nodes to send ops to
+ */
+@Component
+@ConditionalOnProperty(name = "whiteboard.crdt.replicator", havingValue = "local", matchIfMissing = true)
+public class LocalShapeOpReplicator implements ShapeOpReplicator {
+
+    @Override
+    public void publish(ShapeOp op) {
+        // Nothing to do on a single node
+    }
+
+    @Override
+    public void subscribe(Consumer<ShapeOp> consumer) {
+        // No remote ops on a single node
+    }
+
+    @Override
+    public void onGap(Runnable action) {
+        // Nothing can be missed on a single node
+    }
+}
@@ -0,0 +1,17 @@
+package com.smartexpenses.whiteboard.crdt;
+
+/**
+ * Last-writer-wins register: the value with the highest timestamp wins
+ */
+public record LwwRegister<T>(T value, HlcTimestamp timestamp) {
+
+    /**
+     * Commutative, associative and idempotent merge
+     */
+    public LwwRegister<T> merge(LwwRegister<T> other) {
+        if (other == null) {
+            return this;
+        }
+        return other.timestamp.isAfter(timestamp) ? other : this;
+    }
+}
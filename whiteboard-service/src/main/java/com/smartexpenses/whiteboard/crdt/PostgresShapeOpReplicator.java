@@ -0,0 +1,237 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Sends shape ops with Postgres NOTIFY and receives them with LISTEN, like the cache
+ * invalidation bus. NOTIFY payloads are limited to 8000 bytes, so an op is sent as JSON in
+ * chunks, all in one transaction; Postgres delivers them together and in order. Inside a
+ * request's transaction the op goes out only if that transaction commits.
+ * Ops sent while a node's listener is down are lost, so after reconnecting the node
+ * reloads its board documents from the database.
+ */
+@Component
+@ConditionalOnProperty(name = "whiteboard.crdt.replicator", havingValue = "postgres")
+@Slf4j
+public class PostgresShapeOpReplicator implements ShapeOpReplicator {
+
+    private static final String CHANNEL = "whiteboard_shape_ops";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final long pollMs;
+    private final long reconnectMs;
+
+    private final List<Consumer<ShapeOp>> consumers = new CopyOnWriteArrayList<>();
+    private final List<Runnable> gapActions = new CopyOnWriteArrayList<>();
+    private final Chunks.Assembler assembler = new Chunks.Assembler(); // Used by the listener thread only
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public PostgresShapeOpReplicator(DataSource dataSource,
+                                     JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     ObjectMapper objectMapper,
+                                     NodeIdentity nodeIdentity,
+                                     @Value("${whiteboard.crdt.listen-poll-ms:100}") long pollMs,
+                                     @Value("${whiteboard.crdt.reconnect-ms:5000}") long reconnectMs) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeIdentity.getNodeId();
+        this.pollMs = pollMs;
+        this.reconnectMs = reconnectMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        listener = new Thread(this::listen, "shape-op-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    @Override
+    public void publish(ShapeOp op) {
+        try {
+            List<String> chunks = Chunks.split(op.timestamp().toString(), objectMapper.writeValueAsString(op));
+            transactionTemplate.executeWithoutResult(status -> chunks.forEach(chunk ->
+                    jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, chunk)));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The other nodes pick the change up from the database once this node flushes it
+            log.error("Failed to publish shape op on board {}", op.boardId(), e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ShapeOp> consumer) {
+        consumers.add(consumer);
+    }
+
+    @Override
+    public void onGap(Runnable action) {
+        gapActions.add(action);
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (connectedBefore) {
+                    assembler.clear();
+                    gapActions.forEach(Runnable::run);
+                }
+                connectedBefore = true;
+                log.info("Listening for shape ops on {}", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Shape op listener disconnected, retrying in {} ms: {}", reconnectMs, e.getMessage());
+                    sleep(reconnectMs);
+                }
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        try {
+            String json = assembler.accept(payload);
+            if (json == null) {
+                return; // More chunks to come
+            }
+            ShapeOp op = objectMapper.readValue(json, ShapeOp.class);
+            if (nodeId.equals(op.timestamp().nodeId())) {
+                return; // Our own op, already applied
+            }
+            consumers.forEach(consumer -> consumer.accept(op));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Ignoring shape op chunk: {}", e.getMessage());
+        }
+    }
+
+    private void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Wire form of one chunk: key|index|count|part, where key identifies the op
+     * (its HLC timestamp; node ids never contain '|')
+     */
+    static final class Chunks {
+
+        // At most 3 UTF-8 bytes per char, so a chunk stays well under the 8000 byte limit
+        static final int MAX_CHARS = 2000;
+        private static final int MAX_PENDING_OPS = 1000;
+
+        private Chunks() {
+        }
+
+        static List<String> split(String key, String json) {
+            int count = 0;
+            List<String> parts = new ArrayList<>();
+            int start = 0;
+            do {
+                int end = Math.min(json.length(), start + MAX_CHARS);
+                if (end < json.length() && Character.isHighSurrogate(json.charAt(end - 1))) {
+                    end--; // Never split a surrogate pair
+                }
+                parts.add(json.substring(start, end));
+                start = end;
+                count++;
+            } while (start < json.length());
+
+            List<String> chunks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                chunks.add(key + "|" + i + "|" + count + "|" + parts.get(i));
+            }
+            return chunks;
+        }
+
+        static final class Assembler {
+
+            // Key: op key, Value: chunks received so far
+            private final Map<String, String[]> pending = new HashMap<>();
+
+            /**
+             * @return the op's JSON once its last chunk arrived, else null
+             */
+            String accept(String chunk) {
+                String[] fields = chunk.split("\\|", 4);
+                if (fields.length != 4) {
+                    throw new IllegalArgumentException("Malformed shape op chunk");
+                }
+                int index = Integer.parseInt(fields[1]);
+                int count = Integer.parseInt(fields[2]);
+                if (count == 1) {
+                    return fields[3];
+                }
+                if (pending.size() >= MAX_PENDING_OPS && !pending.containsKey(fields[0])) {
+                    pending.clear(); // Chunks of one op arrive together, so these are leftovers
+                }
+                String[] parts = pending.computeIfAbsent(fields[0], key -> new String[count]);
+                parts[index] = fields[3];
+                for (String part : parts) {
+                    if (part == null) {
+                        return null;
+                    }
+                }
+                pending.remove(fields[0]);
+                return String.join("", parts);
+            }
+
+            void clear() {
+                pending.clear();
+            }
+        }
+    }
+}
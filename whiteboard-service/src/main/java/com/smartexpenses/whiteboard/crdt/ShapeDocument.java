@@ -0,0 +1,116 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CRDT state of one shape: an LWW register per data field, an LWW register for the
+ * fractional layer key and a delete tombstone (delete wins over concurrent edits).
+ * Applying the same set of ops in any order, any number of times, gives the same state.
+ */
+public class ShapeDocument {
+
+    private final ShapeType type;
+    private final Map<String, LwwRegister<Object>> fields = new HashMap<>(); // guarded by this
+    private LwwRegister<String> layerKey;
+    private HlcTimestamp deletedAt;
+
+    ShapeDocument(ShapeType type) {
+        this.type = type;
+    }
+
+    /**
+     * Seed from a persisted row; every field gets the row's timestamp
+     */
+    static ShapeDocument fromSnapshot(ShapeType type, Map<String, Object> data, String layerKey,
+                                      HlcTimestamp timestamp) {
+        ShapeDocument document = new ShapeDocument(type);
+        if (data != null) {
+            data.forEach((key, value) -> document.fields.put(key, new LwwRegister<>(value, timestamp)));
+        }
+        if (layerKey != null) {
+            document.layerKey = new LwwRegister<>(layerKey, timestamp);
+        }
+        return document;
+    }
+
+    /**
+     * Merge an op into this shape
+     * @return the fields (and layer key) the op actually won, empty if it lost everywhere
+     */
+    synchronized Applied apply(ShapeOp op) {
+        if (op.kind() == ShapeOp.Kind.DELETE) {
+            boolean first = deletedAt == null;
+            if (first || op.timestamp().isAfter(deletedAt)) {
+                deletedAt = op.timestamp();
+            }
+            return new Applied(Collections.emptyMap(), null, first);
+        }
+
+        if (deletedAt != null) {
+            return new Applied(Collections.emptyMap(), null, false); // Delete wins
+        }
+
+        Map<String, Object> won = new HashMap<>();
+        if (op.fields() != null) {
+            op.fields().forEach((key, value) -> {
+                LwwRegister<Object> current = fields.get(key);
+                LwwRegister<Object> merged = new LwwRegister<>(value, op.timestamp()).merge(current);
+                if (merged != current) {
+                    fields.put(key, merged);
+                    won.put(key, value);
+                }
+            });
+        }
+
+        String wonLayer = null;
+        if (op.layerKey() != null) {
+            LwwRegister<String> incoming = new LwwRegister<>(op.layerKey(), op.timestamp());
+            if (layerKey == null || incoming.timestamp().isAfter(layerKey.timestamp())) {
+                layerKey = incoming;
+                wonLayer = op.layerKey();
+            }
+        }
+        return new Applied(won, wonLayer, false);
+    }
+
+    /**
+     * Current field values (removed fields omitted)
+     */
+    public synchronized Map<String, Object> materialize() {
+        Map<String, Object> data = new HashMap<>(fields.size());
+        fields.forEach((key, register) -> {
+            if (register.value() != null) {
+                data.put(key, register.value());
+            }
+        });
+        return data;
+    }
+
+    public synchronized String getLayerKey() {
+        return layerKey != null ? layerKey.value() : null;
+    }
+
+    public synchronized boolean isDeleted() {
+        return deletedAt != null;
+    }
+
+    public ShapeType getType() {
+        return type;
+    }
+
+    /**
+     * Effect of an op on this shape
+     * @param fields     fields whose register the op won
+     * @param layerKey new layer key, or null if unchanged
+     * @param deleted  true if the op deleted a live shape
+     */
+    record Applied(Map<String, Object> fields, String layerKey, boolean deleted) {
+        boolean changed() {
+            return deleted || layerKey != null || !fields.isEmpty();
+        }
+    }
+}
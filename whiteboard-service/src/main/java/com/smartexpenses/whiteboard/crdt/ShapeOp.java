@@ -0,0 +1,21 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A timestamped operation on one shape
+ * @param fields     fields to set (UPDATE, CREATE); a null value removes the field
+ * @param layerKey   fractional stacking key to set, or null to leave it
+ */
+public record ShapeOp(UUID boardId, UUID shapeId, Kind kind, ShapeType shapeType,
+                      Map<String, Object> fields, String layerKey, HlcTimestamp timestamp) {
+
+    public enum Kind {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
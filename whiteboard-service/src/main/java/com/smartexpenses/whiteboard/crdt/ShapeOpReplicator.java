@@ -0,0 +1,26 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries shape ops between replicas
+ * Ops are commutative and idempotent, so delivery may be unordered and at-least-once.
+ */
+public interface ShapeOpReplicator {
+
+    /**
+     * Send an op applied on this node to the other nodes
+     */
+    void publish(ShapeOp op);
+
+    /**
+     * Receive ops applied on other nodes
+     */
+    void subscribe(Consumer<ShapeOp> consumer);
+
+    /**
+     * Called when ops from other nodes may have been lost (e.g. after reconnecting), so
+     * loaded documents must be reloaded from the database
+     */
+    void onGap(Runnable action);
+}
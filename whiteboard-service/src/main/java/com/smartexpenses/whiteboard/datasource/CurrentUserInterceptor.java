@@ -0,0 +1,38 @@
+package com.smartexpenses.whiteboard.datasource;
+
+import com.smartexpenses.whiteboard.exception.UnauthorizedException;
+import com.smartexpenses.whiteboard.util.JwtUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Makes the caller of a REST request known to read-your-writes routing
+ * Authentication itself still happens in the controllers; a bad token just means no user.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserInterceptor implements HandlerInterceptor {
+
+    private final JwtUtil jwtUtil;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String authorization = request.getHeader("Authorization");
+        if (authorization != null) {
+            try {
+                ReadYourWrites.setCurrentUser(jwtUtil.extractUserIdFromHeader(authorization));
+            } catch (UnauthorizedException e) {
+                // Rejected by the controller
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadYourWrites.clearCurrentUser();
+    }
+}
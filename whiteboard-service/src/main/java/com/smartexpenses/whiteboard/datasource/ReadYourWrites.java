@@ -0,0 +1,129 @@
+package com.smartexpenses.whiteboard.datasource;
+
+import com.smartexpenses.whiteboard.cache.CacheInvalidation;
+import com.smartexpenses.whiteboard.cache.CacheInvalidationBus;
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers who wrote recently, so their own reads go to the primary until the replica has
+ * surely caught up. The reader of the current thread is set per request (REST) and
+ * writes are recorded on commit. Writes are also sent to the other replicas over the cache
+ * invalidation bus, at most every quarter window per user, so a read that lands on another
+ * node than the write still goes to the primary; those nodes start the window when the
+ * message arrives, so it lasts at least three quarters of the window after the last write.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<UUID> CURRENT_USER = new ThreadLocal<>();
+
+    private final CacheInvalidationBus bus;
+    private final String nodeId;
+    private final long windowMs;
+
+    // Key: userId, Value: time of the user's last committed write
+    private final ConcurrentMap<UUID, Long> lastWrites = new ConcurrentHashMap<>();
+    // Key: userId, Value: when this node last told the others about the user's writes
+    private final ConcurrentMap<UUID, Long> lastShared = new ConcurrentHashMap<>();
+    // Writes from other nodes may have been missed until then: everyone reads the primary
+    private volatile long unknownUntil;
+
+    // The bus is lazy: with a replica, the routing data source it needs is built with this
+    public ReadYourWrites(@Lazy CacheInvalidationBus bus,
+                          NodeIdentity nodeIdentity,
+                          @Value("${whiteboard.datasource.replica.read-your-writes-ms:5000}") long windowMs) {
+        this.bus = bus;
+        this.nodeId = nodeIdentity.getNodeId();
+        this.windowMs = windowMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        bus.subscribe(this::applyRemote);
+        bus.onGap(() -> unknownUntil = System.currentTimeMillis() + windowMs);
+    }
+
+    public static UUID currentUser() {
+        return CURRENT_USER.get();
+    }
+
+    public static void setCurrentUser(UUID userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public static void clearCurrentUser() {
+        CURRENT_USER.remove();
+    }
+
+    /**
+     * Record a write by this user, once the surrounding transaction (if any) commits
+     */
+    public void recordWrite(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    written(userId);
+                }
+            });
+        } else {
+            written(userId);
+        }
+    }
+
+    public boolean wroteRecently(UUID userId) {
+        if (userId == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now < unknownUntil) {
+            return true;
+        }
+        Long lastWrite = lastWrites.get(userId);
+        return lastWrite != null && now - lastWrite < windowMs;
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.datasource.replica.read-your-writes-ms:5000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowMs);
+        lastShared.values().removeIf(shared -> now - shared >= windowMs);
+    }
+
+    private void written(UUID userId) {
+        long now = System.currentTimeMillis();
+        lastWrites.put(userId, now);
+        Long shared = lastShared.get(userId);
+        if (shared != null && now - shared < windowMs / 4) {
+            return; // The other nodes know recently enough
+        }
+        // Claimed before publishing: sending opens a transaction of its own, which records a write too
+        boolean claimed = shared == null
+                ? lastShared.putIfAbsent(userId, now) == null
+                : lastShared.replace(userId, shared, now);
+        if (claimed) {
+            bus.publish(new CacheInvalidation(nodeId, CacheInvalidation.Entity.WRITER, userId, false));
+        }
+    }
+
+    private void applyRemote(CacheInvalidation invalidation) {
+        if (invalidation.entity() == CacheInvalidation.Entity.WRITER && !nodeId.equals(invalidation.nodeId())) {
+            lastWrites.put(invalidation.id(), System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.smartexpenses.whiteboard.datasource;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import java.sql.SQLException;
+
+/**
+ * Flags read-only transactions labelled {@link ReplicaRouting#LABEL} as replica-eligible
+ * for their duration. They also stop filling the second-level cache: a row read from a
+ * lagging replica must not be cached as current, since no invalidation will follow it.
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        boolean eligible = definition.isReadOnly()
+                && definition instanceof TransactionAttribute attribute
+                && attribute.getLabels().contains(ReplicaRouting.LABEL);
+        if (eligible) {
+            ReplicaRouting.enter();
+            entityManager.unwrap(Session.class).setCacheStoreMode(CacheStoreMode.BYPASS);
+        }
+        try {
+            return super.beginTransaction(entityManager, definition);
+        } catch (SQLException | RuntimeException e) {
+            ReplicaRouting.exit(); // No cleanup follows a failed begin
+            throw e;
+        }
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        ReplicaRouting.exit();
+        super.cleanupTransaction(transactionData);
+    }
+}
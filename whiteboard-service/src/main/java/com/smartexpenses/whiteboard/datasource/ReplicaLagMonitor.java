@@ -0,0 +1,77 @@
+package com.smartexpenses.whiteboard.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+
+/**
+ * Measures how far the replica is behind the primary. The replica counts as caught up
+ * once it has replayed the primary's current WAL position; otherwise the lag is the age
+ * of its last replayed transaction. A replica that is not in recovery (a plain database
+ * used as a local stand-in) has no lag. Failed checks count as unhealthy.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+
+    private volatile long lagMs = Long.MAX_VALUE; // Unhealthy until the first check
+    private volatile boolean healthy;
+
+    public ReplicaLagMonitor(JdbcTemplate primary, JdbcTemplate replica, long maxLagMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.datasource.replica.lag-check-ms:1000}")
+    public void check() {
+        long lag;
+        try {
+            lag = measureLag();
+        } catch (RuntimeException e) {
+            lag = Long.MAX_VALUE;
+            if (healthy) {
+                log.warn("Replica lag check failed, reading from the primary: {}", e.getMessage());
+            }
+        }
+        boolean nowHealthy = lag <= maxLagMs;
+        if (nowHealthy != healthy) {
+            log.info("Replica {} (lag {} ms, max {} ms)", nowHealthy ? "in use" : "bypassed",
+                    lag == Long.MAX_VALUE ? "unknown" : lag, maxLagMs);
+        }
+        lagMs = lag;
+        healthy = nowHealthy;
+    }
+
+    private long measureLag() {
+        Map<String, Object> state = replica.queryForMap("""
+                SELECT pg_is_in_recovery() AS in_recovery,
+                       pg_last_wal_replay_lsn()::text AS replayed,
+                       EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS replay_age_ms
+                """);
+        if (!Boolean.TRUE.equals(state.get("in_recovery"))) {
+            return 0;
+        }
+        String replayed = (String) state.get("replayed");
+        Long behindBytes = primary.queryForObject(
+                "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), ?::pg_lsn)::bigint", Long.class, replayed);
+        if (behindBytes != null && behindBytes <= 0) {
+            return 0; // Replayed everything the primary has written
+        }
+        Number replayAge = (Number) state.get("replay_age_ms");
+        return replayAge != null ? replayAge.longValue() : Long.MAX_VALUE;
+    }
+}
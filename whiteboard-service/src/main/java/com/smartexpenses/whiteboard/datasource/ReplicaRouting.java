@@ -0,0 +1,29 @@
+package com.smartexpenses.whiteboard.datasource;
+
+/**
+ * Marks transactions that may read from the replica. Only read-only transactions carrying
+ * the label are eligible, so repository-level reads (Spring Data's own readOnly
+ * transactions, access checks before writes) keep going to the primary:
+ * {@code @Transactional(readOnly = true, label = ReplicaRouting.LABEL)}
+ */
+public final class ReplicaRouting {
+
+    public static final String LABEL = "read-replica";
+
+    private static final ThreadLocal<Boolean> ELIGIBLE = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isEligible() {
+        return Boolean.TRUE.equals(ELIGIBLE.get());
+    }
+
+    static void enter() {
+        ELIGIBLE.set(Boolean.TRUE);
+    }
+
+    static void exit() {
+        ELIGIBLE.remove();
+    }
+}
@@ -0,0 +1,50 @@
+package com.smartexpenses.whiteboard.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends eligible read-only transactions to the replica, everything else to the primary.
+ * Falls back to the primary while the replica lags, and for users inside their
+ * read-your-writes window. Must sit behind a LazyConnectionDataSourceProxy, so the
+ * decision is made at the first statement, once the transaction's flags are known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final BooleanSupplier replicaHealthy;
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    BooleanSupplier replicaHealthy, ReadYourWrites readYourWrites) {
+        this.replicaHealthy = replicaHealthy;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID user = ReadYourWrites.currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.recordWrite(user); // May write: this user reads the primary for a while
+            }
+            return Target.PRIMARY;
+        }
+        if (ReplicaRouting.isEligible() && replicaHealthy.getAsBoolean() && !readYourWrites.wroteRecently(user)) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
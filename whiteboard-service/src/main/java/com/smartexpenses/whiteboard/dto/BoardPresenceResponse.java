@@ -0,0 +1,30 @@
+package com.smartexpenses.whiteboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardPresenceResponse {
+
+    private UUID boardId;
+    private List<ActiveUser> users;
+    private Long timestamp;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ActiveUser {
+        private UUID userId;
+        private String email;
+        private Integer sessions; // Open tabs/connections of this user on the board
+    }
+}
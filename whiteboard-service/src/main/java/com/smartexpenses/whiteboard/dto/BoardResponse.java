@@ -21,4 +21,5 @@ public class BoardResponse {
     private Boolean isPublic;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private BoardSummary summary; // Only with ?include=summary
 }
@@ -0,0 +1,21 @@
+package com.smartexpenses.whiteboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardSummary {
+
+    private Long shapeCount;
+    private LocalDateTime lastActivityAt;
+    private Integer activeUsers; // Distinct users currently on the board, cluster-wide
+    private Long contentVersion; // Changes whenever the board's shapes change
+    private String thumbnailUrl; // Includes the content version, so it changes when the board does
+}
@@ -0,0 +1,59 @@
+package com.smartexpenses.whiteboard.dto;
+
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One tile of a board's level-of-detail pyramid. Exactly one of shapes, simplified
+ * or cells is set, depending on detail.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardTileResponse {
+
+    private UUID boardId;
+    private Integer zoom;
+    private Long x;
+    private Long y;
+    private Long version; // Changes when anything drawn in this tile changes
+    private Detail detail;
+    private ShapeBounds bounds; // Canvas area covered by the tile
+    private List<ShapeResponse> shapes; // FULL: complete shapes touching the tile
+    private List<TileShape> simplified; // SIMPLIFIED: boxes of the shapes that are still visible
+    private Integer omitted; // SIMPLIFIED: shapes too small to see at this zoom
+    private List<TileCell> cells; // AGGREGATED: non-empty grid cells with shape counts
+
+    public enum Detail {
+        FULL,
+        SIMPLIFIED,
+        AGGREGATED
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TileShape {
+        private UUID id;
+        private ShapeType type;
+        private ShapeBounds bounds;
+        private String color;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TileCell {
+        private ShapeBounds bounds;
+        private Integer count;
+    }
+}
@@ -27,4 +27,5 @@ public class CreateShapeRequest {
     private Map<String, Object> data; // Flexible JSON for shape properties
 
     private Integer layerOrder; // Optional, will be auto-assigned if not provided
+    private UUID parentId; // Optional group/frame the shape belongs to
 }
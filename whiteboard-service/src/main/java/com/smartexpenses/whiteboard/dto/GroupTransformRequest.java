@@ -0,0 +1,20 @@
+package com.smartexpenses.whiteboard.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupTransformRequest {
+
+    @NotNull(message = "dx is required")
+    private Double dx; // Horizontal offset applied to the group and every descendant
+
+    @NotNull(message = "dy is required")
+    private Double dy; // Vertical offset applied to the group and every descendant
+}
@@ -0,0 +1,21 @@
+package com.smartexpenses.whiteboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupTransformResponse {
+
+    private UUID rootId;
+    private List<UUID> shapeIds; // Root and all descendants that were moved
+    private Double dx;
+    private Double dy;
+}
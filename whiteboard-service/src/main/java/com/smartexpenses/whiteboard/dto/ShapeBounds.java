@@ -0,0 +1,21 @@
+package com.smartexpenses.whiteboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Axis-aligned bounding box of a shape in canvas coordinates
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShapeBounds {
+
+    private double x;
+    private double y;
+    private double width;
+    private double height;
+}
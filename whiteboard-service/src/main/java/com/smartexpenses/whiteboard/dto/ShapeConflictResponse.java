@@ -0,0 +1,22 @@
+package com.smartexpenses.whiteboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShapeConflictResponse {
+
+    private UUID shapeId;
+    private Long version; // Current version, null if unknown
+    private Map<String, Object> data; // Current shape data, null if unknown
+    private Integer layerOrder;
+    private String message;
+}
@@ -18,9 +18,12 @@ public class ShapeResponse {
 
     private UUID id;
     private UUID boardId;
+    private UUID parentId;
     private ShapeType type;
     private Map<String, Object> data;
     private Integer layerOrder;
+    private String layerKey;
+    private Long version;
     private UUID createdBy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,22 @@
+package com.smartexpenses.whiteboard.dto;
+
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShapeSearchHit {
+
+    private UUID shapeId;
+    private ShapeType type;
+    private String text;
+    private Double rank;
+    private ShapeBounds bounds; // Lets the client pan/zoom to the hit without loading the board
+}
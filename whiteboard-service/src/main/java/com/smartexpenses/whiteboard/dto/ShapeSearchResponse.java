@@ -0,0 +1,23 @@
+package com.smartexpenses.whiteboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShapeSearchResponse {
+
+    private UUID boardId;
+    private String query;
+    private int page;
+    private int size;
+    private long total;
+    private List<ShapeSearchHit> hits; // Best match first
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.Map;
+import java.util.UUID;
 
 @Data
 @Builder
@@ -15,4 +16,8 @@ public class UpdateShapeRequest {
 
     private Map<String, Object> data; // Updated shape properties
     private Integer layerOrder; // Optional layer order update
+    private UUID parentId; // Optional new group/frame; use detachFromParent to move to top level
+    private Boolean detachFromParent; // Move the shape out of its group
+    private Long version; // Version the update is based on; null applies unconditionally
+    private Boolean patch; // data holds only changed fields, merged onto the current data
 }
@@ -1,7 +1,10 @@
 package com.smartexpenses.whiteboard.exception;
 
+import com.smartexpenses.whiteboard.dto.ShapeConflictResponse;
+import com.smartexpenses.whiteboard.dto.ShapeResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -25,6 +28,30 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(ex.getStatus()).body(error);
     }
 
+    @ExceptionHandler(ShapeConflictException.class)
+    public ResponseEntity<ShapeConflictResponse> handleShapeConflictException(ShapeConflictException ex) {
+        ShapeResponse current = ex.getCurrent();
+        ShapeConflictResponse conflict = ShapeConflictResponse.builder()
+                .shapeId(current.getId())
+                .version(current.getVersion())
+                .data(current.getData())
+                .layerOrder(current.getLayerOrder())
+                .message(ex.getMessage())
+                .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(conflict);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                "The resource was modified concurrently, please reload it"
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
         ErrorResponse error = new ErrorResponse(
@@ -0,0 +1,23 @@
+package com.smartexpenses.whiteboard.exception;
+
+import com.smartexpenses.whiteboard.dto.ShapeResponse;
+import org.springframework.http.HttpStatus;
+
+/**
+ * An update was based on a stale shape version
+ * Carries the current shape so the caller can reply without another read
+ */
+public class ShapeConflictException extends WhiteboardException {
+
+    private final ShapeResponse current;
+
+    public ShapeConflictException(ShapeResponse current) {
+        super(String.format("Shape %s was modified concurrently (current version %d)",
+                current.getId(), current.getVersion()), HttpStatus.CONFLICT);
+        this.current = current;
+    }
+
+    public ShapeResponse getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,202 @@
+package com.smartexpenses.whiteboard.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Board-sharded serial executor.
+ * Each board hashes to one lane; a lane runs at most one task at a time, in submission
+ * order, on the inbound executor. Operations on a board are therefore applied and
+ * broadcast in order, while different lanes (and so most boards) run in parallel.
+ */
+@Component
+@Slf4j
+public class BoardLaneExecutor {
+
+    private final Executor backingExecutor;
+    private final Lane[] lanes;
+    private final int laneCapacity;
+    private long statsWindowStart = System.nanoTime();
+
+    public BoardLaneExecutor(InstrumentedExecutor inboundExecutor,
+                             @Value("${whiteboard.execution.board-lanes:0}") int laneCount,
+                             @Value("${whiteboard.execution.lane-queue-capacity:1000}") int laneCapacity) {
+        this.backingExecutor = inboundExecutor;
+        this.laneCapacity = laneCapacity;
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors() * 8;
+        this.lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(i);
+        }
+        log.info("Board lanes started: lanes={}, laneQueueCapacity={}", count, laneCapacity);
+    }
+
+    /**
+     * Queue a task on the board's lane
+     * @throws RejectedExecutionException if the lane's queue is full
+     */
+    public void execute(UUID boardId, Runnable task) {
+        laneFor(boardId).submit(task);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getQueuedTotal() {
+        int total = 0;
+        for (Lane lane : lanes) {
+            total += lane.depth();
+        }
+        return total;
+    }
+
+    public long getRejectedTotal() {
+        long total = 0;
+        for (Lane lane : lanes) {
+            total += lane.rejected.get();
+        }
+        return total;
+    }
+
+    /**
+     * Restart lanes whose drain the inbound executor rejected while other tasks were already
+     * queued behind it; without this those tasks would wait for the next submit to the lane
+     */
+    @Scheduled(fixedDelayString = "${whiteboard.execution.lane-restart-ms:100}")
+    public void restartStalledLanes() {
+        for (Lane lane : lanes) {
+            lane.restartIfStalled();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.execution.stats-log-ms:60000}")
+    public void logStats() {
+        long now = System.nanoTime();
+        long window = Math.max(1, now - statsWindowStart);
+        statsWindowStart = now;
+
+        int queued = 0;
+        long deepest = 0;
+        int busiestLane = 0;
+        double busiest = 0;
+        double utilizationSum = 0;
+        for (Lane lane : lanes) {
+            int depth = lane.depth();
+            queued += depth;
+            deepest = Math.max(deepest, lane.peakDepth.getAndSet(depth));
+            double utilization = Math.min(1.0, (double) lane.busyNanos.getAndSet(0) / window);
+            utilizationSum += utilization;
+            if (utilization > busiest) {
+                busiest = utilization;
+                busiestLane = lane.index;
+            }
+        }
+        log.info("Board lanes: queued={}, peakLaneDepth={}, avgUtilization={}%, busiestLane={} ({}%), rejected={}",
+                queued, deepest, Math.round(utilizationSum / lanes.length * 100), busiestLane,
+                Math.round(busiest * 100), getRejectedTotal());
+    }
+
+    private Lane laneFor(UUID boardId) {
+        if (boardId == null) {
+            return lanes[0];
+        }
+        // Spread the UUID bits before reducing to a lane index
+        int hash = boardId.hashCode();
+        hash ^= (hash >>> 16);
+        return lanes[Math.floorMod(hash, lanes.length)];
+    }
+
+    private final class Lane {
+        private final int index;
+        private final Deque<Runnable> queue = new ArrayDeque<>(); // guarded by this
+        private boolean scheduled; // guarded by this; true while a drain is queued or running
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicLong peakDepth = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+
+        private Lane(int index) {
+            this.index = index;
+        }
+
+        void submit(Runnable task) {
+            boolean startDrain;
+            synchronized (this) {
+                if (queue.size() >= laneCapacity) {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("Board lane " + index + " is full");
+                }
+                queue.addLast(task);
+                peakDepth.accumulateAndGet(queue.size(), Math::max);
+                startDrain = !scheduled;
+                scheduled = true;
+            }
+            if (startDrain) {
+                try {
+                    backingExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    synchronized (this) {
+                        queue.remove(task);
+                        // Anything queued meanwhile starts with the next submit or restartStalledLanes()
+                        scheduled = false;
+                    }
+                    rejected.incrementAndGet();
+                    throw e;
+                }
+            }
+        }
+
+        // Starts a drain for tasks left queued after the backing executor rejected one
+        void restartIfStalled() {
+            synchronized (this) {
+                if (scheduled || queue.isEmpty()) {
+                    return;
+                }
+                scheduled = true;
+            }
+            try {
+                backingExecutor.execute(this::drain);
+                log.warn("Board lane {} restarted after its drain was rejected", index);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    scheduled = false; // Still saturated; try again on the next tick
+                }
+            }
+        }
+
+        synchronized int depth() {
+            return queue.size();
+        }
+
+        // Runs queued tasks one by one until the lane is empty
+        private void drain() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = queue.pollFirst();
+                    if (task == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                long start = System.nanoTime();
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Board lane {} task failed", index, e);
+                } finally {
+                    busyNanos.addAndGet(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.smartexpenses.whiteboard.execution;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor wrapper that tracks saturation: tasks waiting to start, tasks running,
+ * peak concurrency and rejections. Works the same over a thread pool and over
+ * virtual threads, where the pool itself exposes no queue. A TaskExecutor, so the STOMP
+ * configuration can expose it as its clientInboundChannelExecutor bean.
+ */
+public class InstrumentedExecutor implements TaskExecutor, DisposableBean {
+
+    private final String name;
+    private final Executor delegate;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peakRunning = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    public InstrumentedExecutor(String name, Executor delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long submittedAt = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                waiting.decrementAndGet();
+                totalWaitNanos.addAndGet(System.nanoTime() - submittedAt);
+                peakRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    task.run();
+                } finally {
+                    running.decrementAndGet();
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            waiting.decrementAndGet();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public int getPeakRunning() {
+        return peakRunning.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public double getAverageWaitMs() {
+        long done = completed.get();
+        return done == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / done;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean disposable) {
+            disposable.destroy();
+        } else if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[waiting=%d, running=%d, peakRunning=%d, completed=%d, rejected=%d, avgWaitMs=%.2f]",
+                name, getWaiting(), getRunning(), getPeakRunning(), getCompleted(), getRejected(), getAverageWaitMs());
+    }
+}
@@ -1,7 +1,10 @@
 package com.smartexpenses.whiteboard.model;
 
+import com.smartexpenses.whiteboard.cache.CacheRegions;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,6 +13,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "boards")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.BOARDS)
 @Data
 @Builder
 @NoArgsConstructor
@@ -40,4 +45,8 @@ public class Board {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Set while the board's shapes are held in board_archives (see BoardArchiveService)
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
 }
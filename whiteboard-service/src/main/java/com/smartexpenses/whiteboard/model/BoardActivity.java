@@ -0,0 +1,33 @@
+package com.smartexpenses.whiteboard.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-board counters kept up to date on every shape mutation (see BoardActivityTracker),
+ * so board listings can show them without touching the shapes table
+ */
+@Entity
+@Table(name = "board_activity")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardActivity {
+
+    @Id
+    @Column(name = "board_id")
+    private UUID boardId;
+
+    @Column(name = "shape_count", nullable = false)
+    private long shapeCount;
+
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+
+    @Column(name = "content_version", nullable = false)
+    private long contentVersion; // Bumped on every shape change; keys cached previews
+}
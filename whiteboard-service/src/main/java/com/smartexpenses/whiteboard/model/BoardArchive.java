@@ -0,0 +1,33 @@
+package com.smartexpenses.whiteboard.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cold storage for the shapes of an inactive board (see BoardArchiveService).
+ * The payload is a gzip'd JSON document; the board's shape rows are removed while it exists.
+ */
+@Entity
+@Table(name = "board_archives")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardArchive {
+
+    @Id
+    @Column(name = "board_id")
+    private UUID boardId;
+
+    @Column(name = "shape_count", nullable = false)
+    private int shapeCount;
+
+    @Column(nullable = false)
+    private byte[] payload;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
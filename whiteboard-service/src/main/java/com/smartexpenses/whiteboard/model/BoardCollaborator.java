@@ -1,8 +1,11 @@
 package com.smartexpenses.whiteboard.model;
 
+import com.smartexpenses.whiteboard.cache.CacheRegions;
 import com.smartexpenses.whiteboard.model.enums.CollaboratorRole;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -11,6 +14,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "board_collaborators", 
        uniqueConstraints = @UniqueConstraint(columnNames = {"board_id", "user_id"}))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.COLLABORATORS)
 @Data
 @Builder
 @NoArgsConstructor
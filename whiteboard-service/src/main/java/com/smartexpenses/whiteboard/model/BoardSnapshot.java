@@ -1,9 +1,10 @@
 package com.smartexpenses.whiteboard.model;
 
-import com.smartexpenses.whiteboard.util.JsonConverter;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -25,9 +26,9 @@ public class BoardSnapshot {
     @JoinColumn(name = "board_id", nullable = false)
     private Board board;
 
-    @Convert(converter = JsonConverter.class)
-    @Column(name = "snapshot_data", nullable = false, columnDefinition = "TEXT")
-    private Map<String, Object> snapshotData; 
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "snapshot_data", nullable = false, columnDefinition = "jsonb")
+    private Map<String, Object> snapshotData;
 
     @Column(name = "created_by")
     private UUID createdBy; // References users.id from auth-service
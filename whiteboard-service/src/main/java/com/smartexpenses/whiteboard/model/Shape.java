@@ -1,11 +1,12 @@
 package com.smartexpenses.whiteboard.model;
 
 import com.smartexpenses.whiteboard.model.enums.ShapeType;
-import com.smartexpenses.whiteboard.util.JsonConverter;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -27,21 +28,38 @@ public class Shape {
     @JoinColumn(name = "board_id", nullable = false)
     private Board board;
 
+    // Group/frame this shape belongs to (another shape on the same board), null at top level
+    @Column(name = "parent_id")
+    private UUID parentId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 50)
     private ShapeType type;
 
-    @Convert(converter = JsonConverter.class)
-    @Column(columnDefinition = "TEXT")
-    private Map<String, Object> data; 
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private Map<String, Object> data;
 
     @Column(name = "layer_order", nullable = false)
     @Builder.Default
     private Integer layerOrder = 0;
 
+    // Fractional stacking key (see LayerKeys); byte-ordered so sorting matches LayerKeys
+    @Column(name = "layer_key", length = 64, columnDefinition = "VARCHAR(64) COLLATE \"C\"")
+    private String layerKey;
+
     @Column(name = "created_by")
     private UUID createdBy; // References users.id from auth-service
 
+    @Column(name = "updated_by")
+    private UUID updatedBy; // Last writer
+
+    // Bumped on every update; stale writes are rejected or merged in ShapeService
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    @Builder.Default
+    private Long version = 0L;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,10 @@
+package com.smartexpenses.whiteboard.presence;
+
+import java.util.UUID;
+
+/**
+ * A user currently present on a board
+ * @param sessions open tabs/connections of the user on the board
+ */
+public record ActiveUser(UUID userId, String email, int sessions) {
+}
@@ -0,0 +1,124 @@
+package com.smartexpenses.whiteboard.presence;
+
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bridges this node's {@link PresenceRegistry} to the shared {@link PresenceBackend}.
+ * Local joins/leaves are published immediately, local entries are refreshed by heartbeat,
+ * and cluster-wide changes (from any node, including expiry of a dead node's entries)
+ * are fed to the {@link PresenceBroadcaster}.
+ */
+@Component
+@Slf4j
+public class ClusterPresence {
+
+    private final PresenceRegistry presenceRegistry;
+    private final PresenceBackend presenceBackend;
+    private final PresenceBroadcaster presenceBroadcaster;
+    private final String nodeId;
+    private final long ttlMs;
+
+    // Striped by (board, user): joins, leaves and heartbeats of one entry publish in the order
+    // the registry saw them, so a heartbeat cannot bring back an entry a leave just removed
+    private final Object[] entryLocks = new Object[64];
+
+    public ClusterPresence(PresenceRegistry presenceRegistry,
+                           PresenceBackend presenceBackend,
+                           PresenceBroadcaster presenceBroadcaster,
+                           NodeIdentity nodeIdentity,
+                           @Value("${whiteboard.presence.ttl-ms:30000}") long ttlMs) {
+        this.presenceRegistry = presenceRegistry;
+        this.presenceBackend = presenceBackend;
+        this.presenceBroadcaster = presenceBroadcaster;
+        this.nodeId = nodeIdentity.getNodeId();
+        this.ttlMs = ttlMs;
+        for (int i = 0; i < entryLocks.length; i++) {
+            entryLocks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        presenceBackend.addListener(this::onClusterChange);
+        log.info("Presence node started: nodeId={}, ttlMs={}", nodeId, ttlMs);
+    }
+
+    /**
+     * Publish a user's first session on a board from this node
+     */
+    public void localJoin(UUID boardId, UUID userId, String email) {
+        synchronized (lockFor(boardId, userId)) {
+            if (presenceRegistry.isUserOnBoard(boardId, userId)) { // Else it already left again
+                presenceBackend.publish(nodeId, boardId, userId, email, 1, System.currentTimeMillis() + ttlMs);
+            }
+        }
+    }
+
+    /**
+     * Withdraw this node's entry once the user's last local session left the board
+     */
+    public void localLeave(UUID boardId, UUID userId) {
+        synchronized (lockFor(boardId, userId)) {
+            if (!presenceRegistry.isUserOnBoard(boardId, userId)) { // Else it already joined again
+                presenceBackend.remove(nodeId, boardId, userId);
+            }
+        }
+    }
+
+    /**
+     * Cluster-wide users on a board
+     */
+    public List<ActiveUser> getBoardUsers(UUID boardId) {
+        return presenceBackend.getBoardUsers(boardId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Refresh every local entry; also brings session counts in the backend up to date
+    @Scheduled(fixedDelayString = "${whiteboard.presence.heartbeat-ms:10000}")
+    public void heartbeat() {
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+        presenceRegistry.forEachBoardUser((boardId, user) -> {
+            synchronized (lockFor(boardId, user.userId())) {
+                // The user may have left since the registry was walked
+                if (presenceRegistry.isUserOnBoard(boardId, user.userId())) {
+                    presenceBackend.publish(nodeId, boardId, user.userId(), user.email(), user.sessions(), expiresAt);
+                }
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.presence.heartbeat-ms:10000}")
+    public void expire() {
+        presenceBackend.expire(System.currentTimeMillis());
+    }
+
+    // Graceful shutdown: withdraw our entries instead of waiting for the TTL
+    @PreDestroy
+    public void shutdown() {
+        presenceRegistry.forEachBoardUser((boardId, user) -> presenceBackend.remove(nodeId, boardId, user.userId()));
+    }
+
+    private Object lockFor(UUID boardId, UUID userId) {
+        return entryLocks[Math.floorMod(31 * boardId.hashCode() + userId.hashCode(), entryLocks.length)];
+    }
+
+    private void onClusterChange(UUID boardId, UUID userId, String email, boolean present) {
+        if (present) {
+            presenceBroadcaster.userJoined(boardId, userId, email);
+        } else {
+            presenceBroadcaster.userLeft(boardId, userId, email);
+        }
+    }
+}
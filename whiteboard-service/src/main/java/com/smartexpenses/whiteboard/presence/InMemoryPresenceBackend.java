@@ -0,0 +1,133 @@
+package com.smartexpenses.whiteboard.presence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process presence backend, used for single-node deployments and tests.
+ * Behaves like a shared store with one writer, so multi-node code paths (heartbeats,
+ * expiry, node entries) are exercised even when only one replica runs.
+ */
+@Component
+@ConditionalOnProperty(name = "whiteboard.presence.backend", havingValue = "in-memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryPresenceBackend implements PresenceBackend {
+
+    // Key: boardId, Value: userId -> the user's entries per node
+    private final ConcurrentMap<UUID, ConcurrentMap<UUID, ClusterUser>> boards = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String nodeId, UUID boardId, UUID userId, String email, int sessions, long expiresAt) {
+        boolean[] appeared = new boolean[1];
+        boards.compute(boardId, (id, users) -> {
+            if (users == null) {
+                users = new ConcurrentHashMap<>();
+            }
+            users.compute(userId, (uid, user) -> {
+                NodeEntry entry = new NodeEntry(sessions, expiresAt);
+                if (user == null) {
+                    appeared[0] = true;
+                    return new ClusterUser(email, Map.of(nodeId, entry));
+                }
+                Map<String, NodeEntry> nodes = new HashMap<>(user.nodes());
+                nodes.put(nodeId, entry);
+                return new ClusterUser(user.email(), Map.copyOf(nodes));
+            });
+            return users;
+        });
+        if (appeared[0]) {
+            notifyListeners(boardId, userId, email, true);
+        }
+    }
+
+    @Override
+    public void remove(String nodeId, UUID boardId, UUID userId) {
+        String[] goneEmail = new String[1];
+        boards.computeIfPresent(boardId, (id, users) -> {
+            users.computeIfPresent(userId, (uid, user) -> withoutNodes(user, nodeId, Long.MIN_VALUE, goneEmail));
+            return users.isEmpty() ? null : users;
+        });
+        if (goneEmail[0] != null) {
+            notifyListeners(boardId, userId, goneEmail[0], false);
+        }
+    }
+
+    @Override
+    public List<ActiveUser> getBoardUsers(UUID boardId) {
+        ConcurrentMap<UUID, ClusterUser> users = boards.get(boardId);
+        if (users == null) {
+            return Collections.emptyList();
+        }
+        List<ActiveUser> result = new ArrayList<>(users.size());
+        users.forEach((userId, user) -> result.add(new ActiveUser(userId, user.email(), user.sessions())));
+        return result;
+    }
+
+    @Override
+    public void expire(long now) {
+        for (UUID boardId : boards.keySet()) {
+            List<ActiveUser> expired = new ArrayList<>();
+            boards.computeIfPresent(boardId, (id, users) -> {
+                for (UUID userId : users.keySet()) {
+                    String[] goneEmail = new String[1];
+                    users.computeIfPresent(userId, (uid, user) -> withoutNodes(user, null, now, goneEmail));
+                    if (goneEmail[0] != null) {
+                        expired.add(new ActiveUser(userId, goneEmail[0], 0));
+                    }
+                }
+                return users.isEmpty() ? null : users;
+            });
+            for (ActiveUser user : expired) {
+                log.info("Presence expired: userId={}, boardId={}", user.userId(), boardId);
+                notifyListeners(boardId, user.userId(), user.email(), false);
+            }
+        }
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    // Drops the given node's entry and any entry expired before 'now'; records the email if the user is gone
+    private static ClusterUser withoutNodes(ClusterUser user, String nodeId, long now, String[] goneEmail) {
+        Map<String, NodeEntry> nodes = new HashMap<>(user.nodes());
+        nodes.entrySet().removeIf(e -> e.getKey().equals(nodeId) || e.getValue().expiresAt() < now);
+        if (nodes.size() == user.nodes().size()) {
+            return user;
+        }
+        if (nodes.isEmpty()) {
+            goneEmail[0] = user.email();
+            return null;
+        }
+        return new ClusterUser(user.email(), Map.copyOf(nodes));
+    }
+
+    private void notifyListeners(UUID boardId, UUID userId, String email, boolean present) {
+        for (Listener listener : listeners) {
+            listener.onPresenceChanged(boardId, userId, email, present);
+        }
+    }
+
+    private record NodeEntry(int sessions, long expiresAt) {
+    }
+
+    // Immutable so readers can iterate without locking
+    private record ClusterUser(String email, Map<String, NodeEntry> nodes) {
+        int sessions() {
+            return nodes.values().stream().mapToInt(NodeEntry::sessions).sum();
+        }
+    }
+}
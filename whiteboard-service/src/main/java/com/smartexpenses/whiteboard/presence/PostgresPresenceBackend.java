@@ -0,0 +1,277 @@
+package com.smartexpenses.whiteboard.presence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Presence shared through the whiteboard.board_presence table, so replicas need nothing
+ * beyond the database they already share. Each node upserts its own rows on join and
+ * heartbeat; every statement that adds, re-counts or deletes a row sends it with NOTIFY in
+ * the same transaction, so every node (the sender included) hears row changes in commit order.
+ * Each node mirrors the table from that stream and serves reads from the mirror; users
+ * appear and disappear when their first row arrives or their last row goes. A listener
+ * that (re)connects reloads the table, announcing whatever changed while it was down.
+ */
+@Component
+@ConditionalOnProperty(name = "whiteboard.presence.backend", havingValue = "postgres")
+@Slf4j
+public class PostgresPresenceBackend implements PresenceBackend {
+
+    private static final String CHANNEL = "whiteboard_presence";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final long pollMs;
+    private final long reconnectMs;
+
+    // Key: boardId, Value: userId -> the user's rows per node; written by the listener thread only
+    private final ConcurrentMap<UUID, ConcurrentMap<UUID, ClusterUser>> boards = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public PostgresPresenceBackend(DataSource dataSource,
+                                   JdbcTemplate jdbcTemplate,
+                                   ObjectMapper objectMapper,
+                                   @Value("${whiteboard.presence.listen-poll-ms:500}") long pollMs,
+                                   @Value("${whiteboard.presence.reconnect-ms:5000}") long reconnectMs) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.pollMs = pollMs;
+        this.reconnectMs = reconnectMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        listener = new Thread(this::listen, "presence-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    @Override
+    public void publish(String nodeId, UUID boardId, UUID userId, String email, int sessions, long expiresAt) {
+        // Heartbeats that only move the expiry send nothing
+        jdbcTemplate.queryForList("""
+                WITH previous AS (
+                    SELECT sessions FROM whiteboard.board_presence
+                    WHERE board_id = ? AND user_id = ? AND node_id = ?
+                ), upserted AS (
+                    INSERT INTO whiteboard.board_presence (node_id, board_id, user_id, email, sessions, expires_at)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    ON CONFLICT (board_id, user_id, node_id)
+                    DO UPDATE SET sessions = EXCLUDED.sessions, expires_at = EXCLUDED.expires_at
+                    RETURNING node_id, board_id, user_id, email, sessions
+                )
+                SELECT pg_notify(?, json_build_object('present', true, 'nodeId', node_id, 'boardId', board_id,
+                        'userId', user_id, 'email', email, 'sessions', sessions)::text)
+                FROM upserted
+                WHERE NOT EXISTS (SELECT 1 FROM previous WHERE previous.sessions = upserted.sessions)
+                """, boardId, userId, nodeId, nodeId, boardId, userId, email, sessions, expiresAt, CHANNEL);
+    }
+
+    @Override
+    public void remove(String nodeId, UUID boardId, UUID userId) {
+        jdbcTemplate.queryForList("""
+                WITH removed AS (
+                    DELETE FROM whiteboard.board_presence
+                    WHERE board_id = ? AND user_id = ? AND node_id = ?
+                    RETURNING node_id, board_id, user_id, email
+                )
+                SELECT pg_notify(?, json_build_object('present', false, 'nodeId', node_id, 'boardId', board_id,
+                        'userId', user_id, 'email', email)::text)
+                FROM removed
+                """, boardId, userId, nodeId, CHANNEL);
+    }
+
+    @Override
+    public List<ActiveUser> getBoardUsers(UUID boardId) {
+        ConcurrentMap<UUID, ClusterUser> users = boards.get(boardId);
+        if (users == null) {
+            return Collections.emptyList();
+        }
+        List<ActiveUser> result = new ArrayList<>(users.size());
+        users.forEach((userId, user) -> result.add(new ActiveUser(userId, user.email(), user.sessions())));
+        return result;
+    }
+
+    @Override
+    public void expire(long now) {
+        // Every node runs this; DELETE ... RETURNING hands each expired row to exactly one of them
+        List<Map<String, Object>> expired = jdbcTemplate.queryForList("""
+                WITH removed AS (
+                    DELETE FROM whiteboard.board_presence
+                    WHERE expires_at < ?
+                    RETURNING node_id, board_id, user_id, email
+                )
+                SELECT pg_notify(?, json_build_object('present', false, 'nodeId', node_id, 'boardId', board_id,
+                        'userId', user_id, 'email', email)::text)
+                FROM removed
+                """, now, CHANNEL);
+        if (!expired.isEmpty()) {
+            log.info("Expired {} presence entries", expired.size());
+        }
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * A row change as sent with NOTIFY
+     */
+    record RowChange(boolean present, String nodeId, UUID boardId, UUID userId, String email, int sessions) {
+    }
+
+    // Apply one row change to the mirror, announcing users that appear or disappear
+    void apply(RowChange change) {
+        boolean[] appeared = new boolean[1];
+        String[] goneEmail = new String[1];
+        boards.compute(change.boardId(), (id, users) -> {
+            if (users == null) {
+                users = new ConcurrentHashMap<>();
+            }
+            users.compute(change.userId(), (uid, user) -> {
+                Map<String, Integer> nodes = user != null ? new HashMap<>(user.nodes()) : new HashMap<>();
+                if (change.present()) {
+                    nodes.put(change.nodeId(), change.sessions());
+                } else {
+                    nodes.remove(change.nodeId());
+                }
+                if (nodes.isEmpty()) {
+                    if (user != null) {
+                        goneEmail[0] = user.email();
+                    }
+                    return null;
+                }
+                appeared[0] = user == null;
+                return new ClusterUser(user != null ? user.email() : change.email(), Map.copyOf(nodes));
+            });
+            return users.isEmpty() ? null : users;
+        });
+        if (appeared[0]) {
+            notifyListeners(change.boardId(), change.userId(), change.email(), true);
+        } else if (goneEmail[0] != null) {
+            notifyListeners(change.boardId(), change.userId(), goneEmail[0], false);
+        }
+    }
+
+    // Replace the mirror with the table's current rows, announcing the differences
+    private void reload() {
+        List<RowChange> rows = jdbcTemplate.query(
+                "SELECT node_id, board_id, user_id, email, sessions FROM whiteboard.board_presence",
+                (rs, rowNum) -> new RowChange(true, rs.getString("node_id"), rs.getObject("board_id", UUID.class),
+                        rs.getObject("user_id", UUID.class), rs.getString("email"), rs.getInt("sessions")));
+        Set<String> current = new HashSet<>();
+        for (RowChange row : rows) {
+            current.add(row.nodeId() + "/" + row.boardId() + "/" + row.userId());
+        }
+        List<RowChange> gone = new ArrayList<>();
+        boards.forEach((boardId, users) -> users.forEach((userId, user) -> user.nodes().keySet().forEach(nodeId -> {
+            if (!current.contains(nodeId + "/" + boardId + "/" + userId)) {
+                gone.add(new RowChange(false, nodeId, boardId, userId, user.email(), 0));
+            }
+        })));
+        gone.forEach(this::apply);
+        rows.forEach(this::apply);
+        log.info("Loaded {} presence entries", rows.size());
+    }
+
+    private void notifyListeners(UUID boardId, UUID userId, String email, boolean present) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onPresenceChanged(boardId, userId, email, present);
+            } catch (RuntimeException e) {
+                log.warn("Presence listener failed: userId={}, boardId={}", userId, boardId, e);
+            }
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for presence changes on {}", CHANNEL);
+                reload(); // After LISTEN, so no change falls between the two
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | DataAccessException e) {
+                if (running) {
+                    log.warn("Presence listener disconnected, retrying in {} ms: {}", reconnectMs, e.getMessage());
+                    sleep(reconnectMs);
+                }
+            }
+        }
+    }
+
+    void deliver(String payload) {
+        RowChange change;
+        try {
+            change = objectMapper.readValue(payload, RowChange.class);
+        } catch (Exception e) {
+            log.warn("Ignoring presence change '{}': {}", payload, e.getMessage());
+            return;
+        }
+        apply(change);
+    }
+
+    // Immutable so readers can iterate without locking
+    private record ClusterUser(String email, Map<String, Integer> nodes) {
+        int sessions() {
+            return nodes.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    private void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.smartexpenses.whiteboard.presence;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shared presence store that aggregates every node's local presence.
+ * Each node publishes its (board, user) entries with an expiry and keeps refreshing
+ * them by heartbeat; entries of a node that stops heartbeating expire on their own.
+ * Implementations must notify listeners whenever a user appears on or disappears from
+ * a board cluster-wide, whichever node caused the change.
+ */
+public interface PresenceBackend {
+
+    /**
+     * Create or refresh a node's entry for a user on a board
+     * @param sessions the user's sessions on the board on that node
+     * @param expiresAt epoch millis after which the entry is considered stale
+     */
+    void publish(String nodeId, UUID boardId, UUID userId, String email, int sessions, long expiresAt);
+
+    /**
+     * Remove a node's entry for a user on a board
+     */
+    void remove(String nodeId, UUID boardId, UUID userId);
+
+    /**
+     * Cluster-wide users on a board, session counts summed over nodes
+     */
+    List<ActiveUser> getBoardUsers(UUID boardId);
+
+    /**
+     * Drop entries whose expiry is before now
+     */
+    void expire(long now);
+
+    void addListener(Listener listener);
+
+    interface Listener {
+        void onPresenceChanged(UUID boardId, UUID userId, String email, boolean present);
+    }
+}
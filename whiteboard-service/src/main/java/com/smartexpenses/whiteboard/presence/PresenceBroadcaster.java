@@ -0,0 +1,122 @@
+package com.smartexpenses.whiteboard.presence;
+
+import com.smartexpenses.whiteboard.websocket.dto.WebSocketMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Debounces presence changes per board and sends them as one PRESENCE_DIFF frame.
+ * Joins go out on the next flush; leaves are held for a grace period so a tab that
+ * reconnects (or a user who flaps between boards) produces no frame at all.
+ */
+@Component
+@Slf4j
+public class PresenceBroadcaster {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long leaveGraceMs;
+
+    // Key: boardId, Value: changes not yet broadcast (mutated only inside compute)
+    private final ConcurrentMap<UUID, Map<UUID, PendingChange>> pending = new ConcurrentHashMap<>();
+
+    public PresenceBroadcaster(SimpMessagingTemplate messagingTemplate,
+                               @Value("${whiteboard.presence.leave-grace-ms:6000}") long leaveGraceMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.leaveGraceMs = leaveGraceMs;
+    }
+
+    public void userJoined(UUID boardId, UUID userId, String email) {
+        record(boardId, userId, email, true);
+    }
+
+    public void userLeft(UUID boardId, UUID userId, String email) {
+        record(boardId, userId, email, false);
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.presence.debounce-ms:250}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (UUID boardId : pending.keySet()) {
+            List<WebSocketMessage.PresenceUser> joined = new ArrayList<>();
+            List<WebSocketMessage.PresenceUser> left = new ArrayList<>();
+
+            pending.computeIfPresent(boardId, (id, changes) -> {
+                Iterator<Map.Entry<UUID, PendingChange>> iterator = changes.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<UUID, PendingChange> entry = iterator.next();
+                    PendingChange change = entry.getValue();
+                    if (change.presentBefore == change.presentNow) {
+                        iterator.remove(); // Flapped back to where it started
+                    } else if (change.presentNow) {
+                        joined.add(new WebSocketMessage.PresenceUser(entry.getKey(), change.email));
+                        iterator.remove();
+                    } else if (now - change.changedAt >= leaveGraceMs) {
+                        left.add(new WebSocketMessage.PresenceUser(entry.getKey(), change.email));
+                        iterator.remove();
+                    }
+                }
+                return changes.isEmpty() ? null : changes;
+            });
+
+            if (!joined.isEmpty() || !left.isEmpty()) {
+                send(boardId, joined, left, now);
+            }
+        }
+    }
+
+    private void record(UUID boardId, UUID userId, String email, boolean present) {
+        long now = System.currentTimeMillis();
+        pending.compute(boardId, (id, changes) -> {
+            if (changes == null) {
+                changes = new HashMap<>();
+            }
+            PendingChange change = changes.get(userId);
+            if (change == null) {
+                changes.put(userId, new PendingChange(!present, present, email, now));
+            } else {
+                change.presentNow = present;
+                change.changedAt = now;
+            }
+            return changes;
+        });
+    }
+
+    private void send(UUID boardId, List<WebSocketMessage.PresenceUser> joined,
+                      List<WebSocketMessage.PresenceUser> left, long timestamp) {
+        WebSocketMessage diffMessage = WebSocketMessage.builder()
+                .type(WebSocketMessage.MessageType.PRESENCE_DIFF)
+                .boardId(boardId)
+                .presence(new WebSocketMessage.PresenceDiff(joined, left))
+                .timestamp(timestamp)
+                .build();
+
+        messagingTemplate.convertAndSend("/topic/board/" + boardId + "/presence", diffMessage);
+        log.debug("Presence diff on board {}: +{} -{}", boardId, joined.size(), left.size());
+    }
+
+    private static final class PendingChange {
+        private final boolean presentBefore;
+        private final String email;
+        private boolean presentNow;
+        private long changedAt;
+
+        private PendingChange(boolean presentBefore, boolean presentNow, String email, long changedAt) {
+            this.presentBefore = presentBefore;
+            this.presentNow = presentNow;
+            this.email = email;
+            this.changedAt = changedAt;
+        }
+    }
+}
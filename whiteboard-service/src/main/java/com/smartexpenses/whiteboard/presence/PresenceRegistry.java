@@ -0,0 +1,231 @@
+package com.smartexpenses.whiteboard.presence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Session-indexed presence for this node.
+ * Keeps two indexes: session -> boards (so a disconnect only touches the boards that
+ * session was on) and board -> user -> sessions (so a user stays present while any of
+ * their tabs is still on the board).
+ */
+@Component
+@Slf4j
+public class PresenceRegistry {
+
+    // Key: sessionId, Value: the session's user and the boards it is present on
+    private final ConcurrentMap<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+
+    // Key: boardId, Value: userId -> that user's sessions on the board
+    private final ConcurrentMap<UUID, ConcurrentMap<UUID, UserPresence>> boards = new ConcurrentHashMap<>();
+
+    /**
+     * Register a session on a board
+     * Implicit joins (from board operations, possibly run after the session has gone) only
+     * apply to sessions that are still registered; a disconnected session is never re-added.
+     * @param subscriptionId STOMP subscription that caused the join, or null for implicit joins
+     * @return true if this is the user's first session on the board
+     */
+    public boolean join(String sessionId, UUID userId, String email, UUID boardId, String subscriptionId) {
+        SessionPresence session = subscriptionId != null
+                ? sessions.computeIfAbsent(sessionId, id -> new SessionPresence(userId, email))
+                : sessions.get(sessionId);
+        if (session == null) {
+            return false;
+        }
+        synchronized (session) {
+            if (session.closed) {
+                return false; // Disconnected between the lookup and here
+            }
+            Set<String> subscriptions = session.boards.get(boardId);
+            if (subscriptions != null) {
+                if (subscriptionId != null) {
+                    subscriptions.add(subscriptionId);
+                }
+                return false; // Session already counted on this board
+            }
+            subscriptions = new HashSet<>();
+            if (subscriptionId != null) {
+                subscriptions.add(subscriptionId);
+            }
+            session.boards.put(boardId, subscriptions);
+            // Under the session lock, so a concurrent disconnect removes it from the board afterwards
+            return addSessionToBoard(boardId, userId, email, sessionId);
+        }
+    }
+
+    /**
+     * Drop a STOMP subscription; the session leaves the board once its last subscription
+     * to that board is gone
+     * @return the board the user fully left, or null
+     */
+    public UUID unsubscribe(String sessionId, String subscriptionId) {
+        SessionPresence session = sessions.get(sessionId);
+        if (session == null || subscriptionId == null) {
+            return null;
+        }
+
+        UUID leftBoard = null;
+        synchronized (session) {
+            for (Map.Entry<UUID, Set<String>> entry : session.boards.entrySet()) {
+                Set<String> subscriptions = entry.getValue();
+                if (subscriptions.remove(subscriptionId)) {
+                    if (subscriptions.isEmpty()) {
+                        leftBoard = entry.getKey();
+                        session.boards.remove(leftBoard);
+                    }
+                    break;
+                }
+            }
+        }
+
+        if (leftBoard != null && removeSessionFromBoard(leftBoard, session.userId, sessionId)) {
+            return leftBoard;
+        }
+        return null;
+    }
+
+    /**
+     * Remove a session from every board it was on
+     * Cost is proportional to the session's own boards, not to all active boards
+     * @return boards where the user has no sessions left
+     */
+    public List<UUID> disconnect(String sessionId) {
+        SessionPresence session = sessions.remove(sessionId);
+        if (session == null) {
+            return Collections.emptyList();
+        }
+
+        List<UUID> sessionBoards;
+        synchronized (session) {
+            session.closed = true;
+            sessionBoards = new ArrayList<>(session.boards.keySet());
+            session.boards.clear();
+        }
+
+        List<UUID> leftBoards = new ArrayList<>(sessionBoards.size());
+        for (UUID boardId : sessionBoards) {
+            if (removeSessionFromBoard(boardId, session.userId, sessionId)) {
+                leftBoards.add(boardId);
+            }
+        }
+        return leftBoards;
+    }
+
+    /**
+     * Get active users for a board (user -> email and session count)
+     */
+    public List<ActiveUser> getBoardUsers(UUID boardId) {
+        ConcurrentMap<UUID, UserPresence> users = boards.get(boardId);
+        if (users == null) {
+            return Collections.emptyList();
+        }
+        List<ActiveUser> result = new ArrayList<>(users.size());
+        users.forEach((userId, presence) ->
+                result.add(new ActiveUser(userId, presence.email(), presence.sessionIds().size())));
+        return result;
+    }
+
+    /**
+     * Visit every (board, user) pair present on this node
+     */
+    public void forEachBoardUser(BiConsumer<UUID, ActiveUser> consumer) {
+        boards.forEach((boardId, users) -> users.forEach((userId, presence) ->
+                consumer.accept(boardId, new ActiveUser(userId, presence.email(), presence.sessionIds().size()))));
+    }
+
+    public boolean isUserOnBoard(UUID boardId, UUID userId) {
+        ConcurrentMap<UUID, UserPresence> users = boards.get(boardId);
+        return users != null && users.containsKey(userId);
+    }
+
+    public SessionUser getSessionUser(String sessionId) {
+        SessionPresence session = sessions.get(sessionId);
+        return session != null ? new SessionUser(session.userId, session.email) : null;
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    public int getActiveBoardCount() {
+        return boards.size();
+    }
+
+    // Returns true if the user was not on the board before
+    private boolean addSessionToBoard(UUID boardId, UUID userId, String email, String sessionId) {
+        boolean[] firstSession = new boolean[1];
+        boards.compute(boardId, (id, users) -> {
+            if (users == null) {
+                users = new ConcurrentHashMap<>();
+            }
+            users.compute(userId, (uid, presence) -> {
+                if (presence == null) {
+                    firstSession[0] = true;
+                    return new UserPresence(email, Set.of(sessionId));
+                }
+                Set<String> sessionIds = new HashSet<>(presence.sessionIds());
+                sessionIds.add(sessionId);
+                return new UserPresence(presence.email(), Set.copyOf(sessionIds));
+            });
+            return users;
+        });
+        return firstSession[0];
+    }
+
+    // Returns true if this was the user's last session on the board
+    private boolean removeSessionFromBoard(UUID boardId, UUID userId, String sessionId) {
+        boolean[] lastSession = new boolean[1];
+        boards.computeIfPresent(boardId, (id, users) -> {
+            users.computeIfPresent(userId, (uid, presence) -> {
+                if (!presence.sessionIds().contains(sessionId)) {
+                    return presence;
+                }
+                if (presence.sessionIds().size() == 1) {
+                    lastSession[0] = true;
+                    return null;
+                }
+                Set<String> sessionIds = new HashSet<>(presence.sessionIds());
+                sessionIds.remove(sessionId);
+                return new UserPresence(presence.email(), Set.copyOf(sessionIds));
+            });
+            return users.isEmpty() ? null : users;
+        });
+        return lastSession[0];
+    }
+
+    /**
+     * The user a session belongs to
+     */
+    public record SessionUser(UUID userId, String email) {
+    }
+
+    // Immutable so readers can iterate without locking
+    private record UserPresence(String email, Set<String> sessionIds) {
+    }
+
+    private static final class SessionPresence {
+        private final UUID userId;
+        private final String email;
+        // Key: boardId, Value: subscription ids on that board (guarded by this)
+        private final Map<UUID, Set<String>> boards = new HashMap<>();
+        private boolean closed; // guarded by this
+
+        private SessionPresence(UUID userId, String email) {
+            this.userId = userId;
+            this.email = email;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.smartexpenses.whiteboard.render;
+
+import com.smartexpenses.whiteboard.crdt.BoardDocumentStore;
+import com.smartexpenses.whiteboard.crdt.ShapeDocument;
+import com.smartexpenses.whiteboard.dto.ShapeBounds;
+import com.smartexpenses.whiteboard.exception.ResourceNotFoundException;
+import com.smartexpenses.whiteboard.exception.UnauthorizedException;
+import com.smartexpenses.whiteboard.exception.WhiteboardException;
+import com.smartexpenses.whiteboard.model.Board;
+import com.smartexpenses.whiteboard.model.Shape;
+import com.smartexpenses.whiteboard.repository.BoardCollaboratorRepository;
+import com.smartexpenses.whiteboard.repository.BoardRepository;
+import com.smartexpenses.whiteboard.repository.ShapeRepository;
+import com.smartexpenses.whiteboard.service.BoardActivityTracker;
+import com.smartexpenses.whiteboard.service.BoardArchiveService;
+import com.smartexpenses.whiteboard.tiles.BoardTileIndex;
+import com.smartexpenses.whiteboard.util.ShapeGeometry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Renders board thumbnails and raster tiles to PNG on a bounded worker pool.
+ * Results are cached on disk under keys that include the content version they show:
+ * thumbnails use the board's content version, tiles their own tile version, so an
+ * edit only re-renders the tiles it touched. Concurrent requests for the same
+ * image share one render.
+ */
+@Service
+@Slf4j
+public class BoardRenderService {
+
+    public static final int TILE_PIXELS = 256;
+
+    private static final Color BACKGROUND = Color.WHITE;
+
+    private final ShapeRepository shapeRepository;
+    private final BoardRepository boardRepository;
+    private final BoardCollaboratorRepository collaboratorRepository;
+    private final BoardDocumentStore boardDocumentStore;
+    private final BoardActivityTracker boardActivityTracker;
+    private final BoardArchiveService boardArchiveService;
+    private final BoardTileIndex boardTileIndex;
+    private final TileVersions tileVersions;
+    private final RenderCache renderCache;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int thumbnailWidth;
+    private final int thumbnailHeight;
+
+    // Key: cache key, Value: render in progress
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    public BoardRenderService(ShapeRepository shapeRepository,
+                              BoardRepository boardRepository,
+                              BoardCollaboratorRepository collaboratorRepository,
+                              BoardDocumentStore boardDocumentStore,
+                              BoardActivityTracker boardActivityTracker,
+                              BoardArchiveService boardArchiveService,
+                              BoardTileIndex boardTileIndex,
+                              TileVersions tileVersions,
+                              RenderCache renderCache,
+                              @Value("${whiteboard.render.threads:2}") int threads,
+                              @Value("${whiteboard.render.queue-capacity:32}") int queueCapacity,
+                              @Value("${whiteboard.render.timeout-ms:10000}") long timeoutMs,
+                              @Value("${whiteboard.render.thumbnail-width:320}") int thumbnailWidth,
+                              @Value("${whiteboard.render.thumbnail-height:200}") int thumbnailHeight) {
+        this.shapeRepository = shapeRepository;
+        this.boardRepository = boardRepository;
+        this.collaboratorRepository = collaboratorRepository;
+        this.boardDocumentStore = boardDocumentStore;
+        this.boardActivityTracker = boardActivityTracker;
+        this.boardArchiveService = boardArchiveService;
+        this.boardTileIndex = boardTileIndex;
+        this.tileVersions = tileVersions;
+        this.renderCache = renderCache;
+        this.timeoutMs = timeoutMs;
+        this.thumbnailWidth = thumbnailWidth;
+        this.thumbnailHeight = thumbnailHeight;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "board-render-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Whole-board preview, fitted to the thumbnail size
+     */
+    public RenderedImage thumbnail(UUID boardId, UUID userId) {
+        checkAccess(boardId, userId);
+
+        long version = boardActivityTracker.getContentVersion(boardId);
+        String key = "thumb-" + boardId + "-v" + version + ".png";
+        byte[] png = cachedOrRender(key, () -> {
+            List<Shape> shapes = loadShapes(boardId);
+            return encode(ShapeRasterizer.render(shapes, fit(shapes), thumbnailWidth, thumbnailHeight, BACKGROUND));
+        });
+        return new RenderedImage(png, "v" + version);
+    }
+
+    /**
+     * One 256px raster tile; zoom 0 is full detail and each level up covers twice the area
+     */
+    public RenderedImage tile(UUID boardId, int zoom, long x, long y, UUID userId) {
+        if (zoom < 0 || zoom > tileVersions.getMaxZoom()) {
+            throw new WhiteboardException("Zoom must be between 0 and " + tileVersions.getMaxZoom(),
+                    HttpStatus.BAD_REQUEST);
+        }
+        checkAccess(boardId, userId);
+
+        long version = tileVersions.version(boardId, zoom, x, y);
+        String tag = tileVersions.getGeneration() + "-v" + version;
+        String key = "tile-" + boardId + "-" + zoom + "-" + x + "-" + y + "-" + tag + ".png";
+        byte[] png = cachedOrRender(key, () -> {
+            double size = TileVersions.tileSize(zoom);
+            Rectangle2D region = new Rectangle2D.Double(x * size, y * size, size, size);
+            ShapeBounds reach = new ShapeBounds(region.getX() - TileVersions.BOUNDS_MARGIN,
+                    region.getY() - TileVersions.BOUNDS_MARGIN,
+                    size + 2 * TileVersions.BOUNDS_MARGIN, size + 2 * TileVersions.BOUNDS_MARGIN);
+            List<Shape> shapes = loadShapes(boardId, reach);
+            return encode(ShapeRasterizer.render(shapes, region, TILE_PIXELS, TILE_PIXELS, null));
+        });
+        return new RenderedImage(png, tag);
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private byte[] cachedOrRender(String key, Supplier<byte[]> render) {
+        byte[] cached = renderCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<byte[]> created = new CompletableFuture<>();
+        CompletableFuture<byte[]> future = inFlight.putIfAbsent(key, created);
+        if (future == null) {
+            future = created;
+            try {
+                executor.execute(() -> {
+                    try {
+                        byte[] png = render.get();
+                        renderCache.put(key, png);
+                        created.complete(png);
+                    } catch (Throwable t) {
+                        created.completeExceptionally(t);
+                    } finally {
+                        inFlight.remove(key, created);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(key, created);
+                log.warn("Render queue full, rejecting {} (queued={})", key, executor.getQueue().size());
+                throw new WhiteboardException("Renderer is busy, please retry shortly", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Leave the render running; it will land in the cache for the next request
+            throw new WhiteboardException("Rendering timed out, please retry shortly", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WhiteboardException("Rendering interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Rendering failed", e.getCause());
+        }
+    }
+
+    // Shapes as stored, with the board's in-memory edits on top
+    private List<Shape> loadShapes(UUID boardId) {
+        // Archived boards render from the archive, listing them does not restore them
+        Optional<List<Shape>> archived = boardRepository.findById(boardId)
+                .flatMap(boardArchiveService::archivedShapes);
+        return archived.orElseGet(() -> withPendingOps(boardId, shapeRepository.findByBoardIdOrderByLayerKeyAscIdAsc(boardId)));
+    }
+
+    // Shapes reaching into a region: only the tile index's candidates are read from the database
+    private List<Shape> loadShapes(UUID boardId, ShapeBounds reach) {
+        Optional<List<Shape>> archived = boardRepository.findById(boardId)
+                .flatMap(boardArchiveService::archivedShapes);
+        if (archived.isPresent()) {
+            return archived.get().stream()
+                    .filter(shape -> intersects(ShapeGeometry.bounds(shape.getType(), shape.getData()), reach))
+                    .collect(Collectors.toList());
+        }
+        List<UUID> ids = boardTileIndex.shapesWithin(boardId, reach).stream()
+                .map(BoardTileIndex.Entry::id)
+                .collect(Collectors.toList());
+        return ids.isEmpty() ? List.of() : withPendingOps(boardId, shapeRepository.findAllById(ids));
+    }
+
+    // Overlay CRDT state not flushed yet instead of forcing a flush on every read; in stacking order
+    private List<Shape> withPendingOps(UUID boardId, List<Shape> shapes) {
+        boolean loaded = boardDocumentStore.isLoaded(boardId);
+        List<Shape> current = new ArrayList<>(shapes.size());
+        for (Shape shape : shapes) {
+            ShapeDocument pending = loaded ? boardDocumentStore.getLoadedShape(boardId, shape.getId()) : null;
+            if (pending == null) {
+                current.add(shape);
+            } else if (!pending.isDeleted()) {
+                current.add(Shape.builder()
+                        .id(shape.getId())
+                        .board(shape.getBoard())
+                        .parentId(shape.getParentId())
+                        .type(shape.getType())
+                        .data(pending.materialize())
+                        .layerOrder(shape.getLayerOrder())
+                        .layerKey(pending.getLayerKey() != null ? pending.getLayerKey() : shape.getLayerKey())
+                        .build());
+            }
+        }
+        current.sort(Comparator.comparing(Shape::getLayerKey, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Shape::getId));
+        return current;
+    }
+
+    // World region holding every shape, padded and widened to the thumbnail's aspect ratio
+    private Rectangle2D fit(List<Shape> shapes) {
+        if (shapes.isEmpty()) {
+            return new Rectangle2D.Double(0, 0, thumbnailWidth, thumbnailHeight);
+        }
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (Shape shape : shapes) {
+            ShapeBounds bounds = ShapeGeometry.bounds(shape.getType(), shape.getData());
+            minX = Math.min(minX, bounds.getX());
+            minY = Math.min(minY, bounds.getY());
+            maxX = Math.max(maxX, bounds.getX() + bounds.getWidth());
+            maxY = Math.max(maxY, bounds.getY() + bounds.getHeight());
+        }
+        double padding = TileVersions.BOUNDS_MARGIN;
+        double width = Math.max(1, maxX - minX) + 2 * padding;
+        double height = Math.max(1, maxY - minY) + 2 * padding;
+        double aspect = (double) thumbnailWidth / thumbnailHeight;
+        if (width / height < aspect) {
+            width = height * aspect;
+        } else {
+            height = width / aspect;
+        }
+        double centerX = (minX + maxX) / 2;
+        double centerY = (minY + maxY) / 2;
+        return new Rectangle2D.Double(centerX - width / 2, centerY - height / 2, width, height);
+    }
+
+    private static boolean intersects(ShapeBounds bounds, ShapeBounds region) {
+        return bounds.getX() <= region.getX() + region.getWidth() && bounds.getX() + bounds.getWidth() >= region.getX()
+                && bounds.getY() <= region.getY() + region.getHeight() && bounds.getY() + bounds.getHeight() >= region.getY();
+    }
+
+    private static byte[] encode(BufferedImage image) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkAccess(UUID boardId, UUID userId) {
+        Board board = boardRepository.findById(boardId)
+                .orElseThrow(() -> new ResourceNotFoundException("Board", boardId));
+
+        // Owner, public board, or collaborator
+        boolean allowed = board.getOwnerId().equals(userId)
+                || Boolean.TRUE.equals(board.getIsPublic())
+                || collaboratorRepository.existsByBoardIdAndUserId(boardId, userId);
+        if (!allowed) {
+            throw new UnauthorizedException("You don't have access to this board");
+        }
+    }
+
+    /**
+     * @param png  encoded image
+     * @param etag version of the content shown, usable as an HTTP entity tag
+     */
+    public record RenderedImage(byte[] png, String etag) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.smartexpenses.whiteboard.render;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded LRU cache of rendered images on local disk.
+ * Keys carry the content version they were rendered from, so an entry never goes stale;
+ * superseded versions simply stop being read and age out.
+ */
+@Component
+@Slf4j
+public class RenderCache {
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // Access-ordered key -> file size (guarded by this)
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    public RenderCache(@Value("${whiteboard.render.cache-dir:${java.io.tmpdir}/whiteboard-render}") String directory,
+                       @Value("${whiteboard.render.cache-max-mb:256}") long maxMegabytes) {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxMegabytes * 1024 * 1024;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        // Files from a previous run are still valid: re-index them oldest first
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().endsWith(".tmp"))
+                    .sorted(Comparator.comparingLong(RenderCache::lastModified))
+                    .forEach(file -> index(file.getFileName().toString(), size(file)));
+        }
+        log.info("Render cache at {}: {} entries, {} KB", directory, entries.size(), totalBytes / 1024);
+    }
+
+    public byte[] get(String key) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        try {
+            return Files.readAllBytes(directory.resolve(key));
+        } catch (IOException e) {
+            forget(key); // Removed behind our back
+            return null;
+        }
+    }
+
+    public void put(String key, byte[] bytes) {
+        Path target = directory.resolve(key);
+        try {
+            Path temp = Files.createTempFile(directory, ".render", ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to cache render " + key, e);
+        }
+        index(key, bytes.length);
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void index(String key, long size) {
+        Map<String, Long> evicted = new LinkedHashMap<>();
+        synchronized (this) {
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    continue; // Never evict what was just written
+                }
+                totalBytes -= entry.getValue();
+                evicted.put(entry.getKey(), entry.getValue());
+                eldest.remove();
+            }
+        }
+        evicted.keySet().forEach(this::delete);
+    }
+
+    private void forget(String key) {
+        synchronized (this) {
+            Long size = entries.remove(key);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+    }
+
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(directory.resolve(key));
+        } catch (IOException e) {
+            log.warn("Failed to delete cached render {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.smartexpenses.whiteboard.render;
+
+import com.smartexpenses.whiteboard.model.Shape;
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headless Java2D drawing of stored shapes, using the same field conventions and
+ * defaults as the browser canvas (see WhiteboardCanvas.loadShapeToCanvas).
+ * Stateless and thread-safe; each call draws into its own image.
+ */
+public final class ShapeRasterizer {
+
+    private static final Color DEFAULT_STROKE = Color.BLACK;
+    private static final Color STICKY_FILL = new Color(0xFF, 0xFF, 0x99);
+    private static final Color STICKY_BORDER = new Color(0xDD, 0xDD, 0xDD);
+
+    private ShapeRasterizer() {
+    }
+
+    /**
+     * Draw shapes (already in stacking order) that fall in a world-space region
+     * @param region world coordinates mapped onto the whole image
+     */
+    public static BufferedImage render(List<Shape> shapes, Rectangle2D region, int width, int height,
+                                       Color background) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            if (background != null) {
+                g.setColor(background);
+                g.fillRect(0, 0, width, height);
+            }
+
+            double scale = Math.min(width / region.getWidth(), height / region.getHeight());
+            g.transform(AffineTransform.getScaleInstance(scale, scale));
+            g.transform(AffineTransform.getTranslateInstance(-region.getX(), -region.getY()));
+
+            for (Shape shape : shapes) {
+                draw(g, shape.getType(), shape.getData() != null ? shape.getData() : Map.of());
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static void draw(Graphics2D g, ShapeType type, Map<String, Object> data) {
+        double x = number(data, "x", 0);
+        double y = number(data, "y", 0);
+        Color fill = color(data.get("fill"), null);
+        Color stroke = color(data.get("stroke"), DEFAULT_STROKE);
+        float strokeWidth = (float) number(data, "strokeWidth", 2);
+
+        switch (type) {
+            case RECTANGLE ->
+                    paint(g, new Rectangle2D.Double(x, y, number(data, "width", 100), number(data, "height", 100)),
+                            fill, stroke, strokeWidth);
+            case CIRCLE -> {
+                double radius = number(data, "radius", 50);
+                paint(g, new Ellipse2D.Double(x - radius, y - radius, radius * 2, radius * 2),
+                        fill, stroke, strokeWidth);
+            }
+            case TRIANGLE -> {
+                double width = number(data, "width", 100);
+                double height = number(data, "height", 100);
+                Path2D.Double triangle = new Path2D.Double();
+                triangle.moveTo(x + width / 2, y);
+                triangle.lineTo(x + width, y + height);
+                triangle.lineTo(x, y + height);
+                triangle.closePath();
+                paint(g, triangle, fill, stroke, strokeWidth);
+            }
+            case LINE, ARROW -> {
+                double x1 = number(data, "x1", 0);
+                double y1 = number(data, "y1", 0);
+                double x2 = number(data, "x2", 100);
+                double y2 = number(data, "y2", 100);
+                paint(g, new Line2D.Double(x1, y1, x2, y2), null, stroke, strokeWidth);
+                if (type == ShapeType.ARROW) {
+                    paint(g, arrowHead(x1, y1, x2, y2, Math.max(8, strokeWidth * 4)), stroke, stroke, strokeWidth);
+                }
+            }
+            case TEXT -> {
+                double fontSize = number(data, "fontSize", 20);
+                drawText(g, String.valueOf(data.getOrDefault("text", "Text")), x, y, fontSize,
+                        color(data.get("fill"), Color.BLACK));
+            }
+            case STICKY_NOTE -> {
+                paint(g, new Rectangle2D.Double(x, y, number(data, "width", 200), number(data, "height", 150)),
+                        color(data.get("fill"), STICKY_FILL), STICKY_BORDER, 1);
+                Object text = data.get("text");
+                if (text != null) {
+                    drawText(g, text.toString(), x, y, 14, Color.BLACK);
+                }
+            }
+            case PEN -> {
+                Path2D.Double path = penPath(x, y, data.get("path"));
+                if (path != null) {
+                    paint(g, path, null, stroke, strokeWidth);
+                }
+            }
+        }
+    }
+
+    private static void paint(Graphics2D g, java.awt.Shape outline, Color fill, Color stroke, float strokeWidth) {
+        if (fill != null) {
+            g.setColor(fill);
+            g.fill(outline);
+        }
+        if (stroke != null && strokeWidth > 0) {
+            g.setColor(stroke);
+            g.setStroke(new BasicStroke(strokeWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            g.draw(outline);
+        }
+    }
+
+    private static void drawText(Graphics2D g, String text, double x, double y, double fontSize, Color color) {
+        g.setColor(color);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 1).deriveFont((float) fontSize));
+        float baseline = (float) (y + fontSize);
+        for (String line : text.split("\n", -1)) {
+            g.drawString(line, (float) x, baseline);
+            baseline += (float) (fontSize * 1.2);
+        }
+    }
+
+    private static Path2D.Double arrowHead(double x1, double y1, double x2, double y2, double size) {
+        double angle = Math.atan2(y2 - y1, x2 - x1);
+        Path2D.Double head = new Path2D.Double();
+        head.moveTo(x2, y2);
+        head.lineTo(x2 - size * Math.cos(angle - Math.PI / 6), y2 - size * Math.sin(angle - Math.PI / 6));
+        head.lineTo(x2 - size * Math.cos(angle + Math.PI / 6), y2 - size * Math.sin(angle + Math.PI / 6));
+        head.closePath();
+        return head;
+    }
+
+    // Points are relative; the stroke's top-left corner is drawn at (x, y) like the canvas does
+    private static Path2D.Double penPath(double x, double y, Object path) {
+        if (!(path instanceof List<?> points) || points.isEmpty()) {
+            return null;
+        }
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        for (Object point : points) {
+            if (point instanceof List<?> pair && pair.size() >= 2
+                    && pair.get(0) instanceof Number px && pair.get(1) instanceof Number py) {
+                minX = Math.min(minX, px.doubleValue());
+                minY = Math.min(minY, py.doubleValue());
+            }
+        }
+        if (minX == Double.MAX_VALUE) {
+            return null;
+        }
+
+        Path2D.Double result = new Path2D.Double();
+        boolean first = true;
+        for (Object point : points) {
+            if (point instanceof List<?> pair && pair.size() >= 2
+                    && pair.get(0) instanceof Number px && pair.get(1) instanceof Number py) {
+                double px2 = x + px.doubleValue() - minX;
+                double py2 = y + py.doubleValue() - minY;
+                if (first) {
+                    result.moveTo(px2, py2);
+                    first = false;
+                } else {
+                    result.lineTo(px2, py2);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Accepts #rgb, #rrggbb and "transparent"; anything else falls back
+    static Color color(Object value, Color fallback) {
+        if (!(value instanceof String text) || text.isBlank()) {
+            return fallback;
+        }
+        if ("transparent".equalsIgnoreCase(text) || "none".equalsIgnoreCase(text)) {
+            return null;
+        }
+        String hex = text.startsWith("#") ? text.substring(1) : text;
+        try {
+            if (hex.length() == 3) {
+                int r = Integer.parseInt(hex.substring(0, 1), 16) * 17;
+                int gr = Integer.parseInt(hex.substring(1, 2), 16) * 17;
+                int b = Integer.parseInt(hex.substring(2, 3), 16) * 17;
+                return new Color(r, gr, b);
+            }
+            if (hex.length() == 6) {
+                return new Color(Integer.parseInt(hex, 16));
+            }
+        } catch (NumberFormatException e) {
+            // Named or rgba() colours are not worth a parser for previews
+        }
+        return fallback;
+    }
+
+    private static double number(Map<String, Object> data, String key, double fallback) {
+        Object value = data.get(key);
+        return value instanceof Number n ? n.doubleValue() : fallback;
+    }
+}
@@ -0,0 +1,249 @@
+package com.smartexpenses.whiteboard.render;
+
+import com.smartexpenses.whiteboard.cache.CacheInvalidation;
+import com.smartexpenses.whiteboard.cache.CacheInvalidationBus;
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import com.smartexpenses.whiteboard.dto.ShapeBounds;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-tile content versions of each board's tile pyramid.
+ * Zoom 0 tiles cover TILE_WORLD_SIZE canvas units; each level up doubles that. A mutation
+ * bumps only the tiles its old and new bounds touch on every level, so cached tiles
+ * elsewhere stay valid. Changes whose extent is unknown bump the whole board.
+ * Versions are node-local counters; marks are sent to the other replicas over the cache
+ * invalidation bus, so their tiles move too. A new generation starts on every start and
+ * whenever marks from other nodes may have been missed.
+ */
+@Component
+@Slf4j
+public class TileVersions {
+
+    public static final double TILE_WORLD_SIZE = 512;
+
+    // Strokes, arrow heads and glyphs reach slightly past a shape's geometric bounds
+    public static final double BOUNDS_MARGIN = 16;
+
+    // A shape spanning more tiles than this on one level dirties the whole board instead
+    private static final int MAX_TILES_PER_MARK = 256;
+
+    // Detail of a mark that covers the whole board
+    private static final String WHOLE_BOARD = "*";
+
+    private final int maxZoom;
+    private final CacheInvalidationBus bus;
+    private final String nodeId;
+    private volatile long generation = System.currentTimeMillis();
+    private final ConcurrentMap<UUID, BoardTiles> boards = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public TileVersions(@Value("${whiteboard.render.max-zoom:6}") int maxZoom,
+                        CacheInvalidationBus bus,
+                        NodeIdentity nodeIdentity) {
+        this.maxZoom = maxZoom;
+        this.bus = bus;
+        this.nodeId = nodeIdentity.getNodeId();
+    }
+
+    @PostConstruct
+    public void init() {
+        bus.subscribe(this::applyRemote);
+        bus.onGap(this::restartGeneration);
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Mark the tiles under these bounds (e.g. a shape before and after an edit) as changed,
+     * once the surrounding transaction commits
+     */
+    public void markDirty(UUID boardId, ShapeBounds... bounds) {
+        afterCommit(() -> {
+            applyMarks(boardId, List.of(bounds));
+            publish(boardId, false, encode(bounds));
+        });
+    }
+
+    public void markAllDirty(UUID boardId) {
+        afterCommit(() -> {
+            applyMarkAll(boardId);
+            publish(boardId, false, WHOLE_BOARD);
+        });
+    }
+
+    public long version(UUID boardId, int zoom, long x, long y) {
+        BoardTiles tiles = boards.get(boardId);
+        if (tiles == null) {
+            return 0;
+        }
+        return Math.max(tiles.epoch, tiles.versions.getOrDefault(new TileKey(zoom, x, y), 0L));
+    }
+
+    public void forget(UUID boardId) {
+        afterCommit(() -> {
+            boards.remove(boardId);
+            publish(boardId, true, null);
+        });
+    }
+
+    public static double tileSize(int zoom) {
+        return TILE_WORLD_SIZE * (1L << zoom);
+    }
+
+    private void applyMarks(UUID boardId, List<ShapeBounds> bounds) {
+        BoardTiles tiles = boards.computeIfAbsent(boardId, id -> new BoardTiles());
+        long version = tiles.counter.incrementAndGet();
+        List<TileKey> changed = new ArrayList<>();
+        for (ShapeBounds box : bounds) {
+            if (box != null && !mark(tiles, box, version, changed)) {
+                tiles.epoch = version;
+                listeners.forEach(listener -> listener.boardChanged(boardId));
+                return;
+            }
+        }
+        listeners.forEach(listener -> listener.tilesChanged(boardId, changed));
+    }
+
+    private void applyMarkAll(UUID boardId) {
+        BoardTiles tiles = boards.computeIfAbsent(boardId, id -> new BoardTiles());
+        tiles.epoch = tiles.counter.incrementAndGet();
+        tiles.versions.clear(); // All older than the epoch now
+        listeners.forEach(listener -> listener.boardChanged(boardId));
+    }
+
+    private void publish(UUID boardId, boolean deleted, String detail) {
+        bus.publish(new CacheInvalidation(nodeId, CacheInvalidation.Entity.TILE_VERSIONS, boardId, deleted, detail));
+    }
+
+    private void applyRemote(CacheInvalidation invalidation) {
+        if (invalidation.entity() != CacheInvalidation.Entity.TILE_VERSIONS || nodeId.equals(invalidation.nodeId())) {
+            return;
+        }
+        UUID boardId = invalidation.id();
+        if (invalidation.deleted()) {
+            boards.remove(boardId);
+        } else if (WHOLE_BOARD.equals(invalidation.detail())) {
+            applyMarkAll(boardId);
+        } else {
+            applyMarks(boardId, decode(invalidation.detail()));
+        }
+    }
+
+    // Marks from other nodes may be lost: every version handed out so far may be stale
+    private void restartGeneration() {
+        generation = Math.max(System.currentTimeMillis(), generation + 1);
+        for (UUID boardId : boards.keySet()) {
+            boards.remove(boardId);
+            listeners.forEach(listener -> listener.boardChanged(boardId));
+        }
+        log.info("Started tile generation {} after missing tile invalidations", generation);
+    }
+
+    // Wire form of bounds: x,y,width,height per box, boxes separated by ';'
+    static String encode(ShapeBounds... bounds) {
+        StringBuilder detail = new StringBuilder();
+        for (ShapeBounds box : bounds) {
+            if (box == null) {
+                continue;
+            }
+            if (!detail.isEmpty()) {
+                detail.append(';');
+            }
+            detail.append(box.getX()).append(',').append(box.getY()).append(',')
+                    .append(box.getWidth()).append(',').append(box.getHeight());
+        }
+        return detail.toString();
+    }
+
+    static List<ShapeBounds> decode(String detail) {
+        List<ShapeBounds> bounds = new ArrayList<>();
+        if (detail == null || detail.isEmpty()) {
+            return bounds;
+        }
+        for (String box : detail.split(";")) {
+            String[] values = box.split(",");
+            if (values.length != 4) {
+                throw new IllegalArgumentException("Malformed tile bounds: " + box);
+            }
+            bounds.add(new ShapeBounds(Double.parseDouble(values[0]), Double.parseDouble(values[1]),
+                    Double.parseDouble(values[2]), Double.parseDouble(values[3])));
+        }
+        return bounds;
+    }
+
+    // Returns false if the bounds cover too many tiles to track individually
+    private boolean mark(BoardTiles tiles, ShapeBounds box, long version, List<TileKey> changed) {
+        for (int zoom = 0; zoom <= maxZoom; zoom++) {
+            double size = tileSize(zoom);
+            long x0 = (long) Math.floor((box.getX() - BOUNDS_MARGIN) / size);
+            long y0 = (long) Math.floor((box.getY() - BOUNDS_MARGIN) / size);
+            long x1 = (long) Math.floor((box.getX() + box.getWidth() + BOUNDS_MARGIN) / size);
+            long y1 = (long) Math.floor((box.getY() + box.getHeight() + BOUNDS_MARGIN) / size);
+            if ((x1 - x0 + 1) * (y1 - y0 + 1) > MAX_TILES_PER_MARK) {
+                return false;
+            }
+            for (long x = x0; x <= x1; x++) {
+                for (long y = y0; y <= y1; y++) {
+                    TileKey key = new TileKey(zoom, x, y);
+                    tiles.versions.merge(key, version, Math::max);
+                    changed.add(key);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class BoardTiles {
+        private final AtomicLong counter = new AtomicLong();
+        private final ConcurrentMap<TileKey, Long> versions = new ConcurrentHashMap<>();
+        private volatile long epoch;
+    }
+
+    public record TileKey(int zoom, long x, long y) {
+    }
+
+    /**
+     * Notified after tile versions move
+     */
+    public interface Listener {
+        void tilesChanged(UUID boardId, List<TileKey> tiles);
+
+        void boardChanged(UUID boardId);
+    }
+}
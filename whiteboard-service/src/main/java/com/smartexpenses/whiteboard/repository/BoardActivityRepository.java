@@ -0,0 +1,35 @@
+package com.smartexpenses.whiteboard.repository;
+
+import com.smartexpenses.whiteboard.model.BoardActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface BoardActivityRepository extends JpaRepository<BoardActivity, UUID> {
+
+    // Add buffered deltas to a board's counters, creating the row on first activity.
+    // Deltas are additive, so several nodes can flush the same board safely.
+    // Nothing is written for a board that no longer exists.
+    @Modifying
+    @Query(value = """
+            INSERT INTO {h-schema}board_activity (board_id, shape_count, last_activity_at, content_version)
+            SELECT :boardId, GREATEST(:shapeDelta, 0), :lastActivityAt, :changes
+            WHERE EXISTS (SELECT 1 FROM {h-schema}boards WHERE id = :boardId)
+            ON CONFLICT (board_id) DO UPDATE SET
+                shape_count = GREATEST(board_activity.shape_count + :shapeDelta, 0),
+                last_activity_at = GREATEST(board_activity.last_activity_at, EXCLUDED.last_activity_at),
+                content_version = board_activity.content_version + :changes
+            """, nativeQuery = true)
+    void applyDelta(@Param("boardId") UUID boardId, @Param("shapeDelta") long shapeDelta,
+                    @Param("lastActivityAt") LocalDateTime lastActivityAt, @Param("changes") long changes);
+
+    @Modifying
+    @Query("DELETE FROM BoardActivity a WHERE a.boardId = :boardId")
+    void deleteByBoardId(@Param("boardId") UUID boardId);
+}
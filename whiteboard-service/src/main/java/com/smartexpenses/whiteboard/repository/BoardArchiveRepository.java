@@ -0,0 +1,11 @@
+package com.smartexpenses.whiteboard.repository;
+
+import com.smartexpenses.whiteboard.model.BoardArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface BoardArchiveRepository extends JpaRepository<BoardArchive, UUID> {
+}
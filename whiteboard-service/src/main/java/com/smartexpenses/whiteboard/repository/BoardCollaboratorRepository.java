@@ -1,11 +1,15 @@
 package com.smartexpenses.whiteboard.repository;
 
+import com.smartexpenses.whiteboard.cache.CacheRegions;
 import com.smartexpenses.whiteboard.model.Board;
 import com.smartexpenses.whiteboard.model.BoardCollaborator;
 import com.smartexpenses.whiteboard.model.enums.CollaboratorRole;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -17,15 +21,27 @@ import java.util.UUID;
 public interface BoardCollaboratorRepository extends JpaRepository<BoardCollaborator, UUID> {
 
     // Find all collaborators for a board
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.BOARD_ACCESS)
+    })
     List<BoardCollaborator> findByBoardIdOrderByCreatedAtAsc(UUID boardId);
 
     // Find specific collaborator relationship
     Optional<BoardCollaborator> findByBoardIdAndUserId(UUID boardId, UUID userId);
 
     // Check if user is collaborator on board
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.BOARD_ACCESS)
+    })
     boolean existsByBoardIdAndUserId(UUID boardId, UUID userId);
 
     // Get user's role on a board
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.BOARD_ACCESS)
+    })
     @Query("SELECT bc.role FROM BoardCollaborator bc WHERE bc.board.id = :boardId AND bc.userId = :userId")
     Optional<CollaboratorRole> findUserRoleOnBoard(@Param("boardId") UUID boardId, @Param("userId") UUID userId);
 
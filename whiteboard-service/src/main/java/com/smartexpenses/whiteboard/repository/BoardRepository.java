@@ -1,11 +1,14 @@
 package com.smartexpenses.whiteboard.repository;
 
 import com.smartexpenses.whiteboard.model.Board;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,10 +28,107 @@ public interface BoardRepository extends JpaRepository<Board, UUID> {
     // Check if user is owner of board
     boolean existsByIdAndOwnerId(UUID id, UUID ownerId);
 
-    // Find boards where user is collaborator (via board_collaborators table)
-    @Query("SELECT DISTINCT b FROM Board b " +
-           "LEFT JOIN BoardCollaborator bc ON bc.board.id = b.id " +
-           "WHERE b.ownerId = :userId OR bc.userId = :userId " +
-           "ORDER BY b.createdAt DESC")
+    // Lock a board row while its shapes move in or out of the archive
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Board b WHERE b.id = :id")
+    Optional<Board> findByIdForUpdate(@Param("id") UUID id);
+
+    // Boards with shapes and no activity since the cutoff, least recently active first
+    @Query(value = """
+            SELECT b.id FROM {h-schema}boards b JOIN {h-schema}board_activity a ON a.board_id = b.id
+            WHERE b.archived_at IS NULL AND a.shape_count > 0 AND a.last_activity_at < :cutoff
+            ORDER BY a.last_activity_at
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> findArchiveCandidates(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // Find boards the user owns or collaborates on.
+    // A UNION of the two sides lets each use its own index, unlike a LEFT JOIN with OR.
+    @Query(value = """
+            SELECT b.* FROM {h-schema}boards b WHERE b.owner_id = :userId
+            UNION
+            SELECT b.* FROM {h-schema}boards b JOIN {h-schema}board_collaborators bc ON bc.board_id = b.id WHERE bc.user_id = :userId
+            ORDER BY created_at DESC, id
+            """, nativeQuery = true)
     List<Board> findBoardsAccessibleByUser(@Param("userId") UUID userId);
+
+    // One keyset page of the boards above, newest first. Each branch stops after :limit rows
+    // of its index before the union is merged and cut to :limit again.
+    @Query(value = """
+            (SELECT b.* FROM {h-schema}boards b
+             WHERE b.owner_id = :userId
+               AND (b.created_at < :afterCreatedAt OR (b.created_at = :afterCreatedAt AND b.id > :afterId))
+             ORDER BY b.created_at DESC, b.id
+             LIMIT :limit)
+            UNION
+            (SELECT b.* FROM {h-schema}boards b JOIN {h-schema}board_collaborators bc ON bc.board_id = b.id
+             WHERE bc.user_id = :userId
+               AND (b.created_at < :afterCreatedAt OR (b.created_at = :afterCreatedAt AND b.id > :afterId))
+             ORDER BY b.created_at DESC, b.id
+             LIMIT :limit)
+            ORDER BY created_at DESC, id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Board> findAccessibleBoardsPage(@Param("userId") UUID userId,
+                                         @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                         @Param("afterId") UUID afterId,
+                                         @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT COUNT(*) FROM (
+                SELECT b.id FROM {h-schema}boards b WHERE b.owner_id = :userId
+                UNION
+                SELECT bc.board_id FROM {h-schema}board_collaborators bc WHERE bc.user_id = :userId
+            ) accessible
+            """, nativeQuery = true)
+    long countAccessibleBoards(@Param("userId") UUID userId);
+
+    // One keyset page of public boards, newest first
+    @Query(value = """
+            SELECT b.* FROM {h-schema}boards b
+            WHERE b.is_public = true
+              AND (b.created_at < :afterCreatedAt OR (b.created_at = :afterCreatedAt AND b.id > :afterId))
+            ORDER BY b.created_at DESC, b.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Board> findPublicBoardsPage(@Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                     @Param("afterId") UUID afterId,
+                                     @Param("limit") int limit);
+
+    long countByIsPublicTrue();
+
+    // Boards the user owns or collaborates on that match the query, best match first.
+    // Score: word similarity, plus 1 when the name starts with the query. Keyset on (score, id);
+    // the first page passes afterScore = Infinity.
+    @Query(value = """
+            WITH accessible AS (
+                SELECT b.id FROM {h-schema}boards b WHERE b.owner_id = :userId
+                UNION
+                SELECT bc.board_id FROM {h-schema}board_collaborators bc WHERE bc.user_id = :userId
+            ),
+            ranked AS (
+                SELECT b.id,
+                       (word_similarity(:query, lower(b.name || ' ' || coalesce(b.description, '')))
+                        + CASE WHEN lower(b.name) LIKE :prefix ESCAPE '\\' THEN 1 ELSE 0 END)::float8 AS score
+                FROM {h-schema}boards b JOIN accessible a ON a.id = b.id
+                WHERE lower(b.name || ' ' || coalesce(b.description, '')) LIKE :contains ESCAPE '\\'
+                   OR :query <% lower(b.name || ' ' || coalesce(b.description, ''))
+            )
+            SELECT id, score FROM ranked
+            WHERE score < :afterScore OR (score = :afterScore AND id > :afterId)
+            ORDER BY score DESC, id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<BoardMatch> searchAccessibleBoards(@Param("userId") UUID userId,
+                                            @Param("query") String query,
+                                            @Param("prefix") String prefix,
+                                            @Param("contains") String contains,
+                                            @Param("afterScore") double afterScore,
+                                            @Param("afterId") UUID afterId,
+                                            @Param("limit") int limit);
+
+    interface BoardMatch {
+        UUID getId();
+        Double getScore();
+    }
 }
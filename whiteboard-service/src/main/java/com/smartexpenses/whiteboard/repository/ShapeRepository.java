@@ -2,12 +2,15 @@ package com.smartexpenses.whiteboard.repository;
 
 import com.smartexpenses.whiteboard.model.Shape;
 import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,17 +21,32 @@ public interface ShapeRepository extends JpaRepository<Shape, UUID> {
     // Find all shapes for a board, ordered by layer
     List<Shape> findByBoardIdOrderByLayerOrderAsc(UUID boardId);
 
+    // Find all shapes for a board in stacking order (bottom first)
+    List<Shape> findByBoardIdOrderByLayerKeyAscIdAsc(UUID boardId);
+
+    // Same, locking the rows until the transaction ends (archiving a board)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Shape s WHERE s.board.id = :boardId ORDER BY s.layerKey ASC, s.id ASC")
+    List<Shape> findByBoardIdForUpdate(@Param("boardId") UUID boardId);
+
     // Find shapes by board and type
     List<Shape> findByBoardIdAndTypeOrderByLayerOrderAsc(UUID boardId, ShapeType type);
 
     // Find specific shape on a board
     Optional<Shape> findByIdAndBoardId(UUID id, UUID boardId);
 
+    boolean existsByIdAndBoardId(UUID id, UUID boardId);
+
     // Delete all shapes for a board (when board is deleted)
     @Modifying
     @Query("DELETE FROM Shape s WHERE s.board.id = :boardId")
     void deleteAllByBoardId(@Param("boardId") UUID boardId);
 
+    // Delete given shapes of a board (the board id lets Postgres prune to one partition)
+    @Modifying
+    @Query("DELETE FROM Shape s WHERE s.board.id = :boardId AND s.id IN :ids")
+    int deleteAllByBoardIdAndIdIn(@Param("boardId") UUID boardId, @Param("ids") Collection<UUID> ids);
+
     // Delete specific shape
     @Modifying
     void deleteByIdAndBoardId(UUID id, UUID boardId);
@@ -36,7 +54,129 @@ public interface ShapeRepository extends JpaRepository<Shape, UUID> {
     // Count shapes on a board
     long countByBoardId(UUID boardId);
 
-    // Get max layer order for a board (to add new shapes on top)
-    @Query("SELECT COALESCE(MAX(s.layerOrder), 0) FROM Shape s WHERE s.board.id = :boardId")
-    Integer getMaxLayerOrderForBoard(@Param("boardId") UUID boardId);
+    // Whether candidateId is rootId or one of its descendants (guards against grouping cycles).
+    // Every step is restricted to the board so it stays in one shapes partition. UNION (not
+    // UNION ALL) drops rows already seen, so a cycle in existing data still terminates.
+    @Query(value = """
+            WITH RECURSIVE subtree AS (
+                SELECT id FROM {h-schema}shapes WHERE id = :rootId AND board_id = :boardId
+                UNION
+                SELECT s.id FROM {h-schema}shapes s JOIN subtree t ON s.parent_id = t.id WHERE s.board_id = :boardId
+            )
+            SELECT EXISTS (SELECT 1 FROM subtree WHERE id = :candidateId)
+            """, nativeQuery = true)
+    boolean isInSubtree(@Param("boardId") UUID boardId, @Param("rootId") UUID rootId,
+                        @Param("candidateId") UUID candidateId);
+
+    // Serialises re-parenting on a board until the transaction ends, so two concurrent moves
+    // cannot each pass the cycle check and together form a cycle
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtextextended(CAST(:boardId AS text), 0))) l",
+            nativeQuery = true)
+    Integer lockHierarchy(@Param("boardId") UUID boardId);
+
+    // Move a group and all its descendants in one statement; returns the moved shapes' new data.
+    // The subtree walk uses UNION like isInSubtree, so it terminates even on a cycle.
+    // Only numeric position fields that a shape has are shifted (x/y, line ends x1/y1/x2/y2).
+    @Query(value = """
+            WITH RECURSIVE subtree AS (
+                SELECT id FROM {h-schema}shapes WHERE id = :rootId AND board_id = :boardId
+                UNION
+                SELECT s.id FROM {h-schema}shapes s JOIN subtree t ON s.parent_id = t.id WHERE s.board_id = :boardId
+            ),
+            moved AS (
+                UPDATE {h-schema}shapes s
+                SET data = src.d
+                        || CASE WHEN jsonb_typeof(src.d->'x') = 'number'
+                                THEN jsonb_build_object('x', (src.d->>'x')::numeric + :dx) ELSE '{}'::jsonb END
+                        || CASE WHEN jsonb_typeof(src.d->'y') = 'number'
+                                THEN jsonb_build_object('y', (src.d->>'y')::numeric + :dy) ELSE '{}'::jsonb END
+                        || CASE WHEN jsonb_typeof(src.d->'x1') = 'number'
+                                THEN jsonb_build_object('x1', (src.d->>'x1')::numeric + :dx) ELSE '{}'::jsonb END
+                        || CASE WHEN jsonb_typeof(src.d->'y1') = 'number'
+                                THEN jsonb_build_object('y1', (src.d->>'y1')::numeric + :dy) ELSE '{}'::jsonb END
+                        || CASE WHEN jsonb_typeof(src.d->'x2') = 'number'
+                                THEN jsonb_build_object('x2', (src.d->>'x2')::numeric + :dx) ELSE '{}'::jsonb END
+                        || CASE WHEN jsonb_typeof(src.d->'y2') = 'number'
+                                THEN jsonb_build_object('y2', (src.d->>'y2')::numeric + :dy) ELSE '{}'::jsonb END,
+                    version = s.version + 1,
+                    updated_by = :userId,
+                    updated_at = now()
+                FROM (SELECT id, data::jsonb AS d FROM {h-schema}shapes
+                      WHERE board_id = :boardId AND id IN (SELECT id FROM subtree)) src
+                WHERE s.board_id = :boardId AND s.id = src.id
+                RETURNING s.id, s.data
+            )
+            SELECT id, CAST(data AS text) AS data FROM moved
+            """, nativeQuery = true)
+    List<MovedShape> translateSubtree(@Param("boardId") UUID boardId, @Param("rootId") UUID rootId,
+                                @Param("dx") double dx, @Param("dy") double dy, @Param("userId") UUID userId);
+
+    // Write back a board document's merged state and bump the version, so conditional updates
+    // based on the row before the ops are stale. Writes nothing (0) if the row moved past version.
+    @Modifying
+    @Query(value = """
+            UPDATE {h-schema}shapes SET data = CAST(:data AS jsonb), layer_key = :layerKey,
+                version = version + 1, updated_at = now()
+            WHERE board_id = :boardId AND id = :id AND version = :version
+            """, nativeQuery = true)
+    int writeMergedState(@Param("boardId") UUID boardId, @Param("id") UUID id, @Param("data") String data,
+                         @Param("layerKey") String layerKey, @Param("version") long version);
+
+    // Ranked full-text matches on a board (TEXT and STICKY_NOTE only, see search_vector)
+    @Query(value = """
+            SELECT s.id AS id, ts_rank(s.search_vector, q)::float8 AS rank
+            FROM {h-schema}shapes s, websearch_to_tsquery('simple', :query) q
+            WHERE s.board_id = :boardId AND s.search_vector @@ q
+            ORDER BY rank DESC, s.id
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<SearchMatch> searchText(@Param("boardId") UUID boardId, @Param("query") String query,
+                                 @Param("limit") int limit, @Param("offset") long offset);
+
+    @Query(value = """
+            SELECT COUNT(*) FROM {h-schema}shapes s
+            WHERE s.board_id = :boardId AND s.search_vector @@ websearch_to_tsquery('simple', :query)
+            """, nativeQuery = true)
+    long countTextMatches(@Param("boardId") UUID boardId, @Param("query") String query);
+
+    // Top and bottom of a board's stack (seeds LayerStackIndex once per board)
+    @Query("SELECT MIN(s.layerKey) AS minKey, MAX(s.layerKey) AS maxKey, " +
+           "MIN(s.layerOrder) AS minOrder, MAX(s.layerOrder) AS maxOrder " +
+           "FROM Shape s WHERE s.board.id = :boardId")
+    LayerBounds getLayerBounds(@Param("boardId") UUID boardId);
+
+    // Highest key ordered at or below layerOrder and lowest key above it, other shapes only
+    @Query("SELECT MAX(CASE WHEN s.layerOrder <= :layerOrder THEN s.layerKey END) AS lowerKey, " +
+           "MIN(CASE WHEN s.layerOrder > :layerOrder THEN s.layerKey END) AS upperKey " +
+           "FROM Shape s WHERE s.board.id = :boardId AND s.id <> :shapeId")
+    LayerNeighbours getLayerNeighbours(@Param("boardId") UUID boardId, @Param("shapeId") UUID shapeId,
+                                       @Param("layerOrder") int layerOrder);
+
+    // Same for a shape not created yet
+    @Query("SELECT MAX(CASE WHEN s.layerOrder <= :layerOrder THEN s.layerKey END) AS lowerKey, " +
+           "MIN(CASE WHEN s.layerOrder > :layerOrder THEN s.layerKey END) AS upperKey " +
+           "FROM Shape s WHERE s.board.id = :boardId")
+    LayerNeighbours getLayerNeighbours(@Param("boardId") UUID boardId, @Param("layerOrder") int layerOrder);
+
+    interface LayerBounds {
+        String getMinKey();
+        String getMaxKey();
+        Integer getMinOrder();
+        Integer getMaxOrder();
+    }
+
+    interface LayerNeighbours {
+        String getLowerKey();
+        String getUpperKey();
+    }
+
+    interface MovedShape {
+        UUID getId();
+        String getData(); // JSON
+    }
+
+    interface SearchMatch {
+        UUID getId();
+        Double getRank();
+    }
 }
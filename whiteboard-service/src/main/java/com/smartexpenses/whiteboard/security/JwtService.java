@@ -5,6 +5,8 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -12,6 +14,7 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -26,6 +29,14 @@ public class JwtService {
     @Value("${jwt.secret}")
     private String jwtSecret; // Same secret as auth-service for validation
 
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtService(MeterRegistry meterRegistry) {
+        this.verifiedTimer = verifyTimer(meterRegistry, "valid");
+        this.rejectedTimer = verifyTimer(meterRegistry, "invalid");
+    }
+
     /**
      * Extract user ID from JWT token
      * @param token JWT token from Authorization header
@@ -75,18 +86,29 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
+        long start = System.nanoTime();
         try {
-            return Jwts.parser()
+            Claims claims = Jwts.parser()
                     .verifyWith(getSigningKey())
                     .build()
                     .parseSignedClaims(token)
                     .getPayload();
+            verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
         } catch (Exception e) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             log.error("Failed to parse JWT claims: {}", e.getMessage());
             throw new UnauthorizedException("Invalid token: unable to parse claims");
         }
     }
 
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("whiteboard.jwt.verify")
+                .description("Time to verify a token's signature and parse its claims")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     private boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
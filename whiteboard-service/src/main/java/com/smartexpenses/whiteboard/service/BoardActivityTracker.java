@@ -0,0 +1,173 @@
+package com.smartexpenses.whiteboard.service;
+
+import com.smartexpenses.whiteboard.dto.BoardSummary;
+import com.smartexpenses.whiteboard.model.Board;
+import com.smartexpenses.whiteboard.model.BoardActivity;
+import com.smartexpenses.whiteboard.presence.ClusterPresence;
+import com.smartexpenses.whiteboard.repository.BoardActivityRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains board summaries (shape count, last activity, content version) incrementally.
+ * Mutations add a delta in memory once their transaction commits; deltas are written
+ * to board_activity in one upsert per board every flush interval. Reads merge the stored
+ * row with this node's unflushed delta, so a writer sees its own changes immediately.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BoardActivityTracker {
+
+    private final BoardActivityRepository activityRepository;
+    private final ClusterPresence clusterPresence;
+    private final TransactionTemplate transactionTemplate;
+
+    // Key: boardId, Value: changes not yet flushed (replaced atomically, never mutated)
+    private final ConcurrentMap<UUID, Delta> pending = new ConcurrentHashMap<>();
+
+    public void shapeCreated(UUID boardId) {
+        record(boardId, 1, 1);
+    }
+
+    public void shapeDeleted(UUID boardId) {
+        record(boardId, -1, 1);
+    }
+
+    public void shapesChanged(UUID boardId, int count) {
+        record(boardId, 0, count);
+    }
+
+    // Counts as activity without changing content (keeps a restored board out of the next archive run)
+    public void boardRestored(UUID boardId) {
+        record(boardId, 0, 0);
+    }
+
+    public void boardDeleted(UUID boardId) {
+        pending.remove(boardId);
+        activityRepository.deleteByBoardId(boardId);
+    }
+
+    /**
+     * Summaries for a page of boards: one primary-key lookup for all of them
+     */
+    public Map<UUID, BoardSummary> getSummaries(Collection<Board> boards) {
+        List<UUID> ids = boards.stream().map(Board::getId).collect(Collectors.toList());
+        Map<UUID, BoardActivity> stored = activityRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(BoardActivity::getBoardId, Function.identity()));
+
+        Map<UUID, BoardSummary> summaries = new HashMap<>();
+        for (Board board : boards) {
+            BoardActivity activity = stored.get(board.getId());
+            Delta delta = pending.get(board.getId());
+
+            long shapeCount = activity != null ? activity.getShapeCount() : 0;
+            long contentVersion = activity != null ? activity.getContentVersion() : 0;
+            LocalDateTime lastActivityAt = activity != null && activity.getLastActivityAt() != null
+                    ? activity.getLastActivityAt()
+                    : board.getUpdatedAt();
+            if (delta != null) {
+                shapeCount = Math.max(0, shapeCount + delta.shapeDelta());
+                contentVersion += delta.changes();
+                lastActivityAt = latest(lastActivityAt, delta.lastActivityAt());
+            }
+
+            summaries.put(board.getId(), BoardSummary.builder()
+                    .shapeCount(shapeCount)
+                    .lastActivityAt(lastActivityAt)
+                    .activeUsers(clusterPresence.getBoardUsers(board.getId()).size())
+                    .contentVersion(contentVersion)
+                    .thumbnailUrl("/api/boards/" + board.getId() + "/thumbnail.png?v=" + contentVersion)
+                    .build());
+        }
+        return summaries;
+    }
+
+    /**
+     * Current content version of one board, including this node's unflushed changes
+     */
+    public long getContentVersion(UUID boardId) {
+        long stored = activityRepository.findById(boardId).map(BoardActivity::getContentVersion).orElse(0L);
+        Delta delta = pending.get(boardId);
+        return stored + (delta != null ? delta.changes() : 0);
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.activity.flush-ms:1000}")
+    public void flush() {
+        for (UUID boardId : pending.keySet()) {
+            Delta delta = pending.remove(boardId);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> activityRepository.applyDelta(
+                        boardId, delta.shapeDelta(), delta.lastActivityAt(), delta.changes()));
+            } catch (DataIntegrityViolationException e) {
+                // The board was deleted while the upsert ran; retrying would fail the same way
+                log.debug("Dropped activity for deleted board {}", boardId);
+            } catch (Exception e) {
+                // Put it back so it goes out with the next flush
+                pending.merge(boardId, delta, Delta::plus);
+                log.warn("Failed to flush activity for board {}: {}", boardId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Count the change only if (and when) the surrounding transaction commits
+    private void record(UUID boardId, int shapeDelta, int changes) {
+        if (boardId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(boardId, shapeDelta, changes);
+                }
+            });
+        } else {
+            add(boardId, shapeDelta, changes);
+        }
+    }
+
+    private void add(UUID boardId, int shapeDelta, int changes) {
+        pending.merge(boardId, new Delta(shapeDelta, changes, LocalDateTime.now()), Delta::plus);
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+
+    private record Delta(long shapeDelta, long changes, LocalDateTime lastActivityAt) {
+        Delta plus(Delta other) {
+            return new Delta(shapeDelta + other.shapeDelta, changes + other.changes,
+                    latest(lastActivityAt, other.lastActivityAt));
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.smartexpenses.whiteboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartexpenses.whiteboard.crdt.BoardDocumentStore;
+import com.smartexpenses.whiteboard.exception.ResourceNotFoundException;
+import com.smartexpenses.whiteboard.exception.WhiteboardException;
+import com.smartexpenses.whiteboard.model.Board;
+import com.smartexpenses.whiteboard.model.BoardArchive;
+import com.smartexpenses.whiteboard.model.Shape;
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import com.smartexpenses.whiteboard.presence.ClusterPresence;
+import com.smartexpenses.whiteboard.repository.BoardArchiveRepository;
+import com.smartexpenses.whiteboard.repository.BoardRepository;
+import com.smartexpenses.whiteboard.repository.ShapeRepository;
+import com.smartexpenses.whiteboard.tiles.BoardTileIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves the shapes of boards nobody has touched for a while out of the shapes table.
+ * A nightly job packs each inactive board into one gzip'd row of board_archives and deletes
+ * its shape rows; the board is restored the next time someone opens it. Thumbnails render
+ * straight from the archive, so board listings do not bring anything back.
+ */
+@Service
+@Slf4j
+public class BoardArchiveService {
+
+    private static final int FORMAT = 1;
+
+    // Ids per DELETE, well under the bind parameter limit
+    private static final int DELETE_BATCH = 1000;
+
+    private final BoardRepository boardRepository;
+    private final BoardArchiveRepository archiveRepository;
+    private final ShapeRepository shapeRepository;
+    private final BoardDocumentStore boardDocumentStore;
+    private final BoardTileIndex boardTileIndex;
+    private final LayerStackIndex layerStackIndex;
+    private final BoardActivityTracker boardActivityTracker;
+    private final ClusterPresence clusterPresence;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate restoreTemplate;
+    private final boolean enabled;
+    private final int inactiveDays;
+    private final int batchSize;
+
+    public BoardArchiveService(BoardRepository boardRepository,
+                               BoardArchiveRepository archiveRepository,
+                               ShapeRepository shapeRepository,
+                               BoardDocumentStore boardDocumentStore,
+                               BoardTileIndex boardTileIndex,
+                               LayerStackIndex layerStackIndex,
+                               BoardActivityTracker boardActivityTracker,
+                               ClusterPresence clusterPresence,
+                               JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${whiteboard.archive.enabled:true}") boolean enabled,
+                               @Value("${whiteboard.archive.inactive-days:90}") int inactiveDays,
+                               @Value("${whiteboard.archive.batch-size:100}") int batchSize) {
+        this.boardRepository = boardRepository;
+        this.archiveRepository = archiveRepository;
+        this.shapeRepository = shapeRepository;
+        this.boardDocumentStore = boardDocumentStore;
+        this.boardTileIndex = boardTileIndex;
+        this.layerStackIndex = layerStackIndex;
+        this.boardActivityTracker = boardActivityTracker;
+        this.clusterPresence = clusterPresence;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Restores run on the primary in their own transaction, even when the caller's is read-only
+        this.restoreTemplate = new TransactionTemplate(transactionManager);
+        this.restoreTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.inactiveDays = inactiveDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${whiteboard.archive.cron:0 30 3 * * *}")
+    public void archiveInactiveBoards() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(inactiveDays);
+        int archived = 0;
+        for (UUID boardId : boardRepository.findArchiveCandidates(cutoff, batchSize)) {
+            // Someone has it open (here or on another node): leave it for a later run
+            if (boardDocumentStore.isLoaded(boardId) || !clusterPresence.getBoardUsers(boardId).isEmpty()) {
+                continue;
+            }
+            try {
+                if (archive(boardId)) {
+                    archived++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to archive board {}: {}", boardId, e.getMessage());
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} boards inactive since {}", archived, cutoff);
+        }
+    }
+
+    /**
+     * Pack a board's shapes into board_archives and delete the rows
+     * The rows are locked while they are read, and only those rows are deleted, so a shape
+     * created meanwhile stays in the table and is still there after the restore.
+     * @return false if the board was already archived or has no shapes
+     */
+    public boolean archive(UUID boardId) {
+        Boolean archived = transactionTemplate.execute(status -> {
+            Board board = boardRepository.findByIdForUpdate(boardId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Board", boardId));
+            if (board.getArchivedAt() != null) {
+                return false;
+            }
+            List<Shape> shapes = shapeRepository.findByBoardIdForUpdate(boardId);
+            if (shapes.isEmpty()) {
+                return false;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            archiveRepository.save(BoardArchive.builder()
+                    .boardId(boardId)
+                    .shapeCount(shapes.size())
+                    .payload(encode(shapes))
+                    .archivedAt(now)
+                    .build());
+            List<UUID> archivedIds = shapes.stream().map(Shape::getId).toList();
+            for (int from = 0; from < archivedIds.size(); from += DELETE_BATCH) {
+                shapeRepository.deleteAllByBoardIdAndIdIn(boardId,
+                        archivedIds.subList(from, Math.min(archivedIds.size(), from + DELETE_BATCH)));
+            }
+            board.setArchivedAt(now);
+            log.debug("Archived board {} with {} shapes", boardId, shapes.size());
+            return true;
+        });
+        if (Boolean.TRUE.equals(archived)) {
+            boardTileIndex.forget(boardId);
+            layerStackIndex.evict(boardId);
+        }
+        return Boolean.TRUE.equals(archived);
+    }
+
+    /**
+     * Bring an archived board's shapes back into the shapes table (no-op for active boards)
+     * @return the board's shapes in stacking order, read from the primary
+     */
+    public List<Shape> restore(UUID boardId) {
+        List<Shape> shapes = restoreTemplate.execute(status -> {
+            Board board = boardRepository.findByIdForUpdate(boardId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Board", boardId));
+            if (board.getArchivedAt() != null) {
+                archiveRepository.findById(boardId).ifPresent(archive -> {
+                    insert(boardId, decode(archive.getPayload()));
+                    archiveRepository.delete(archive);
+                });
+                board.setArchivedAt(null);
+                boardActivityTracker.boardRestored(boardId);
+                log.info("Restored archived board {}", boardId);
+            }
+            return shapeRepository.findByBoardIdOrderByLayerKeyAscIdAsc(boardId);
+        });
+        // Anything cached while the board was archived saw no shapes
+        boardTileIndex.forget(boardId);
+        layerStackIndex.evict(boardId);
+        return shapes;
+    }
+
+    /**
+     * Shapes of an archived board, read from the archive without restoring them
+     * (detached, in stacking order); empty if the board is not archived
+     */
+    public Optional<List<Shape>> archivedShapes(Board board) {
+        if (board.getArchivedAt() == null) {
+            return Optional.empty();
+        }
+        return archiveRepository.findById(board.getId())
+                .map(archive -> decode(archive.getPayload()).stream()
+                        .map(shape -> toShape(board, shape))
+                        .sorted(Comparator.comparing(Shape::getLayerKey).thenComparing(Shape::getId))
+                        .collect(Collectors.toList()));
+    }
+
+    // Helper method to serialize shapes into the gzip'd archive payload
+    private byte[] encode(List<Shape> shapes) {
+        List<ArchivedShape> archived = shapes.stream()
+                .map(shape -> new ArchivedShape(shape.getId(), shape.getParentId(), shape.getType(),
+                        shape.getData(), shape.getLayerOrder(), shape.getLayerKey(), shape.getVersion(),
+                        shape.getCreatedBy(), shape.getUpdatedBy(), shape.getCreatedAt(), shape.getUpdatedAt()))
+                .collect(Collectors.toList());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, new Payload(FORMAT, archived));
+        } catch (IOException e) {
+            throw new WhiteboardException("Failed to encode board archive", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Helper method to read shapes back from an archive payload
+    private List<ArchivedShape> decode(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            Payload decoded = objectMapper.readValue(in, Payload.class);
+            if (decoded.format() != FORMAT) {
+                throw new WhiteboardException("Unsupported board archive format " + decoded.format(),
+                        HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            return decoded.shapes();
+        } catch (IOException e) {
+            throw new WhiteboardException("Failed to decode board archive", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Helper method to insert archived shapes with their original ids, versions and timestamps
+    private void insert(UUID boardId, List<ArchivedShape> shapes) {
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO whiteboard.shapes (id, board_id, parent_id, type, data, layer_order, layer_key,
+                                                       version, created_by, updated_by, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?, ?, ?, ?, ?)
+                        """,
+                shapes, batchSize,
+                (statement, shape) -> {
+                    statement.setObject(1, shape.id());
+                    statement.setObject(2, boardId);
+                    statement.setObject(3, shape.parentId());
+                    statement.setString(4, shape.type().name());
+                    statement.setString(5, toJson(shape.data()));
+                    statement.setInt(6, shape.layerOrder() != null ? shape.layerOrder() : 0);
+                    statement.setString(7, shape.layerKey());
+                    statement.setLong(8, shape.version() != null ? shape.version() : 0L);
+                    statement.setObject(9, shape.createdBy());
+                    statement.setObject(10, shape.updatedBy());
+                    statement.setTimestamp(11, shape.createdAt() != null ? Timestamp.valueOf(shape.createdAt()) : null);
+                    statement.setTimestamp(12, shape.updatedAt() != null ? Timestamp.valueOf(shape.updatedAt()) : null);
+                });
+    }
+
+    private String toJson(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data != null ? data : Map.of());
+        } catch (IOException e) {
+            throw new WhiteboardException("Failed to encode shape data", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static Shape toShape(Board board, ArchivedShape shape) {
+        return Shape.builder()
+                .id(shape.id())
+                .board(board)
+                .parentId(shape.parentId())
+                .type(shape.type())
+                .data(shape.data())
+                .layerOrder(shape.layerOrder())
+                .layerKey(shape.layerKey())
+                .version(shape.version())
+                .createdBy(shape.createdBy())
+                .updatedBy(shape.updatedBy())
+                .createdAt(shape.createdAt())
+                .updatedAt(shape.updatedAt())
+                .build();
+    }
+
+    private record Payload(int format, List<ArchivedShape> shapes) {
+    }
+
+    private record ArchivedShape(UUID id, UUID parentId, ShapeType type, Map<String, Object> data,
+                                 Integer layerOrder, String layerKey, Long version,
+                                 UUID createdBy, UUID updatedBy,
+                                 LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+}
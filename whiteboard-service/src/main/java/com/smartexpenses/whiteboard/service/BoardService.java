@@ -1,22 +1,37 @@
 package com.smartexpenses.whiteboard.service;
 
+import com.smartexpenses.whiteboard.datasource.ReplicaRouting;
 import com.smartexpenses.whiteboard.dto.BoardResponse;
+import com.smartexpenses.whiteboard.dto.BoardSummary;
 import com.smartexpenses.whiteboard.dto.CreateBoardRequest;
+import com.smartexpenses.whiteboard.dto.CursorPage;
 import com.smartexpenses.whiteboard.dto.UpdateBoardRequest;
 import com.smartexpenses.whiteboard.exception.ResourceNotFoundException;
 import com.smartexpenses.whiteboard.exception.UnauthorizedException;
+import com.smartexpenses.whiteboard.exception.WhiteboardException;
 import com.smartexpenses.whiteboard.model.Board;
 import com.smartexpenses.whiteboard.model.enums.CollaboratorRole;
+import com.smartexpenses.whiteboard.render.TileVersions;
+import com.smartexpenses.whiteboard.tiles.BoardTileIndex;
+import com.smartexpenses.whiteboard.repository.BoardArchiveRepository;
 import com.smartexpenses.whiteboard.repository.BoardCollaboratorRepository;
 import com.smartexpenses.whiteboard.repository.BoardRepository;
 import com.smartexpenses.whiteboard.repository.ShapeRepository;
-import jakarta.transaction.Transactional;
+import com.smartexpenses.whiteboard.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +42,16 @@ public class BoardService {
     private final BoardRepository boardRepository;
     private final BoardCollaboratorRepository collaboratorRepository;
     private final ShapeRepository shapeRepository;
+    private final BoardActivityTracker boardActivityTracker;
+    private final TileVersions tileVersions;
+    private final BoardTileIndex boardTileIndex;
+    private final BoardArchiveRepository boardArchiveRepository;
+
+    @Value("${whiteboard.boards.max-page-size:100}")
+    private int maxPageSize;
+
+    private static final UUID NIL_UUID = new UUID(0L, 0L);
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     @Transactional
     public BoardResponse createBoard(CreateBoardRequest request, UUID userId) {
@@ -59,15 +84,15 @@ public class BoardService {
         return mapToResponse(board);
     }
 
-    public List<BoardResponse> getUserBoards(UUID userId) {
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
+    public List<BoardResponse> getUserBoards(UUID userId, boolean includeSummary) {
         log.debug("Getting all boards for user: {}", userId);
         
         List<Board> boards = boardRepository.findBoardsAccessibleByUser(userId);
-        return boards.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(boards, includeSummary);
     }
 
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
     public List<BoardResponse> getPublicBoards() {
         log.debug("Getting all public boards");
         
@@ -77,6 +102,88 @@ public class BoardService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Boards the user owns or collaborates on, newest first, one keyset page at a time
+     * The total is only counted for the first page
+     */
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
+    public CursorPage<BoardResponse> getUserBoardsPage(UUID userId, int limit, String cursor, boolean includeSummary) {
+        log.debug("Getting boards page for user: {} (limit {})", userId, limit);
+
+        int pageSize = clampPageSize(limit);
+        Keyset after = decodeKeyset(cursor);
+        List<Board> boards = boardRepository.findAccessibleBoardsPage(
+                userId, after.createdAt(), after.id(), pageSize + 1);
+        Long total = cursor == null || cursor.isBlank() ? boardRepository.countAccessibleBoards(userId) : null;
+        return toPage(boards, pageSize, total, includeSummary);
+    }
+
+    /**
+     * Public boards, newest first, one keyset page at a time
+     */
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
+    public CursorPage<BoardResponse> getPublicBoardsPage(int limit, String cursor, boolean includeSummary) {
+        log.debug("Getting public boards page (limit {})", limit);
+
+        int pageSize = clampPageSize(limit);
+        Keyset after = decodeKeyset(cursor);
+        List<Board> boards = boardRepository.findPublicBoardsPage(after.createdAt(), after.id(), pageSize + 1);
+        Long total = cursor == null || cursor.isBlank() ? boardRepository.countByIsPublicTrue() : null;
+        return toPage(boards, pageSize, total, includeSummary);
+    }
+
+    /**
+     * Search name and description of the boards a user owns or collaborates on
+     * Ordered by relevance (name prefix first, then trigram word similarity), paged by keyset cursor
+     */
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
+    public CursorPage<BoardResponse> searchUserBoards(UUID userId, String query, int limit, String cursor) {
+        log.debug("Searching boards for user: {} (limit {})", userId, limit);
+
+        if (query == null || query.isBlank()) {
+            throw new WhiteboardException("Search query must not be empty", HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = clampPageSize(limit);
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        String escaped = escapeLike(normalized);
+
+        double afterScore = Double.POSITIVE_INFINITY;
+        UUID afterId = NIL_UUID;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = PageCursor.decode(cursor, 2);
+            afterScore = parseCursorPart(parts[0], Double::parseDouble);
+            afterId = parseCursorPart(parts[1], UUID::fromString);
+        }
+
+        // Fetch one extra row to know whether there is a next page
+        List<BoardRepository.BoardMatch> matches = boardRepository.searchAccessibleBoards(
+                userId, normalized, escaped + "%", "%" + escaped + "%", afterScore, afterId, pageSize + 1);
+        boolean hasMore = matches.size() > pageSize;
+        if (hasMore) {
+            matches = matches.subList(0, pageSize);
+        }
+
+        List<UUID> ids = matches.stream().map(BoardRepository.BoardMatch::getId).collect(Collectors.toList());
+        Map<UUID, Board> boards = boardRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Board::getId, Function.identity()));
+        List<BoardResponse> items = ids.stream()
+                .map(boards::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            BoardRepository.BoardMatch last = matches.get(matches.size() - 1);
+            nextCursor = PageCursor.encode(last.getScore(), last.getId());
+        }
+
+        return CursorPage.<BoardResponse>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     @Transactional
     public BoardResponse updateBoard(UUID boardId, UpdateBoardRequest request, UUID userId) {
         log.debug("Updating board: {} by user: {}", boardId, userId);
@@ -119,7 +226,11 @@ public class BoardService {
         }
 
         shapeRepository.deleteAllByBoardId(boardId);
+        boardArchiveRepository.findById(boardId).ifPresent(boardArchiveRepository::delete);
         collaboratorRepository.deleteAllByBoardId(boardId);
+        boardActivityTracker.boardDeleted(boardId);
+        tileVersions.forget(boardId);
+        boardTileIndex.forget(boardId);
         boardRepository.delete(board);
         log.info("Board deleted successfully: {}", boardId);
     }
@@ -140,6 +251,67 @@ public class BoardService {
         return collaboratorRepository.existsByBoardIdAndUserId(board.getId(), userId);
     }
 
+    // Helper method to cut the extra look-ahead row and build the next cursor from the last item
+    private CursorPage<BoardResponse> toPage(List<Board> boards, int pageSize, Long total, boolean includeSummary) {
+        boolean hasMore = boards.size() > pageSize;
+        List<Board> page = hasMore ? boards.subList(0, pageSize) : boards;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Board last = page.get(page.size() - 1);
+            nextCursor = PageCursor.encode(last.getCreatedAt(), last.getId());
+        }
+
+        return CursorPage.<BoardResponse>builder()
+                .items(mapToResponses(page, includeSummary))
+                .nextCursor(nextCursor)
+                .total(total)
+                .build();
+    }
+
+    // Helper method to read a (createdAt, id) cursor; no cursor starts above the newest board
+    private Keyset decodeKeyset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Keyset(FIRST_PAGE_CREATED_AT, NIL_UUID);
+        }
+        String[] parts = PageCursor.decode(cursor, 2);
+        return new Keyset(parseCursorPart(parts[0], LocalDateTime::parse), parseCursorPart(parts[1], UUID::fromString));
+    }
+
+    // Helper method to bound client-supplied page sizes
+    private int clampPageSize(int limit) {
+        if (limit < 1) {
+            throw new WhiteboardException("Limit must be positive", HttpStatus.BAD_REQUEST);
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // Helper method to parse a decoded cursor part, rejecting tampered cursors
+    private static <T> T parseCursorPart(String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            throw new WhiteboardException("Invalid page cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Helper method to match user input literally in LIKE patterns
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Helper method to map a list of boards, attaching all summaries from one lookup
+    private List<BoardResponse> mapToResponses(List<Board> boards, boolean includeSummary) {
+        Map<UUID, BoardSummary> summaries = includeSummary ? boardActivityTracker.getSummaries(boards) : Map.of();
+        return boards.stream()
+                .map(board -> {
+                    BoardResponse response = mapToResponse(board);
+                    response.setSummary(summaries.get(board.getId()));
+                    return response;
+                })
+                .collect(Collectors.toList());
+    }
+
     // Helper method to map Board entity to BoardResponse DTO
     private BoardResponse mapToResponse(Board board) {
         return BoardResponse.builder()
@@ -152,4 +324,7 @@ public class BoardService {
                 .updatedAt(board.getUpdatedAt())
                 .build();
     }
+
+    private record Keyset(LocalDateTime createdAt, UUID id) {
+    }
 }
@@ -1,5 +1,6 @@
 package com.smartexpenses.whiteboard.service;
 
+import com.smartexpenses.whiteboard.datasource.ReplicaRouting;
 import com.smartexpenses.whiteboard.dto.AddCollaboratorRequest;
 import com.smartexpenses.whiteboard.dto.CollaboratorResponse;
 import com.smartexpenses.whiteboard.exception.ResourceNotFoundException;
@@ -9,10 +10,10 @@ import com.smartexpenses.whiteboard.model.BoardCollaborator;
 import com.smartexpenses.whiteboard.model.enums.CollaboratorRole;
 import com.smartexpenses.whiteboard.repository.BoardCollaboratorRepository;
 import com.smartexpenses.whiteboard.repository.BoardRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -61,6 +62,7 @@ public class CollaborationService {
         return mapToResponse(collaborator);
     }
 
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
     public List<CollaboratorResponse> getBoardCollaborators(UUID boardId, UUID userId) {
         log.debug("Getting collaborators for board: {} by user: {}", boardId, userId);
 
@@ -0,0 +1,157 @@
+package com.smartexpenses.whiteboard.service;
+
+import com.smartexpenses.whiteboard.repository.ShapeRepository;
+import com.smartexpenses.whiteboard.util.LayerKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory top and bottom of each board's layer stack
+ * Seeded from the database once per board (and again after the TTL, so keys handed out
+ * by other replicas are picked up), then new top/bottom keys are handed out atomically
+ * without touching the database. Seeding queries outside the map's locks and widens
+ * whatever was handed out meanwhile, so nothing reserved during the query is lost.
+ */
+@Component
+@Slf4j
+public class LayerStackIndex {
+
+    private final ShapeRepository shapeRepository;
+    private final long ttlMs;
+
+    // Key: boardId, Value: current stack bounds (replaced atomically via computeIfPresent/merge)
+    private final ConcurrentMap<UUID, Bounds> boards = new ConcurrentHashMap<>();
+
+    public LayerStackIndex(ShapeRepository shapeRepository,
+                           @Value("${whiteboard.layers.bounds-ttl-ms:30000}") long ttlMs) {
+        this.shapeRepository = shapeRepository;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Reserve a position above every shape on the board
+     */
+    public Placement nextTop(UUID boardId) {
+        while (true) {
+            seedIfStale(boardId);
+            Bounds bounds = boards.computeIfPresent(boardId, (id, current) -> {
+                String top = LayerKeys.after(current.topKey);
+                int topOrder = current.topOrder + 1;
+                return current.isEmpty()
+                        ? new Bounds(top, top, topOrder, topOrder, current.loadedAt)
+                        : new Bounds(current.bottomKey, top, current.bottomOrder, topOrder, current.loadedAt);
+            });
+            if (bounds != null) {
+                return new Placement(bounds.topKey, bounds.topOrder);
+            }
+            // Evicted between seeding and reserving: seed again
+        }
+    }
+
+    /**
+     * Reserve a position below every shape on the board
+     */
+    public Placement nextBottom(UUID boardId) {
+        while (true) {
+            seedIfStale(boardId);
+            Bounds bounds = boards.computeIfPresent(boardId, (id, current) -> {
+                String bottom = LayerKeys.before(current.bottomKey);
+                int bottomOrder = current.bottomOrder - 1;
+                return current.isEmpty()
+                        ? new Bounds(bottom, bottom, bottomOrder, bottomOrder, current.loadedAt)
+                        : new Bounds(bottom, current.topKey, bottomOrder, current.topOrder, current.loadedAt);
+            });
+            if (bounds != null) {
+                return new Placement(bounds.bottomKey, bounds.bottomOrder);
+            }
+        }
+    }
+
+    /**
+     * Position for a shape moved to an explicit layer order: a key between the shapes
+     * ordered at or below it and those above it, so key and order agree
+     * @param shapeId the shape being moved, or null for a new shape
+     */
+    public Placement placeAt(UUID boardId, UUID shapeId, int layerOrder) {
+        ShapeRepository.LayerNeighbours neighbours = shapeId != null
+                ? shapeRepository.getLayerNeighbours(boardId, shapeId, layerOrder)
+                : shapeRepository.getLayerNeighbours(boardId, layerOrder);
+        String lower = neighbours != null ? neighbours.getLowerKey() : null;
+        String upper = neighbours != null ? neighbours.getUpperKey() : null;
+        String key = lower == null || upper == null || lower.compareTo(upper) < 0
+                ? LayerKeys.between(lower, upper)
+                : LayerKeys.after(lower); // Keys and orders already disagree here; stay above the lower side
+        Bounds placed = new Bounds(key, key, layerOrder, layerOrder, 0);
+        boards.computeIfPresent(boardId, (id, current) -> widen(current, placed));
+        return new Placement(key, layerOrder);
+    }
+
+    /**
+     * Widen the bounds with a key set elsewhere (a CRDT op), so later tops and bottoms stay outside it
+     */
+    public void include(UUID boardId, String layerKey) {
+        boards.computeIfPresent(boardId, (id, current) ->
+                widen(current, new Bounds(layerKey, layerKey, current.bottomOrder, current.topOrder, 0)));
+    }
+
+    public void evict(UUID boardId) {
+        boards.remove(boardId);
+    }
+
+    // Load the stored bounds without holding a map lock, then merge them in
+    private void seedIfStale(UUID boardId) {
+        Bounds current = boards.get(boardId);
+        long now = System.currentTimeMillis();
+        if (current != null && now - current.loadedAt < ttlMs) {
+            return;
+        }
+        ShapeRepository.LayerBounds stored = shapeRepository.getLayerBounds(boardId);
+        Bounds loaded;
+        if (stored == null || stored.getMaxKey() == null) {
+            // Empty board: the first shape gets the initial key and order 0 from either direction
+            loaded = new Bounds(null, null, 1, -1, now);
+        } else {
+            log.debug("Seeded layer stack for board {}: {}..{}", boardId, stored.getMinKey(), stored.getMaxKey());
+            loaded = new Bounds(stored.getMinKey(), stored.getMaxKey(), stored.getMinOrder(), stored.getMaxOrder(), now);
+        }
+        boards.merge(boardId, loaded, LayerStackIndex::widen);
+    }
+
+    // Union of two bounds (outermost keys and orders), keeping the newer load time
+    private static Bounds widen(Bounds current, Bounds other) {
+        if (current.isEmpty()) {
+            return new Bounds(other.bottomKey, other.topKey, Math.min(current.bottomOrder, other.bottomOrder),
+                    Math.max(current.topOrder, other.topOrder), Math.max(current.loadedAt, other.loadedAt));
+        }
+        if (other.isEmpty()) {
+            return new Bounds(current.bottomKey, current.topKey, current.bottomOrder, current.topOrder,
+                    Math.max(current.loadedAt, other.loadedAt));
+        }
+        return new Bounds(
+                current.bottomKey.compareTo(other.bottomKey) <= 0 ? current.bottomKey : other.bottomKey,
+                current.topKey.compareTo(other.topKey) >= 0 ? current.topKey : other.topKey,
+                Math.min(current.bottomOrder, other.bottomOrder),
+                Math.max(current.topOrder, other.topOrder),
+                Math.max(current.loadedAt, other.loadedAt));
+    }
+
+    /**
+     * A reserved stacking position
+     * @param layerKey   fractional key that orders the shape
+     * @param layerOrder legacy integer order kept alongside the key
+     */
+    public record Placement(String layerKey, int layerOrder) {
+    }
+
+    // Keys are null while the board has no shapes
+    private record Bounds(String bottomKey, String topKey, int bottomOrder, int topOrder, long loadedAt) {
+        boolean isEmpty() {
+            return topKey == null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.smartexpenses.whiteboard.service;
+
+import com.smartexpenses.whiteboard.dto.BoardPresenceResponse;
+import com.smartexpenses.whiteboard.exception.ResourceNotFoundException;
+import com.smartexpenses.whiteboard.exception.UnauthorizedException;
+import com.smartexpenses.whiteboard.model.Board;
+import com.smartexpenses.whiteboard.presence.ClusterPresence;
+import com.smartexpenses.whiteboard.repository.BoardCollaboratorRepository;
+import com.smartexpenses.whiteboard.repository.BoardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceService {
+
+    private final ClusterPresence clusterPresence;
+    private final BoardRepository boardRepository;
+    private final BoardCollaboratorRepository collaboratorRepository;
+
+    public BoardPresenceResponse getBoardPresence(UUID boardId, UUID userId) {
+        log.debug("Getting presence for board: {} for user: {}", boardId, userId);
+
+        Board board = boardRepository.findById(boardId)
+                .orElseThrow(() -> new ResourceNotFoundException("Board", boardId));
+
+        // Check access: owner, collaborator, or public board
+        if (!hasAccess(board, userId)) {
+            throw new UnauthorizedException("You don't have access to this board");
+        }
+
+        return snapshot(boardId);
+    }
+
+    // Cluster-wide snapshot without access checks, for callers that already validated the board
+    public BoardPresenceResponse snapshot(UUID boardId) {
+        List<BoardPresenceResponse.ActiveUser> users = clusterPresence.getBoardUsers(boardId).stream()
+                .map(user -> BoardPresenceResponse.ActiveUser.builder()
+                        .userId(user.userId())
+                        .email(user.email())
+                        .sessions(user.sessions())
+                        .build())
+                .collect(Collectors.toList());
+
+        return BoardPresenceResponse.builder()
+                .boardId(boardId)
+                .users(users)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    // Helper method to check if user has access to board
+    private boolean hasAccess(Board board, UUID userId) {
+        // Owner always has access
+        if (board.getOwnerId().equals(userId)) {
+            return true;
+        }
+
+        // Public boards are accessible to everyone
+        if (Boolean.TRUE.equals(board.getIsPublic())) {
+            return true;
+        }
+
+        // Check if user is a collaborator
+        return collaboratorRepository.existsByBoardIdAndUserId(board.getId(), userId);
+    }
+}
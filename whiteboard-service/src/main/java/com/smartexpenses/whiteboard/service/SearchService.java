@@ -0,0 +1,126 @@
+package com.smartexpenses.whiteboard.service;
+
+import com.smartexpenses.whiteboard.crdt.BoardDocumentStore;
+import com.smartexpenses.whiteboard.dto.ShapeSearchHit;
+import com.smartexpenses.whiteboard.dto.ShapeSearchResponse;
+import com.smartexpenses.whiteboard.exception.ResourceNotFoundException;
+import com.smartexpenses.whiteboard.exception.UnauthorizedException;
+import com.smartexpenses.whiteboard.exception.WhiteboardException;
+import com.smartexpenses.whiteboard.model.Board;
+import com.smartexpenses.whiteboard.model.Shape;
+import com.smartexpenses.whiteboard.repository.BoardCollaboratorRepository;
+import com.smartexpenses.whiteboard.repository.BoardRepository;
+import com.smartexpenses.whiteboard.repository.ShapeRepository;
+import com.smartexpenses.whiteboard.util.ShapeGeometry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchService {
+
+    private final ShapeRepository shapeRepository;
+    private final BoardRepository boardRepository;
+    private final BoardCollaboratorRepository collaboratorRepository;
+    private final BoardDocumentStore boardDocumentStore;
+
+    @Value("${whiteboard.search.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Ranked text search over a board's TEXT and STICKY_NOTE shapes
+     * Matching and ranking run against the search_vector GIN index; only the page of hits is loaded
+     */
+    public ShapeSearchResponse searchBoard(UUID boardId, String query, int page, int size, UUID userId) {
+        log.debug("Searching board: {} for user: {} (page {}, size {})", boardId, userId, page, size);
+
+        Board board = boardRepository.findById(boardId)
+                .orElseThrow(() -> new ResourceNotFoundException("Board", boardId));
+
+        if (!hasAccess(board, userId)) {
+            throw new UnauthorizedException("You don't have access to this board");
+        }
+
+        if (query == null || query.isBlank()) {
+            throw new WhiteboardException("Search query must not be empty", HttpStatus.BAD_REQUEST);
+        }
+        if (page < 0 || size < 1) {
+            throw new WhiteboardException("Invalid page or size", HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = Math.min(size, maxPageSize);
+        String trimmed = query.trim();
+
+        // Matching runs in SQL, so text edited by ops that are not flushed yet must be written first
+        boardDocumentStore.flush(boardId);
+
+        List<ShapeRepository.SearchMatch> matches =
+                shapeRepository.searchText(boardId, trimmed, pageSize, (long) page * pageSize);
+        long total = matches.size() < pageSize && page == 0
+                ? matches.size()
+                : shapeRepository.countTextMatches(boardId, trimmed);
+
+        return ShapeSearchResponse.builder()
+                .boardId(boardId)
+                .query(trimmed)
+                .page(page)
+                .size(pageSize)
+                .total(total)
+                .hits(toHits(matches))
+                .build();
+    }
+
+    // Helper method to load the matched shapes and keep them in rank order
+    private List<ShapeSearchHit> toHits(List<ShapeRepository.SearchMatch> matches) {
+        if (matches.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<UUID> ids = matches.stream().map(ShapeRepository.SearchMatch::getId).collect(Collectors.toList());
+        Map<UUID, Shape> shapes = shapeRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Shape::getId, Function.identity()));
+
+        List<ShapeSearchHit> hits = new ArrayList<>(matches.size());
+        for (ShapeRepository.SearchMatch match : matches) {
+            Shape shape = shapes.get(match.getId());
+            if (shape == null) {
+                continue; // Deleted between the two queries
+            }
+            Object text = shape.getData() != null ? shape.getData().get("text") : null;
+            hits.add(ShapeSearchHit.builder()
+                    .shapeId(shape.getId())
+                    .type(shape.getType())
+                    .text(text != null ? text.toString() : null)
+                    .rank(match.getRank())
+                    .bounds(ShapeGeometry.bounds(shape.getType(), shape.getData()))
+                    .build());
+        }
+        return hits;
+    }
+
+    // Helper method to check if user has access to board
+    private boolean hasAccess(Board board, UUID userId) {
+        // Owner always has access
+        if (board.getOwnerId().equals(userId)) {
+            return true;
+        }
+
+        // Public boards are accessible to everyone
+        if (Boolean.TRUE.equals(board.getIsPublic())) {
+            return true;
+        }
+
+        // Check if user is a collaborator
+        return collaboratorRepository.existsByBoardIdAndUserId(board.getId(), userId);
+    }
+}
@@ -1,22 +1,39 @@
 package com.smartexpenses.whiteboard.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartexpenses.whiteboard.crdt.BoardDocumentStore;
+import com.smartexpenses.whiteboard.crdt.ShapeDocument;
+import com.smartexpenses.whiteboard.datasource.ReplicaRouting;
 import com.smartexpenses.whiteboard.dto.CreateShapeRequest;
+import com.smartexpenses.whiteboard.dto.GroupTransformResponse;
+import com.smartexpenses.whiteboard.dto.ShapeBounds;
 import com.smartexpenses.whiteboard.dto.ShapeResponse;
 import com.smartexpenses.whiteboard.dto.UpdateShapeRequest;
 import com.smartexpenses.whiteboard.exception.ResourceNotFoundException;
+import com.smartexpenses.whiteboard.exception.ShapeConflictException;
 import com.smartexpenses.whiteboard.exception.UnauthorizedException;
+import com.smartexpenses.whiteboard.exception.WhiteboardException;
 import com.smartexpenses.whiteboard.model.Board;
 import com.smartexpenses.whiteboard.model.Shape;
 import com.smartexpenses.whiteboard.model.enums.CollaboratorRole;
 import com.smartexpenses.whiteboard.repository.BoardCollaboratorRepository;
 import com.smartexpenses.whiteboard.repository.BoardRepository;
+import com.smartexpenses.whiteboard.render.TileVersions;
+import com.smartexpenses.whiteboard.tiles.BoardTileIndex;
 import com.smartexpenses.whiteboard.repository.ShapeRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import com.smartexpenses.whiteboard.util.ShapeGeometry;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -25,9 +42,19 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ShapeService {
 
+    // Position fields translateSubtree shifts
+    private static final List<String> POSITION_FIELDS = List.of("x", "y", "x1", "y1", "x2", "y2");
+
     private final ShapeRepository shapeRepository;
     private final BoardRepository boardRepository;
     private final BoardCollaboratorRepository collaboratorRepository;
+    private final BoardDocumentStore boardDocumentStore;
+    private final LayerStackIndex layerStackIndex;
+    private final BoardActivityTracker boardActivityTracker;
+    private final TileVersions tileVersions;
+    private final BoardTileIndex boardTileIndex;
+    private final BoardArchiveService boardArchiveService;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     public ShapeResponse createShape(CreateShapeRequest request, UUID userId) {
@@ -42,27 +69,41 @@ public class ShapeService {
             throw new UnauthorizedException("You don't have permission to create shapes on this board");
         }
 
-        // Determine layer order (auto-assign if not provided)
-        Integer layerOrder = request.getLayerOrder();
-        if (layerOrder == null) {
-            Integer maxLayer = shapeRepository.getMaxLayerOrderForBoard(board.getId());
-            layerOrder = maxLayer != null ? maxLayer + 1 : 0;
+        // Bring archived shapes back first so the new shape stacks above them
+        if (board.getArchivedAt() != null) {
+            boardArchiveService.restore(board.getId());
+        }
+
+        if (request.getParentId() != null && !shapeRepository.existsByIdAndBoardId(request.getParentId(), board.getId())) {
+            throw new WhiteboardException("Parent shape must be on the same board", HttpStatus.BAD_REQUEST);
         }
 
+        // New shapes go on top unless an order is given; the position comes from the in-memory stack index
+        LayerStackIndex.Placement placement = request.getLayerOrder() != null
+                ? layerStackIndex.placeAt(board.getId(), null, request.getLayerOrder())
+                : layerStackIndex.nextTop(board.getId());
+
         Shape shape = Shape.builder()
                 .board(board)
+                .parentId(request.getParentId())
                 .type(request.getType())
                 .data(request.getData())
-                .layerOrder(layerOrder)
+                .layerOrder(placement.layerOrder())
+                .layerKey(placement.layerKey())
                 .createdBy(userId)
                 .build();
 
         shape = shapeRepository.save(shape);
+        boardDocumentStore.recordCreated(shape);
+        boardActivityTracker.shapeCreated(board.getId());
+        tileVersions.markDirty(board.getId(), ShapeGeometry.bounds(shape.getType(), shape.getData()));
+        boardTileIndex.shapeChanged(board.getId(), shape.getId(), shape.getType(), shape.getData(), shape.getLayerKey());
         log.info("Shape created successfully: {} on board: {}", shape.getId(), board.getId());
 
         return mapToResponse(shape);
     }
 
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
     public List<ShapeResponse> getBoardShapes(UUID boardId, UUID userId) {
         log.debug("Getting shapes for board: {} for user: {}", boardId, userId);
 
@@ -74,16 +115,28 @@ public class ShapeService {
             throw new UnauthorizedException("You don't have access to this board");
         }
 
-        List<Shape> shapes = shapeRepository.findByBoardIdOrderByLayerOrderAsc(boardId);
-        return shapes.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        // Opening an archived board restores it; use the primary's rows, the replica may not have them yet
+        List<Shape> shapes = board.getArchivedAt() != null
+                ? boardArchiveService.restore(boardId)
+                : shapeRepository.findByBoardIdOrderByLayerKeyAscIdAsc(boardId);
+
+        // Ops not flushed yet are only in the board document (and the replica may lag the last flush)
+        List<ShapeResponse> responses = new ArrayList<>(shapes.size());
+        for (Shape shape : shapes) {
+            ShapeResponse response = withPendingOps(boardId, shape);
+            if (response != null) {
+                responses.add(response);
+            }
+        }
+        return responses;
     }
 
     @Transactional
     public ShapeResponse updateShape(UUID shapeId, UUID boardId, UpdateShapeRequest request, UUID userId) {
         log.debug("Updating shape: {} on board: {} by user: {}", shapeId, boardId, userId);
 
+        // Write pending CRDT ops first, so the row below is current and a patch merges onto it
+        boardDocumentStore.flush(boardId);
         Shape shape = shapeRepository.findByIdAndBoardId(shapeId, boardId)
                 .orElseThrow(() -> new ResourceNotFoundException("Shape", shapeId));
 
@@ -93,21 +146,114 @@ public class ShapeService {
         if (!hasEditPermission(board, userId)) {
             throw new UnauthorizedException("You don't have permission to update shapes on this board");
         }
+        ShapeBounds boundsBefore = ShapeGeometry.bounds(shape.getType(), shape.getData());
+
+        // Conditional update: the version check uses the row already loaded above, so a
+        // conflict is answered with the current state without another query. This applies to
+        // the caller's own earlier writes too: updatedBy says nothing about which fields changed.
+        boolean patch = Boolean.TRUE.equals(request.getPatch());
+        boolean stale = request.getVersion() != null && !request.getVersion().equals(shape.getVersion());
+        if (stale && !patch) {
+            log.debug("Rejecting stale update of shape {}: base version {}, current {}",
+                    shapeId, request.getVersion(), shape.getVersion());
+            throw new ShapeConflictException(mapToResponse(shape));
+        }
 
-        // Update fields if provided
+        // Update fields if provided (patches merge field-wise, even when stale)
+        Map<String, Object> changedFields = new HashMap<>();
         if (request.getData() != null) {
-            shape.setData(request.getData());
+            if (patch && shape.getData() != null) {
+                Map<String, Object> merged = new HashMap<>(shape.getData());
+                merged.putAll(request.getData());
+                shape.setData(merged);
+            } else {
+                if (shape.getData() != null) {
+                    shape.getData().keySet().forEach(key -> changedFields.put(key, null)); // Removed unless set again
+                }
+                shape.setData(request.getData());
+            }
+            changedFields.putAll(request.getData());
         }
-        if (request.getLayerOrder() != null) {
-            shape.setLayerOrder(request.getLayerOrder());
+        String movedKey = null;
+        if (request.getLayerOrder() != null && !request.getLayerOrder().equals(shape.getLayerOrder())) {
+            // Shapes stack by layerKey, so the key moves with the order
+            LayerStackIndex.Placement placement = layerStackIndex.placeAt(boardId, shapeId, request.getLayerOrder());
+            shape.setLayerOrder(placement.layerOrder());
+            shape.setLayerKey(placement.layerKey());
+            movedKey = placement.layerKey();
         }
-
-        shape = shapeRepository.save(shape);
+        if (Boolean.TRUE.equals(request.getDetachFromParent())) {
+            shape.setParentId(null);
+        } else if (request.getParentId() != null && !request.getParentId().equals(shape.getParentId())) {
+            validateParent(shapeId, boardId, request.getParentId());
+            shape.setParentId(request.getParentId());
+        }
+        shape.setUpdatedBy(userId);
+
+        // Flush so the response carries the bumped version; the UPDATE is guarded by
+        // "where version = ?" and fails if another node wrote in between
+        shape = shapeRepository.saveAndFlush(shape);
+        boardDocumentStore.recordExternalWrite(boardId, shapeId, changedFields, movedKey);
+        boardActivityTracker.shapesChanged(boardId, 1);
+        tileVersions.markDirty(boardId, boundsBefore, ShapeGeometry.bounds(shape.getType(), shape.getData()));
+        boardTileIndex.shapeChanged(boardId, shapeId, shape.getType(), shape.getData(), shape.getLayerKey());
         log.info("Shape updated successfully: {}", shapeId);
 
         return mapToResponse(shape);
     }
 
+    /**
+     * Move a group/frame and all its descendants by (dx, dy)
+     * Persisted as one set-based UPDATE over the subtree instead of one write per shape
+     */
+    @Transactional
+    public GroupTransformResponse translateGroup(UUID rootId, UUID boardId, double dx, double dy, UUID userId) {
+        log.debug("Translating group: {} on board: {} by ({}, {}) by user: {}", rootId, boardId, dx, dy, userId);
+
+        Shape root = shapeRepository.findByIdAndBoardId(rootId, boardId)
+                .orElseThrow(() -> new ResourceNotFoundException("Shape", rootId));
+
+        if (!hasEditPermission(root.getBoard(), userId)) {
+            throw new UnauthorizedException("You don't have permission to update shapes on this board");
+        }
+
+        // The statement below shifts the rows, so write pending ops to them first; once it
+        // commits, the new positions are folded into loaded documents like any other write
+        boardDocumentStore.flush(boardId);
+        List<UUID> movedIds = new ArrayList<>();
+        for (ShapeRepository.MovedShape moved : shapeRepository.translateSubtree(boardId, rootId, dx, dy, userId)) {
+            movedIds.add(moved.getId());
+            boardDocumentStore.recordExternalWrite(boardId, moved.getId(), positionOf(moved.getData()), null);
+        }
+        boardActivityTracker.shapesChanged(boardId, movedIds.size());
+        tileVersions.markAllDirty(boardId);
+        boardTileIndex.boardChanged(boardId);
+        log.info("Group translated: {} ({} shapes) on board: {}", rootId, movedIds.size(), boardId);
+
+        return GroupTransformResponse.builder()
+                .rootId(rootId)
+                .shapeIds(movedIds)
+                .dx(dx)
+                .dy(dy)
+                .build();
+    }
+
+    /**
+     * Move a shape above every other shape on the board (single-row update)
+     */
+    @Transactional
+    public ShapeResponse bringToFront(UUID shapeId, UUID boardId, UUID userId) {
+        return moveInStack(shapeId, boardId, userId, true);
+    }
+
+    /**
+     * Move a shape below every other shape on the board (single-row update)
+     */
+    @Transactional
+    public ShapeResponse sendToBack(UUID shapeId, UUID boardId, UUID userId) {
+        return moveInStack(shapeId, boardId, userId, false);
+    }
+
     @Transactional
     public void deleteShape(UUID shapeId, UUID boardId, UUID userId) {
         log.debug("Deleting shape: {} on board: {} by user: {}", shapeId, boardId, userId);
@@ -123,9 +269,98 @@ public class ShapeService {
         }
 
         shapeRepository.delete(shape);
+        boardDocumentStore.recordExternalDelete(boardId, shapeId);
+        boardActivityTracker.shapeDeleted(boardId);
+        tileVersions.markDirty(boardId, ShapeGeometry.bounds(shape.getType(), shape.getData()));
+        boardTileIndex.shapeRemoved(boardId, shapeId);
         log.info("Shape deleted successfully: {}", shapeId);
     }
 
+    // Helper method to give a shape a new top or bottom layer key
+    private ShapeResponse moveInStack(UUID shapeId, UUID boardId, UUID userId, boolean toFront) {
+        log.debug("Moving shape {} to {} on board {} by user {}", shapeId, toFront ? "front" : "back", boardId, userId);
+
+        boardDocumentStore.flush(boardId); // The response and tile index use the row's data
+        Shape shape = shapeRepository.findByIdAndBoardId(shapeId, boardId)
+                .orElseThrow(() -> new ResourceNotFoundException("Shape", shapeId));
+
+        if (!hasEditPermission(shape.getBoard(), userId)) {
+            throw new UnauthorizedException("You don't have permission to reorder shapes on this board");
+        }
+
+        LayerStackIndex.Placement placement = toFront
+                ? layerStackIndex.nextTop(boardId)
+                : layerStackIndex.nextBottom(boardId);
+        shape.setLayerKey(placement.layerKey());
+        shape.setLayerOrder(placement.layerOrder());
+        shape.setUpdatedBy(userId);
+
+        shape = shapeRepository.saveAndFlush(shape);
+        boardDocumentStore.recordExternalWrite(boardId, shapeId, Map.of(), shape.getLayerKey());
+        boardActivityTracker.shapesChanged(boardId, 1);
+        tileVersions.markDirty(boardId, ShapeGeometry.bounds(shape.getType(), shape.getData()));
+        boardTileIndex.shapeChanged(boardId, shapeId, shape.getType(), shape.getData(), shape.getLayerKey());
+        return mapToResponse(shape);
+    }
+
+    /**
+     * Load shapes of a board by id in the given order, skipping ids that no longer exist
+     * No access check: for callers that already validated the board
+     */
+    public List<ShapeResponse> getShapesInOrder(UUID boardId, List<UUID> shapeIds) {
+        Map<UUID, Shape> shapes = shapeRepository.findAllById(shapeIds).stream()
+                .collect(Collectors.toMap(Shape::getId, shape -> shape));
+        return shapeIds.stream()
+                .map(shapes::get)
+                .filter(shape -> shape != null)
+                .map(shape -> withPendingOps(boardId, shape))
+                .filter(response -> response != null)
+                .collect(Collectors.toList());
+    }
+
+    // Helper method to overlay ops not flushed yet, which are only in the board document; null if deleted
+    private ShapeResponse withPendingOps(UUID boardId, Shape shape) {
+        ShapeDocument pending = boardDocumentStore.getLoadedShape(boardId, shape.getId());
+        if (pending == null) {
+            return mapToResponse(shape);
+        }
+        if (pending.isDeleted()) {
+            return null;
+        }
+        ShapeResponse response = mapToResponse(shape);
+        response.setData(pending.materialize());
+        response.setLayerKey(pending.getLayerKey());
+        return response;
+    }
+
+    // Helper method to pick the shifted position fields out of a moved shape's data
+    private Map<String, Object> positionOf(String json) {
+        try {
+            Map<String, Object> data = objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+            Map<String, Object> position = new HashMap<>();
+            for (String field : POSITION_FIELDS) {
+                if (data.get(field) instanceof Number value) {
+                    position.put(field, value);
+                }
+            }
+            return position;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Shape data is not valid JSON", e);
+        }
+    }
+
+    // Helper method to check a new parent is on the board and would not create a cycle
+    private void validateParent(UUID shapeId, UUID boardId, UUID parentId) {
+        shapeRepository.lockHierarchy(boardId); // Held until commit, so the check below stays true
+        if (!shapeRepository.existsByIdAndBoardId(parentId, boardId)) {
+            throw new WhiteboardException("Parent shape must be on the same board", HttpStatus.BAD_REQUEST);
+        }
+        if (shapeRepository.isInSubtree(boardId, shapeId, parentId)) {
+            throw new WhiteboardException("A shape cannot be grouped under itself or its descendants",
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // Helper method to check if user has edit permission (owner or editor)
     private boolean hasEditPermission(Board board, UUID userId) {
         // Owner always has edit permission
@@ -160,9 +395,12 @@ public class ShapeService {
         return ShapeResponse.builder()
                 .id(shape.getId())
                 .boardId(shape.getBoard().getId())
+                .parentId(shape.getParentId())
                 .type(shape.getType())
                 .data(shape.getData())
                 .layerOrder(shape.getLayerOrder())
+                .layerKey(shape.getLayerKey())
+                .version(shape.getVersion())
                 .createdBy(shape.getCreatedBy())
                 .createdAt(shape.getCreatedAt())
                 .updatedAt(shape.getUpdatedAt())
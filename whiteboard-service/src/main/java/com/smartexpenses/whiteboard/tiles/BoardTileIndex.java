@@ -0,0 +1,502 @@
+package com.smartexpenses.whiteboard.tiles;
+
+import com.smartexpenses.whiteboard.cache.CacheInvalidation;
+import com.smartexpenses.whiteboard.cache.CacheInvalidationBus;
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import com.smartexpenses.whiteboard.dto.ShapeBounds;
+import com.smartexpenses.whiteboard.model.Shape;
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import com.smartexpenses.whiteboard.render.TileVersions;
+import com.smartexpenses.whiteboard.repository.ShapeRepository;
+import com.smartexpenses.whiteboard.util.ShapeGeometry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory level-of-detail pyramid of each active board's shapes.
+ * Levels below aggregate-from-zoom bucket shape ids per tile (zoom 0 full detail, then
+ * simplified boxes); higher levels keep only per-cell shape counts, so a zoomed-out tile
+ * costs the same however many shapes the board has. A board is loaded on first use and
+ * then kept current by the mutation hooks; idle boards are dropped.
+ * Committed mutations are also sent to the other replicas over the cache invalidation bus,
+ * carrying the indexed entry itself, since the shape's row may lag its CRDT document.
+ */
+@Component
+@Slf4j
+public class BoardTileIndex {
+
+    // Mutation details on the bus: +entry, -shapeId, or STALE to rebuild the board
+    private static final String STALE = "*";
+
+    // A shape touching more tiles than this on one level goes to that level's oversized bucket
+    private static final int MAX_TILES_PER_SHAPE = 256;
+
+    private final ShapeRepository shapeRepository;
+    private final CacheInvalidationBus bus;
+    private final String nodeId;
+    private final int maxZoom;
+    private final int aggregateFromZoom;
+    private final int gridSize;
+    private final long idleEvictMs;
+
+    private final ConcurrentMap<UUID, BoardTiles> boards = new ConcurrentHashMap<>();
+
+    public BoardTileIndex(ShapeRepository shapeRepository,
+                          TileVersions tileVersions,
+                          CacheInvalidationBus bus,
+                          NodeIdentity nodeIdentity,
+                          @Value("${whiteboard.tiles.aggregate-from-zoom:3}") int aggregateFromZoom,
+                          @Value("${whiteboard.tiles.aggregate-grid:16}") int gridSize,
+                          @Value("${whiteboard.tiles.idle-evict-ms:600000}") long idleEvictMs) {
+        this.shapeRepository = shapeRepository;
+        this.bus = bus;
+        this.nodeId = nodeIdentity.getNodeId();
+        this.maxZoom = tileVersions.getMaxZoom();
+        this.aggregateFromZoom = Math.min(aggregateFromZoom, maxZoom + 1);
+        this.gridSize = gridSize;
+        this.idleEvictMs = idleEvictMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        bus.subscribe(this::applyRemote);
+        bus.onGap(boards::clear); // Mutations from other nodes may be missing: rebuild on next use
+    }
+
+    public int getAggregateFromZoom() {
+        return aggregateFromZoom;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Shapes whose bounds touch a tile, in stacking order (bucketed levels only)
+     */
+    public List<Entry> shapesIn(UUID boardId, TileVersions.TileKey tile) {
+        BoardTiles tiles = loaded(boardId);
+        synchronized (tiles) {
+            Set<UUID> ids = tiles.buckets.getOrDefault(tile, Set.of());
+            Set<UUID> oversized = tiles.oversized.getOrDefault(tile.zoom(), Set.of());
+            List<Entry> entries = new ArrayList<>(ids.size());
+            for (UUID id : ids) {
+                entries.add(tiles.entries.get(id));
+            }
+            for (UUID id : oversized) {
+                Entry entry = tiles.entries.get(id);
+                if (touches(entry.bounds(), tile)) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(Comparator.comparing(Entry::layerKey, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(Entry::id));
+            return entries;
+        }
+    }
+
+    /**
+     * Shapes whose bounds intersect a region of any size, in stacking order; candidates come
+     * from the buckets of the finest bucketed level with tiles no larger than the region
+     */
+    public List<Entry> shapesWithin(UUID boardId, ShapeBounds region) {
+        double extent = Math.max(region.getWidth(), region.getHeight());
+        int zoom = 0;
+        while (zoom + 1 < aggregateFromZoom && TileVersions.tileSize(zoom + 1) <= extent) {
+            zoom++;
+        }
+        double size = TileVersions.tileSize(zoom);
+        long x0 = (long) Math.floor(region.getX() / size);
+        long y0 = (long) Math.floor(region.getY() / size);
+        long x1 = (long) Math.floor((region.getX() + region.getWidth()) / size);
+        long y1 = (long) Math.floor((region.getY() + region.getHeight()) / size);
+
+        BoardTiles tiles = loaded(boardId);
+        synchronized (tiles) {
+            Set<UUID> ids = new HashSet<>(tiles.oversized.getOrDefault(zoom, Set.of()));
+            for (long x = x0; x <= x1; x++) {
+                for (long y = y0; y <= y1; y++) {
+                    ids.addAll(tiles.buckets.getOrDefault(new TileVersions.TileKey(zoom, x, y), Set.of()));
+                }
+            }
+            List<Entry> entries = new ArrayList<>();
+            for (UUID id : ids) {
+                Entry entry = tiles.entries.get(id);
+                if (intersects(entry.bounds(), region)) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(Comparator.comparing(Entry::layerKey, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(Entry::id));
+            return entries;
+        }
+    }
+
+    /**
+     * Shape counts per grid cell of a tile, row-major (aggregated levels only)
+     */
+    public int[] cellCounts(UUID boardId, TileVersions.TileKey tile) {
+        BoardTiles tiles = loaded(boardId);
+        synchronized (tiles) {
+            int[] counts = tiles.cells.get(tile);
+            return counts != null ? counts.clone() : new int[gridSize * gridSize];
+        }
+    }
+
+    /**
+     * Current bounds of a shape if its board is loaded, else null
+     */
+    public ShapeBounds boundsOf(UUID boardId, UUID shapeId) {
+        BoardTiles tiles = boards.get(boardId);
+        if (tiles == null) {
+            return null;
+        }
+        synchronized (tiles) {
+            Entry entry = tiles.loaded ? tiles.entries.get(shapeId) : null;
+            return entry != null ? entry.bounds() : null;
+        }
+    }
+
+    public void shapeChanged(UUID boardId, UUID shapeId, ShapeType type, Map<String, Object> data, String layerKey) {
+        Entry entry = Entry.of(shapeId, type, data, layerKey);
+        afterCommit(boardId, tiles -> tiles.edit(entry), "+" + entry.encode());
+    }
+
+    // CRDT ops change data only, so the shape keeps its stacking key
+    public void shapeEdited(UUID boardId, UUID shapeId, ShapeType type, Map<String, Object> data) {
+        Entry entry = Entry.of(shapeId, type, data, null);
+        afterCommit(boardId, tiles -> tiles.edit(entry), "+" + entry.encode());
+    }
+
+    public void shapeRemoved(UUID boardId, UUID shapeId) {
+        afterCommit(boardId, tiles -> tiles.remove(shapeId), "-" + shapeId);
+    }
+
+    // Set-based moves do not carry the shapes' data: rebuild the board on next use
+    public void boardChanged(UUID boardId) {
+        afterCommit(boardId, tiles -> tiles.stale = true, STALE);
+    }
+
+    public void forget(UUID boardId) {
+        runAfterCommit(() -> {
+            boards.remove(boardId);
+            bus.publish(new CacheInvalidation(nodeId, CacheInvalidation.Entity.TILE_INDEX, boardId, true));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.tiles.evict-check-ms:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        boards.forEach((boardId, tiles) -> {
+            if (now - tiles.lastAccess > idleEvictMs) {
+                boards.remove(boardId, tiles);
+                log.debug("Evicted idle tile index of board {}", boardId);
+            }
+        });
+    }
+
+    public int getLoadedBoardCount() {
+        return boards.size();
+    }
+
+    // Loaded index of a board, building it from the database on first use
+    private BoardTiles loaded(UUID boardId) {
+        while (true) {
+            BoardTiles created = new BoardTiles();
+            BoardTiles existing = boards.putIfAbsent(boardId, created);
+            if (existing == null) {
+                build(boardId, created);
+                return created;
+            }
+            synchronized (existing) {
+                while (!existing.loaded && !existing.failed) {
+                    try {
+                        existing.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while loading tiles of board " + boardId, e);
+                    }
+                }
+                if (existing.loaded && !existing.stale) {
+                    existing.lastAccess = System.currentTimeMillis();
+                    return existing;
+                }
+            }
+            boards.remove(boardId, existing); // Failed or stale: rebuild
+        }
+    }
+
+    private void build(UUID boardId, BoardTiles tiles) {
+        long start = System.currentTimeMillis();
+        try {
+            List<Shape> shapes = shapeRepository.findByBoardIdOrderByLayerKeyAscIdAsc(boardId);
+            synchronized (tiles) {
+                for (Shape shape : shapes) {
+                    tiles.put(Entry.of(shape.getId(), shape.getType(), shape.getData(), shape.getLayerKey()));
+                }
+                // Mutations that committed while we were reading; upserts and removes by id are
+                // idempotent, so replaying ones the snapshot already contains is harmless
+                tiles.pending.forEach(mutation -> mutation.accept(tiles));
+                tiles.pending.clear();
+                tiles.loaded = true;
+                tiles.lastAccess = System.currentTimeMillis();
+                tiles.notifyAll();
+            }
+            log.debug("Loaded tile index of board {}: {} shapes in {} ms",
+                    boardId, shapes.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            synchronized (tiles) {
+                tiles.failed = true;
+                tiles.notifyAll();
+            }
+            boards.remove(boardId, tiles);
+            throw e;
+        }
+    }
+
+    // Apply a mutation once its transaction commits, then send it to the other nodes
+    private void afterCommit(UUID boardId, Consumer<BoardTiles> mutation, String detail) {
+        runAfterCommit(() -> {
+            apply(boardId, mutation);
+            bus.publish(new CacheInvalidation(nodeId, CacheInvalidation.Entity.TILE_INDEX, boardId, false, detail));
+        });
+    }
+
+    // Apply a mutation only to boards that are loaded or loading
+    private void apply(UUID boardId, Consumer<BoardTiles> mutation) {
+        BoardTiles tiles = boards.get(boardId);
+        if (tiles == null) {
+            return; // Not loaded; the next load reads the committed state
+        }
+        synchronized (tiles) {
+            if (tiles.loaded) {
+                mutation.accept(tiles);
+            } else {
+                tiles.pending.add(mutation);
+            }
+        }
+    }
+
+    private void applyRemote(CacheInvalidation invalidation) {
+        if (invalidation.entity() != CacheInvalidation.Entity.TILE_INDEX || nodeId.equals(invalidation.nodeId())) {
+            return;
+        }
+        UUID boardId = invalidation.id();
+        String detail = invalidation.detail();
+        if (invalidation.deleted()) {
+            boards.remove(boardId);
+        } else if (STALE.equals(detail)) {
+            apply(boardId, tiles -> tiles.stale = true);
+        } else if (detail != null && detail.startsWith("-")) {
+            UUID shapeId = UUID.fromString(detail.substring(1));
+            apply(boardId, tiles -> tiles.remove(shapeId));
+        } else if (detail != null && detail.startsWith("+")) {
+            Entry entry = Entry.decode(detail.substring(1));
+            apply(boardId, tiles -> tiles.edit(entry));
+        } else {
+            throw new IllegalArgumentException("Malformed tile index change: " + detail);
+        }
+    }
+
+    private static void runAfterCommit(Runnable apply) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * What the index keeps per shape: enough to place, simplify and stack it
+     */
+    public record Entry(UUID id, ShapeType type, ShapeBounds bounds, String color, String layerKey) {
+
+        static Entry of(UUID id, ShapeType type, Map<String, Object> data, String layerKey) {
+            Map<String, Object> fields = data != null ? data : Map.of();
+            Object color = fields.get("fill");
+            if (color == null || "transparent".equals(color) || type == ShapeType.LINE
+                    || type == ShapeType.ARROW || type == ShapeType.PEN) {
+                color = fields.get("stroke");
+            }
+            return new Entry(id, type, ShapeGeometry.bounds(type, fields),
+                    color != null ? color.toString() : null, layerKey);
+        }
+
+        /**
+         * Wire form: id,type,x,y,width,height,layerKey,color; the colour goes last since it
+         * may contain ',', and an empty layer key means the shape keeps its own
+         */
+        String encode() {
+            return id + "," + (type != null ? type : "") + ","
+                    + bounds.getX() + "," + bounds.getY() + "," + bounds.getWidth() + "," + bounds.getHeight() + ","
+                    + (layerKey != null ? layerKey : "") + "," + (color != null ? color : "");
+        }
+
+        static Entry decode(String value) {
+            String[] parts = value.split(",", 8);
+            if (parts.length != 8) {
+                throw new IllegalArgumentException("Malformed tile index entry: " + value);
+            }
+            ShapeBounds bounds = new ShapeBounds(Double.parseDouble(parts[2]), Double.parseDouble(parts[3]),
+                    Double.parseDouble(parts[4]), Double.parseDouble(parts[5]));
+            ShapeType type = parts[1].isEmpty() ? null : ShapeType.valueOf(parts[1]);
+            return new Entry(UUID.fromString(parts[0]), type, bounds,
+                    parts[7].isEmpty() ? null : parts[7], parts[6].isEmpty() ? null : parts[6]);
+        }
+    }
+
+    // Guarded by its own monitor
+    private final class BoardTiles {
+        private final Map<UUID, Entry> entries = new HashMap<>();
+        private final Map<TileVersions.TileKey, Set<UUID>> buckets = new HashMap<>();
+        // Key: zoom, Value: shapes too large to bucket per tile on that level
+        private final Map<Integer, Set<UUID>> oversized = new HashMap<>();
+        private final Map<TileVersions.TileKey, int[]> cells = new HashMap<>();
+        private final List<Consumer<BoardTiles>> pending = new ArrayList<>();
+        private boolean loaded;
+        private boolean failed;
+        private boolean stale;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        // Insert or replace an entry; one without a stacking key keeps the one it had
+        private void edit(Entry entry) {
+            Entry previous = entries.get(entry.id());
+            if (entry.layerKey() == null && previous != null) {
+                entry = new Entry(entry.id(), entry.type(), entry.bounds(), entry.color(), previous.layerKey());
+            }
+            put(entry);
+        }
+
+        private void put(Entry entry) {
+            remove(entry.id());
+            entries.put(entry.id(), entry);
+            List<Integer> oversizedLevels = new ArrayList<>();
+            for (TileVersions.TileKey tile : bucketTiles(entry.bounds(), oversizedLevels)) {
+                buckets.computeIfAbsent(tile, key -> new HashSet<>()).add(entry.id());
+            }
+            for (int zoom : oversizedLevels) {
+                oversized.computeIfAbsent(zoom, key -> new HashSet<>()).add(entry.id());
+            }
+            forEachCell(entry.bounds(), (tile, cell) -> cells.computeIfAbsent(tile, key -> new int[gridSize * gridSize])[cell]++);
+        }
+
+        private void remove(UUID id) {
+            Entry previous = entries.remove(id);
+            if (previous == null) {
+                return;
+            }
+            List<Integer> oversizedLevels = new ArrayList<>();
+            for (TileVersions.TileKey tile : bucketTiles(previous.bounds(), oversizedLevels)) {
+                Set<UUID> ids = buckets.get(tile);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    buckets.remove(tile);
+                }
+            }
+            for (int zoom : oversizedLevels) {
+                Set<UUID> ids = oversized.get(zoom);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    oversized.remove(zoom);
+                }
+            }
+            forEachCell(previous.bounds(), (tile, cell) -> {
+                int[] counts = cells.get(tile);
+                if (counts != null && --counts[cell] <= 0 && isEmpty(counts)) {
+                    cells.remove(tile);
+                }
+            });
+        }
+
+        // Every bucketed-level tile the bounds touch, except on levels where they touch too
+        // many: those are added to oversizedLevels instead
+        private Collection<TileVersions.TileKey> bucketTiles(ShapeBounds bounds, List<Integer> oversizedLevels) {
+            List<TileVersions.TileKey> tiles = new ArrayList<>();
+            for (int zoom = 0; zoom < aggregateFromZoom; zoom++) {
+                double size = TileVersions.tileSize(zoom);
+                double left = Math.floor(bounds.getX() / size);
+                double top = Math.floor(bounds.getY() / size);
+                double right = Math.floor((bounds.getX() + bounds.getWidth()) / size);
+                double bottom = Math.floor((bounds.getY() + bounds.getHeight()) / size);
+                // Counted in doubles: far-out coordinates would overflow a long
+                if (!((right - left + 1) * (bottom - top + 1) <= MAX_TILES_PER_SHAPE)) {
+                    oversizedLevels.add(zoom);
+                    continue;
+                }
+                long x0 = (long) left;
+                long y0 = (long) top;
+                long x1 = (long) right;
+                long y1 = (long) bottom;
+                for (long x = x0; x <= x1; x++) {
+                    for (long y = y0; y <= y1; y++) {
+                        tiles.add(new TileVersions.TileKey(zoom, x, y));
+                    }
+                }
+            }
+            return tiles;
+        }
+
+        // The one aggregate cell per level that holds the shape's centre
+        private void forEachCell(ShapeBounds bounds, CellVisitor visitor) {
+            double centerX = bounds.getX() + bounds.getWidth() / 2;
+            double centerY = bounds.getY() + bounds.getHeight() / 2;
+            for (int zoom = aggregateFromZoom; zoom <= maxZoom; zoom++) {
+                double size = TileVersions.tileSize(zoom);
+                long tileX = (long) Math.floor(centerX / size);
+                long tileY = (long) Math.floor(centerY / size);
+                double cellSize = size / gridSize;
+                int cellX = (int) Math.min(gridSize - 1, Math.floor((centerX - tileX * size) / cellSize));
+                int cellY = (int) Math.min(gridSize - 1, Math.floor((centerY - tileY * size) / cellSize));
+                visitor.visit(new TileVersions.TileKey(zoom, tileX, tileY), cellY * gridSize + cellX);
+            }
+        }
+    }
+
+    // Whether bounds touch a tile, by the same rule as the per-tile buckets
+    private static boolean touches(ShapeBounds bounds, TileVersions.TileKey tile) {
+        double size = TileVersions.tileSize(tile.zoom());
+        return Math.floor(bounds.getX() / size) <= tile.x()
+                && Math.floor((bounds.getX() + bounds.getWidth()) / size) >= tile.x()
+                && Math.floor(bounds.getY() / size) <= tile.y()
+                && Math.floor((bounds.getY() + bounds.getHeight()) / size) >= tile.y();
+    }
+
+    private static boolean intersects(ShapeBounds bounds, ShapeBounds region) {
+        return bounds.getX() <= region.getX() + region.getWidth() && bounds.getX() + bounds.getWidth() >= region.getX()
+                && bounds.getY() <= region.getY() + region.getHeight() && bounds.getY() + bounds.getHeight() >= region.getY();
+    }
+
+    private static boolean isEmpty(int[] counts) {
+        for (int count : counts) {
+            if (count > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private interface CellVisitor {
+        void visit(TileVersions.TileKey tile, int cell);
+    }
+}
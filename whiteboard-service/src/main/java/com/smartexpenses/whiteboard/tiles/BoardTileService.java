@@ -0,0 +1,151 @@
+package com.smartexpenses.whiteboard.tiles;
+
+import com.smartexpenses.whiteboard.dto.BoardTileResponse;
+import com.smartexpenses.whiteboard.dto.ShapeBounds;
+import com.smartexpenses.whiteboard.exception.ResourceNotFoundException;
+import com.smartexpenses.whiteboard.exception.UnauthorizedException;
+import com.smartexpenses.whiteboard.exception.WhiteboardException;
+import com.smartexpenses.whiteboard.model.Board;
+import com.smartexpenses.whiteboard.render.BoardRenderService;
+import com.smartexpenses.whiteboard.render.TileVersions;
+import com.smartexpenses.whiteboard.repository.BoardCollaboratorRepository;
+import com.smartexpenses.whiteboard.repository.BoardRepository;
+import com.smartexpenses.whiteboard.service.BoardArchiveService;
+import com.smartexpenses.whiteboard.service.ShapeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Serves tiles of the level-of-detail pyramid: full shapes at zoom 0, simplified boxes
+ * up to aggregate-from-zoom, and per-cell counts above that. Tiles are versioned by
+ * TileVersions, the same versions the raster tiles and tile subscriptions use.
+ */
+@Service
+@Slf4j
+public class BoardTileService {
+
+    private final BoardTileIndex boardTileIndex;
+    private final TileVersions tileVersions;
+    private final ShapeService shapeService;
+    private final BoardRepository boardRepository;
+    private final BoardCollaboratorRepository collaboratorRepository;
+    private final BoardArchiveService boardArchiveService;
+    private final int maxFullShapes;
+
+    public BoardTileService(BoardTileIndex boardTileIndex,
+                            TileVersions tileVersions,
+                            ShapeService shapeService,
+                            BoardRepository boardRepository,
+                            BoardCollaboratorRepository collaboratorRepository,
+                            BoardArchiveService boardArchiveService,
+                            @Value("${whiteboard.tiles.max-full-shapes:2000}") int maxFullShapes) {
+        this.boardTileIndex = boardTileIndex;
+        this.tileVersions = tileVersions;
+        this.shapeService = shapeService;
+        this.boardRepository = boardRepository;
+        this.collaboratorRepository = collaboratorRepository;
+        this.boardArchiveService = boardArchiveService;
+        this.maxFullShapes = maxFullShapes;
+    }
+
+    public BoardTileResponse getTile(UUID boardId, int zoom, long x, long y, UUID userId) {
+        if (zoom < 0 || zoom > tileVersions.getMaxZoom()) {
+            throw new WhiteboardException("Zoom must be between 0 and " + tileVersions.getMaxZoom(),
+                    HttpStatus.BAD_REQUEST);
+        }
+        Board board = checkAccess(boardId, userId);
+        if (board.getArchivedAt() != null) {
+            boardArchiveService.restore(boardId);
+        }
+
+        TileVersions.TileKey tile = new TileVersions.TileKey(zoom, x, y);
+        // Read the version first: if the tile changes while we build it, the client refetches
+        long version = tileVersions.version(boardId, zoom, x, y);
+        double size = TileVersions.tileSize(zoom);
+
+        BoardTileResponse.BoardTileResponseBuilder response = BoardTileResponse.builder()
+                .boardId(boardId)
+                .zoom(zoom)
+                .x(x)
+                .y(y)
+                .version(version)
+                .bounds(new ShapeBounds(x * size, y * size, size, size));
+
+        if (zoom >= boardTileIndex.getAggregateFromZoom()) {
+            return response.detail(BoardTileResponse.Detail.AGGREGATED)
+                    .cells(aggregate(boardTileIndex.cellCounts(boardId, tile), x, y, size))
+                    .build();
+        }
+
+        List<BoardTileIndex.Entry> entries = boardTileIndex.shapesIn(boardId, tile);
+        if (zoom == 0 && entries.size() <= maxFullShapes) {
+            List<UUID> ids = entries.stream().map(BoardTileIndex.Entry::id).collect(Collectors.toList());
+            return response.detail(BoardTileResponse.Detail.FULL)
+                    .shapes(shapeService.getShapesInOrder(boardId, ids))
+                    .build();
+        }
+
+        // Anything smaller than a pixel of this tile is not worth sending
+        double pixel = size / BoardRenderService.TILE_PIXELS;
+        List<BoardTileResponse.TileShape> visible = new ArrayList<>();
+        int omitted = 0;
+        for (BoardTileIndex.Entry entry : entries) {
+            ShapeBounds bounds = entry.bounds();
+            if (Math.max(bounds.getWidth(), bounds.getHeight()) < pixel) {
+                omitted++;
+                continue;
+            }
+            visible.add(BoardTileResponse.TileShape.builder()
+                    .id(entry.id())
+                    .type(entry.type())
+                    .bounds(bounds)
+                    .color(entry.color())
+                    .build());
+        }
+        return response.detail(BoardTileResponse.Detail.SIMPLIFIED)
+                .simplified(visible)
+                .omitted(omitted)
+                .build();
+    }
+
+    // Helper method to turn row-major cell counts into positioned cells
+    private List<BoardTileResponse.TileCell> aggregate(int[] counts, long x, long y, double size) {
+        int grid = boardTileIndex.getGridSize();
+        double cellSize = size / grid;
+        List<BoardTileResponse.TileCell> cells = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                int cellX = i % grid;
+                int cellY = i / grid;
+                cells.add(BoardTileResponse.TileCell.builder()
+                        .bounds(new ShapeBounds(x * size + cellX * cellSize, y * size + cellY * cellSize,
+                                cellSize, cellSize))
+                        .count(counts[i])
+                        .build());
+            }
+        }
+        return cells;
+    }
+
+    // Helper method to check if user has access to board
+    private Board checkAccess(UUID boardId, UUID userId) {
+        Board board = boardRepository.findById(boardId)
+                .orElseThrow(() -> new ResourceNotFoundException("Board", boardId));
+
+        // Owner, public board, or collaborator
+        boolean allowed = board.getOwnerId().equals(userId)
+                || Boolean.TRUE.equals(board.getIsPublic())
+                || collaboratorRepository.existsByBoardIdAndUserId(boardId, userId);
+        if (!allowed) {
+            throw new UnauthorizedException("You don't have access to this board");
+        }
+        return board;
+    }
+}
@@ -0,0 +1,109 @@
+package com.smartexpenses.whiteboard.tiles;
+
+import com.smartexpenses.whiteboard.render.TileVersions;
+import com.smartexpenses.whiteboard.websocket.dto.WebSocketMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tells tile subscribers which tiles to refetch. Changes are collected per board and sent
+ * on the next flush, one TILE_INVALIDATE per tile on that tile's topic, so a burst of edits
+ * (a drag sends many) costs one frame per touched tile. Whole-board changes go to the
+ * board's tiles topic instead, and replace any per-tile changes still pending.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TileInvalidationBroadcaster implements TileVersions.Listener {
+
+    private final TileVersions tileVersions;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Key: boardId, Value: tiles not yet broadcast (mutated only inside compute)
+    private final ConcurrentMap<UUID, PendingTiles> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        tileVersions.addListener(this);
+    }
+
+    @Override
+    public void tilesChanged(UUID boardId, List<TileVersions.TileKey> tiles) {
+        pending.compute(boardId, (id, changes) -> {
+            if (changes == null) {
+                changes = new PendingTiles();
+            }
+            if (!changes.wholeBoard) {
+                changes.tiles.addAll(tiles);
+            }
+            return changes;
+        });
+    }
+
+    @Override
+    public void boardChanged(UUID boardId) {
+        pending.compute(boardId, (id, changes) -> {
+            if (changes == null) {
+                changes = new PendingTiles();
+            }
+            changes.wholeBoard = true;
+            changes.tiles.clear();
+            return changes;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.tiles.invalidate-debounce-ms:250}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (UUID boardId : pending.keySet()) {
+            PendingTiles changes = pending.remove(boardId);
+            if (changes == null) {
+                continue;
+            }
+            if (changes.wholeBoard) {
+                messagingTemplate.convertAndSend("/topic/board/" + boardId + "/tiles", invalidate(boardId, null, now));
+                log.debug("Invalidated all tiles of board {}", boardId);
+                continue;
+            }
+            for (TileVersions.TileKey tile : changes.tiles) {
+                WebSocketMessage.TileRef ref = WebSocketMessage.TileRef.builder()
+                        .zoom(tile.zoom())
+                        .x(tile.x())
+                        .y(tile.y())
+                        .version(tileVersions.version(boardId, tile.zoom(), tile.x(), tile.y()))
+                        .build();
+                messagingTemplate.convertAndSend(topic(boardId, tile), invalidate(boardId, ref, now));
+            }
+            log.debug("Invalidated {} tiles of board {}", changes.tiles.size(), boardId);
+        }
+    }
+
+    static String topic(UUID boardId, TileVersions.TileKey tile) {
+        return "/topic/board/" + boardId + "/tiles/" + tile.zoom() + "/" + tile.x() + "/" + tile.y();
+    }
+
+    private WebSocketMessage invalidate(UUID boardId, WebSocketMessage.TileRef tile, long timestamp) {
+        return WebSocketMessage.builder()
+                .type(WebSocketMessage.MessageType.TILE_INVALIDATE)
+                .boardId(boardId)
+                .tile(tile)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static final class PendingTiles {
+        private final Set<TileVersions.TileKey> tiles = new HashSet<>();
+        private boolean wholeBoard;
+    }
+}
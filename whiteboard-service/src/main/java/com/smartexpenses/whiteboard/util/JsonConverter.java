@@ -1,42 +0,0 @@
-package com.smartexpenses.whiteboard.util;
-
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.persistence.AttributeConverter;
-import jakarta.persistence.Converter;
-
-import java.util.Collections;
-import java.util.Map;
-
-@Converter
-public class JsonConverter implements AttributeConverter<Map<String, Object>, String> {
-
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-
-    @Override
-    public String convertToDatabaseColumn(Map<String, Object> attribute) {
-        if (attribute == null) {
-            return null;
-        }
-        try {
-            return objectMapper.writeValueAsString(attribute);
-        } catch (JsonProcessingException e) {
-            throw new IllegalArgumentException("Error converting map to JSON", e);
-        }
-    }
-
-    @Override
-    public Map<String, Object> convertToEntityAttribute(String dbData) {
-        if (dbData == null || dbData.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        try {
-            return objectMapper.readValue(dbData, new TypeReference<Map<String, Object>>() {});
-        } catch (Exception e) {
-            // Log error but don't crash, return empty map so we can at least see other data
-            System.err.println("Error converting JSON to map: " + e.getMessage());
-            return Collections.emptyMap();
-        }
-    }
-}
@@ -0,0 +1,131 @@
+package com.smartexpenses.whiteboard.util;
+
+/**
+ * Fractional layer keys: base-62 strings that sort lexicographically (byte order)
+ * in stacking order. A key can always be generated between any two keys, so a shape
+ * is moved by rewriting its own key only.
+ * Keys never end in the lowest digit '0', which keeps "before" always possible.
+ */
+public final class LayerKeys {
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final int MAX_LENGTH = 64; // shapes.layer_key
+
+    /**
+     * Key for the first shape on an empty board (middle of the key space)
+     */
+    public static final String INITIAL = "U";
+
+    private LayerKeys() {
+    }
+
+    /**
+     * Key that sorts strictly between lower and upper
+     * @param lower exclusive lower bound, or null for the bottom of the stack
+     * @param upper exclusive upper bound, or null for the top of the stack
+     */
+    public static String between(String lower, String upper) {
+        String a = lower != null ? lower : "";
+        if (upper != null && a.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("Layer key " + lower + " is not below " + upper);
+        }
+        validate(a);
+        if (upper != null) {
+            validate(upper);
+        }
+        return midpoint(a, upper);
+    }
+
+    /**
+     * Key above the given one, for bring-to-front and appends
+     * Bumps the first digit that can still grow, so repeated calls lengthen the key by
+     * one character per ~60 calls instead of one per ~6 with plain midpoints.
+     */
+    public static String after(String key) {
+        if (key == null) {
+            return INITIAL;
+        }
+        validate(key);
+        for (int i = 0; i < key.length(); i++) {
+            int digit = DIGITS.indexOf(key.charAt(i));
+            if (digit < BASE - 1) {
+                return key.substring(0, i) + DIGITS.charAt(digit + 1);
+            }
+        }
+        return key + DIGITS.charAt(1);
+    }
+
+    /**
+     * Key below the given one, for send-to-back
+     */
+    public static String before(String key) {
+        if (key == null) {
+            return INITIAL;
+        }
+        validate(key);
+        for (int i = 0; i < key.length(); i++) {
+            int digit = DIGITS.indexOf(key.charAt(i));
+            if (digit > 1) {
+                return key.substring(0, i) + DIGITS.charAt(digit - 1);
+            }
+        }
+        // Only '0' and '1' digits: lower the last digit and leave room above it
+        return key.substring(0, key.length() - 1) + DIGITS.charAt(0) + DIGITS.charAt(BASE - 1);
+    }
+
+    /**
+     * True if the key could have been generated here (for keys sent by clients)
+     */
+    public static boolean isValid(String key) {
+        if (key == null || key.isEmpty() || key.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return key.charAt(key.length() - 1) != DIGITS.charAt(0);
+    }
+
+    // Midpoint of a (possibly empty) and b (null = end of the key space); a < b
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            // Keep the common prefix, recurse on the rest (a is padded with '0')
+            int n = 0;
+            while (n < b.length() && charAt(a, n) == b.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return b.substring(0, n) + midpoint(a.length() > n ? a.substring(n) : "", b.substring(n));
+            }
+        }
+
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : BASE;
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB + 1) / 2));
+        }
+        // Adjacent digits: take b's first digit if b continues, otherwise extend a
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.isEmpty() ? "" : a.substring(1), null);
+    }
+
+    private static char charAt(String value, int index) {
+        return index < value.length() ? value.charAt(index) : DIGITS.charAt(0);
+    }
+
+    private static void validate(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) {
+                throw new IllegalArgumentException("Invalid layer key: " + key);
+            }
+        }
+        if (!key.isEmpty() && key.charAt(key.length() - 1) == DIGITS.charAt(0)) {
+            throw new IllegalArgumentException("Layer key must not end with '0': " + key);
+        }
+    }
+}
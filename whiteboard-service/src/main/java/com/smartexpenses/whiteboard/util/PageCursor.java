@@ -0,0 +1,46 @@
+package com.smartexpenses.whiteboard.util;
+
+import com.smartexpenses.whiteboard.exception.WhiteboardException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursors: the sort key of the last item on a page, base64url-encoded.
+ * Clients pass it back unchanged to fetch the next page.
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {
+    }
+
+    public static String encode(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param expectedParts number of sort-key parts the caller encoded
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length == expectedParts) {
+                return parts;
+            }
+        } catch (IllegalArgumentException e) {
+            // Fall through to the error below
+        }
+        throw new WhiteboardException("Invalid page cursor", HttpStatus.BAD_REQUEST);
+    }
+}
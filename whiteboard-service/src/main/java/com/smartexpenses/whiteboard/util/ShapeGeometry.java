@@ -0,0 +1,88 @@
+package com.smartexpenses.whiteboard.util;
+
+import com.smartexpenses.whiteboard.dto.ShapeBounds;
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounding boxes from stored shape data, using the same field conventions and
+ * defaults as the canvas: x/y is the top-left corner, except circles (centre)
+ * and lines/arrows (x1/y1 to x2/y2). Pen points are relative to x/y.
+ */
+public final class ShapeGeometry {
+
+    // Rough glyph metrics for text without a stored width
+    private static final double CHAR_WIDTH_RATIO = 0.6;
+    private static final double LINE_HEIGHT_RATIO = 1.2;
+
+    private ShapeGeometry() {
+    }
+
+    public static ShapeBounds bounds(ShapeType type, Map<String, Object> data) {
+        if (data == null) {
+            data = Map.of();
+        }
+        double x = number(data, "x", 0);
+        double y = number(data, "y", 0);
+
+        switch (type) {
+            case CIRCLE: {
+                double radius = number(data, "radius", 50);
+                return new ShapeBounds(x - radius, y - radius, radius * 2, radius * 2);
+            }
+            case LINE:
+            case ARROW: {
+                double x1 = number(data, "x1", 0);
+                double y1 = number(data, "y1", 0);
+                double x2 = number(data, "x2", 100);
+                double y2 = number(data, "y2", 100);
+                return new ShapeBounds(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x2 - x1), Math.abs(y2 - y1));
+            }
+            case TEXT: {
+                double fontSize = number(data, "fontSize", 20);
+                String[] lines = String.valueOf(data.getOrDefault("text", "")).split("\n", -1);
+                int longest = 0;
+                for (String line : lines) {
+                    longest = Math.max(longest, line.length());
+                }
+                double width = number(data, "width", longest * fontSize * CHAR_WIDTH_RATIO);
+                return new ShapeBounds(x, y, width, lines.length * fontSize * LINE_HEIGHT_RATIO);
+            }
+            case STICKY_NOTE:
+                return new ShapeBounds(x, y, number(data, "width", 200), number(data, "height", 150));
+            case PEN:
+                return penBounds(x, y, data.get("path"));
+            default:
+                return new ShapeBounds(x, y, number(data, "width", 100), number(data, "height", 100));
+        }
+    }
+
+    // Path is a list of [x, y] points; the stroke is drawn with its top-left at (x, y)
+    private static ShapeBounds penBounds(double x, double y, Object path) {
+        if (!(path instanceof List<?> points) || points.isEmpty()) {
+            return new ShapeBounds(x, y, 0, 0);
+        }
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (Object point : points) {
+            if (point instanceof List<?> pair && pair.size() >= 2
+                    && pair.get(0) instanceof Number px && pair.get(1) instanceof Number py) {
+                minX = Math.min(minX, px.doubleValue());
+                maxX = Math.max(maxX, px.doubleValue());
+                minY = Math.min(minY, py.doubleValue());
+                maxY = Math.max(maxY, py.doubleValue());
+            }
+        }
+        if (minX > maxX) {
+            return new ShapeBounds(x, y, 0, 0);
+        }
+        return new ShapeBounds(x, y, maxX - minX, maxY - minY);
+    }
+
+    private static double number(Map<String, Object> data, String key, double fallback) {
+        Object value = data.get(key);
+        return value instanceof Number n ? n.doubleValue() : fallback;
+    }
+}
@@ -0,0 +1,182 @@
+package com.smartexpenses.whiteboard.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Micrometer meters for the STOMP hot paths: handling latency per inbound message type, and
+ * the payload size and fan-out of every broadcast.
+ * Board ids are never tags. Broadcasts are tagged by topic kind (shapes, cursors, ...), so the
+ * number of series stays the same however many boards are open.
+ */
+@Component
+public class RealtimeMetrics {
+
+    private static final Set<String> BOARD_TOPICS = Set.of("shapes", "cursors", "presence", "tiles");
+
+    private final MeterRegistry meterRegistry;
+    private final Meter.MeterProvider<Timer> messageTimers;
+    private final Meter.MeterProvider<DistributionSummary> fanOut;
+    private final Meter.MeterProvider<DistributionSummary> broadcastBytes;
+    private final Counter deliveredBytes;
+
+    // The simple broker hands a broadcast to every subscriber on the publishing thread
+    private final ThreadLocal<Broadcast> currentBroadcast = new ThreadLocal<>();
+
+    public RealtimeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.messageTimers = Timer.builder("whiteboard.ws.message")
+                .description("Time from receiving a STOMP message until it is handled, board lane wait included")
+                .withRegistry(meterRegistry);
+        this.fanOut = DistributionSummary.builder("whiteboard.ws.broadcast.fanout")
+                .description("Sessions a broadcast was delivered to")
+                .baseUnit("sessions")
+                .withRegistry(meterRegistry);
+        this.broadcastBytes = DistributionSummary.builder("whiteboard.ws.broadcast.payload")
+                .description("Payload size of a broadcast, per delivery")
+                .baseUnit("bytes")
+                .withRegistry(meterRegistry);
+        this.deliveredBytes = Counter.builder("whiteboard.ws.delivered")
+                .description("Payload bytes sent to clients, every delivery counted")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start timing an inbound message; stop the returned handle once it is fully handled
+     */
+    public Handling startHandling(String type) {
+        return new Handling(type, Timer.start(meterRegistry));
+    }
+
+    /**
+     * Interceptor for the broker channel: measures each message published to a destination
+     */
+    public ChannelInterceptor brokerChannelInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                // User destinations are re-published to their session queues while this one is sent
+                if (destination != null && currentBroadcast.get() == null) {
+                    currentBroadcast.set(new Broadcast(message, topicOf(destination)));
+                }
+                return message;
+            }
+
+            @Override
+            public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+                Broadcast broadcast = currentBroadcast.get();
+                if (broadcast == null || broadcast.message != message) {
+                    return;
+                }
+                currentBroadcast.remove();
+                fanOut.withTags("topic", broadcast.topic).record(broadcast.deliveries);
+                broadcastBytes.withTags("topic", broadcast.topic).record(payloadSize(message));
+            }
+        };
+    }
+
+    /**
+     * Interceptor for the client outbound channel: counts deliveries to sessions
+     */
+    public ChannelInterceptor clientOutboundChannelInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    deliveredBytes.increment(payloadSize(message));
+                    Broadcast broadcast = currentBroadcast.get();
+                    if (broadcast != null) {
+                        broadcast.deliveries++;
+                    }
+                }
+                return message;
+            }
+        };
+    }
+
+    // Helper method to reduce a destination to a bounded tag value
+    // Example: "/topic/board/{boardId}/shapes" -> "shapes", "/user/{userId}/queue/errors" -> "user"
+    static String topicOf(String destination) {
+        if (destination.startsWith("/user/")) {
+            return "user";
+        }
+        if (destination.startsWith("/topic/board/")) {
+            String[] parts = destination.split("/");
+            if (parts.length >= 5 && BOARD_TOPICS.contains(parts[4])) {
+                return parts[4];
+            }
+        }
+        return "other";
+    }
+
+    private static int payloadSize(Message<?> message) {
+        return message.getPayload() instanceof byte[] bytes ? bytes.length : 0;
+    }
+
+    /**
+     * Timing of one inbound message; outcome is success unless set otherwise
+     */
+    public final class Handling {
+
+        private final String type;
+        private final Timer.Sample sample;
+        private String outcome = "success";
+
+        private Handling(String type, Timer.Sample sample) {
+            this.type = type;
+            this.sample = sample;
+        }
+
+        /**
+         * success, conflict, rejected (board lane full) or error
+         */
+        public void outcome(String outcome) {
+            this.outcome = outcome;
+        }
+
+        public void stop() {
+            sample.stop(messageTimers.withTags("type", type, "outcome", outcome));
+        }
+
+        /**
+         * Run the message's work and stop the timer; if the work throws, the outcome is error
+         * and the exception goes to onError
+         */
+        public void run(Consumer<Handling> work, Consumer<Exception> onError) {
+            try {
+                work.accept(this);
+            } catch (Exception e) {
+                outcome("error");
+                onError.accept(e);
+            } finally {
+                stop();
+            }
+        }
+    }
+
+    private static final class Broadcast {
+
+        private final Message<?> message;
+        private final String topic;
+        private int deliveries;
+
+        private Broadcast(Message<?> message, String topic) {
+            this.message = message;
+            this.topic = topic;
+        }
+    }
+}
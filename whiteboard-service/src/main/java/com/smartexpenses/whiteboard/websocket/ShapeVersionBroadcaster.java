@@ -0,0 +1,42 @@
+package com.smartexpenses.whiteboard.websocket;
+
+import com.smartexpenses.whiteboard.crdt.BoardDocumentStore;
+import com.smartexpenses.whiteboard.websocket.dto.WebSocketMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends the row versions written by a CRDT flush to the board's subscribers, one
+ * SHAPE_VERSIONS frame per flush, so clients base their next conditional update on them
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShapeVersionBroadcaster implements BoardDocumentStore.Listener {
+
+    private final BoardDocumentStore boardDocumentStore;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @PostConstruct
+    public void init() {
+        boardDocumentStore.addListener(this);
+    }
+
+    @Override
+    public void shapesFlushed(UUID boardId, Map<UUID, Long> versions) {
+        WebSocketMessage message = WebSocketMessage.builder()
+                .type(WebSocketMessage.MessageType.SHAPE_VERSIONS)
+                .boardId(boardId)
+                .versions(versions)
+                .timestamp(System.currentTimeMillis())
+                .build();
+        messagingTemplate.convertAndSend("/topic/board/" + boardId + "/shapes", message);
+        log.debug("Sent {} shape versions of board {}", versions.size(), boardId);
+    }
+}
@@ -1,6 +1,8 @@
 package com.smartexpenses.whiteboard.websocket;
 
+import com.smartexpenses.whiteboard.execution.InstrumentedExecutor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -14,11 +16,32 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final InstrumentedExecutor inboundExecutor;
+    private final RealtimeMetrics realtimeMetrics;
+
+    public WebSocketConfig(InstrumentedExecutor inboundExecutor, RealtimeMetrics realtimeMetrics) {
+        this.inboundExecutor = inboundExecutor;
+        this.realtimeMetrics = realtimeMetrics;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Inbound messages run on the executor chosen by whiteboard.execution.mode (see ExecutionConfig)
+        registration.executor(inboundExecutor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Counts deliveries to sessions (broadcast fan-out and bytes, see RealtimeMetrics)
+        registration.interceptors(realtimeMetrics.clientOutboundChannelInterceptor());
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple in-memory message broker to carry messages back to clients
-        // Messages with prefix "/topic" are routed to subscribers
-        config.enableSimpleBroker("/topic");
+        // Messages with prefix "/topic" are routed to subscribers, "/queue" carries per-user replies
+        config.enableSimpleBroker("/topic", "/queue");
+        config.configureBrokerChannel().interceptors(realtimeMetrics.brokerChannelInterceptor());
         
         // Messages with prefix "/app" are routed to @MessageMapping methods
         config.setApplicationDestinationPrefixes("/app");
@@ -27,6 +50,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Register STOMP endpoint - clients connect to this
+        // Keep each session's messages in the order they were received, whatever the executor
+        registry.setPreserveReceiveOrder(true);
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*") // Allow all origins (in production, restrict to your frontend domain)
                 .withSockJS(); // Enable SockJS fallback options for browsers that don't support WebSocket
@@ -1,30 +1,54 @@
 package com.smartexpenses.whiteboard.websocket;
 
+import com.smartexpenses.whiteboard.crdt.BoardDocumentStore;
+import com.smartexpenses.whiteboard.crdt.ShapeDocument;
+import com.smartexpenses.whiteboard.crdt.ShapeOp;
+import com.smartexpenses.whiteboard.datasource.ReadYourWrites;
+import com.smartexpenses.whiteboard.dto.BoardPresenceResponse;
 import com.smartexpenses.whiteboard.dto.CreateShapeRequest;
+import com.smartexpenses.whiteboard.dto.ShapeBounds;
+import com.smartexpenses.whiteboard.dto.ShapeResponse;
 import com.smartexpenses.whiteboard.dto.UpdateShapeRequest;
 import com.smartexpenses.whiteboard.exception.ResourceNotFoundException;
+import com.smartexpenses.whiteboard.exception.ShapeConflictException;
 import com.smartexpenses.whiteboard.exception.UnauthorizedException;
+import com.smartexpenses.whiteboard.exception.WhiteboardException;
+import com.smartexpenses.whiteboard.execution.BoardLaneExecutor;
 import com.smartexpenses.whiteboard.model.Board;
 import com.smartexpenses.whiteboard.model.Shape;
 import com.smartexpenses.whiteboard.model.enums.CollaboratorRole;
+import com.smartexpenses.whiteboard.render.TileVersions;
 import com.smartexpenses.whiteboard.repository.BoardCollaboratorRepository;
 import com.smartexpenses.whiteboard.repository.BoardRepository;
 import com.smartexpenses.whiteboard.repository.ShapeRepository;
 import com.smartexpenses.whiteboard.security.JwtService;
+import com.smartexpenses.whiteboard.service.BoardActivityTracker;
+import com.smartexpenses.whiteboard.service.LayerStackIndex;
+import com.smartexpenses.whiteboard.service.PresenceService;
 import com.smartexpenses.whiteboard.service.ShapeService;
+import com.smartexpenses.whiteboard.tiles.BoardTileIndex;
+import com.smartexpenses.whiteboard.util.LayerKeys;
+import com.smartexpenses.whiteboard.util.ShapeGeometry;
 import com.smartexpenses.whiteboard.websocket.dto.WebSocketMessage;
 import com.smartexpenses.whiteboard.websocket.WebSocketSecurityInterceptor.WebSocketUserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 /**
  * WebSocket controller for real-time collaboration
@@ -42,6 +66,15 @@ public class WebSocketController {
     private final BoardCollaboratorRepository collaboratorRepository;
     private final JwtService jwtService;
     private final WebSocketEventListener webSocketEventListener;
+    private final PresenceService presenceService;
+    private final BoardLaneExecutor boardLaneExecutor;
+    private final BoardDocumentStore boardDocumentStore;
+    private final BoardActivityTracker boardActivityTracker;
+    private final TileVersions tileVersions;
+    private final BoardTileIndex boardTileIndex;
+    private final LayerStackIndex layerStackIndex;
+    private final ReadYourWrites readYourWrites;
+    private final RealtimeMetrics realtimeMetrics;
 
     /**
      * Handle shape creation via WebSocket
@@ -49,13 +82,15 @@ public class WebSocketController {
      * Broadcasts to: /topic/board/{boardId}/shapes
      */
     @MessageMapping("/shape/create")
-    public void createShape(@Payload WebSocketMessage message, Principal principal) {
+    public void createShape(@Payload WebSocketMessage message, Principal principal,
+                            SimpMessageHeaderAccessor headerAccessor) {
         WebSocketUserPrincipal user = (WebSocketUserPrincipal) principal;
         UUID userId = user.getUserId();
+        String sessionId = headerAccessor.getSessionId();
         
         log.debug("WebSocket shape create: boardId={}, userId={}", message.getBoardId(), userId);
 
-        try {
+        handleOnBoardLane(message.getBoardId(), "shape.create", userId, "create shape", handling -> {
             // Validate board access
             validateBoardAccess(message.getBoardId(), userId, true);
 
@@ -63,6 +98,7 @@ public class WebSocketController {
             CreateShapeRequest request = CreateShapeRequest.builder()
                     .boardId(message.getBoardId())
                     .type(message.getShapeType())
+                    .parentId(message.getParentId())
                     .data(message.getShapeData())
                     .layerOrder(message.getLayerOrder())
                     .build();
@@ -74,25 +110,25 @@ public class WebSocketController {
                     .type(WebSocketMessage.MessageType.SHAPE_CREATE)
                     .boardId(message.getBoardId())
                     .shapeId(shapeResponse.getId())
+                    .parentId(shapeResponse.getParentId())
                     .shapeType(shapeResponse.getType())
                     .shapeData(shapeResponse.getData())
                     .layerOrder(shapeResponse.getLayerOrder())
+                    .layerKey(shapeResponse.getLayerKey())
+                    .version(shapeResponse.getVersion())
                     .userId(userId)
                     .userEmail(user.getEmail())
                     .timestamp(System.currentTimeMillis())
                     .build();
 
             // Notify user joined board (for presence tracking)
-            webSocketEventListener.addUserToBoard(message.getBoardId(), userId, user.getEmail());
+            webSocketEventListener.addUserToBoard(message.getBoardId(), sessionId,
+                    userId, user.getEmail());
 
             // Broadcast to all clients subscribed to this board
             messagingTemplate.convertAndSend("/topic/board/" + message.getBoardId() + "/shapes", broadcastMessage);
             log.info("Shape created and broadcasted: {} on board: {}", shapeResponse.getId(), message.getBoardId());
-
-        } catch (Exception e) {
-            log.error("CRITICAL ERROR creating shape via WebSocket: ", e); // Print stack trace
-            sendErrorToUser(userId, "Failed to create shape: " + e.getMessage());
-        }
+        });
     }
 
     /**
@@ -108,31 +144,84 @@ public class WebSocketController {
         log.debug("WebSocket shape update: shapeId={}, boardId={}, userId={}", 
                 message.getShapeId(), message.getBoardId(), userId);
 
-        try {
+        handleOnBoardLane(message.getBoardId(), "shape.update", userId, "update shape", handling -> {
+            try {
+                // Validate board access and edit permission
+                validateBoardAccess(message.getBoardId(), userId, true);
+
+                // Update shape via service
+                UpdateShapeRequest request = UpdateShapeRequest.builder()
+                        .data(message.getShapeData())
+                        .layerOrder(message.getLayerOrder())
+                        .parentId(message.getParentId())
+                        .version(message.getVersion())
+                        .patch(message.getPatch())
+                        .build();
+
+                var shapeResponse = shapeService.updateShape(
+                        message.getShapeId(), 
+                        message.getBoardId(), 
+                        request, 
+                        userId
+                );
+
+                // Build broadcast message
+                WebSocketMessage broadcastMessage = WebSocketMessage.builder()
+                        .type(WebSocketMessage.MessageType.SHAPE_UPDATE)
+                        .boardId(message.getBoardId())
+                        .shapeId(shapeResponse.getId())
+                        .parentId(shapeResponse.getParentId())
+                        .shapeType(shapeResponse.getType())
+                        .shapeData(shapeResponse.getData())
+                        .layerOrder(shapeResponse.getLayerOrder())
+                        .layerKey(shapeResponse.getLayerKey())
+                        .version(shapeResponse.getVersion())
+                        .userId(userId)
+                        .userEmail(user.getEmail())
+                        .timestamp(System.currentTimeMillis())
+                        .build();
+
+                // Broadcast to all clients
+                messagingTemplate.convertAndSend("/topic/board/" + message.getBoardId() + "/shapes", broadcastMessage);
+                log.info("Shape updated and broadcasted: {} on board: {}", message.getShapeId(), message.getBoardId());
+
+            } catch (ShapeConflictException e) {
+                // Compact reply to the writer only, with the state it lost against
+                handling.outcome("conflict");
+                sendConflictToUser(userId, message.getBoardId(), e.getCurrent().getId(), e.getCurrent());
+            } catch (ObjectOptimisticLockingFailureException e) {
+                // Lost a race with a write from another node; the client refetches the shape
+                handling.outcome("conflict");
+                sendConflictToUser(userId, message.getBoardId(), message.getShapeId(), null);
+            }
+        });
+    }
+
+    /**
+     * Handle shape deletion via WebSocket
+     * Client sends: /app/shape/delete
+     * Broadcasts to: /topic/board/{boardId}/shapes
+     */
+    @MessageMapping("/shape/delete")
+    public void deleteShape(@Payload WebSocketMessage message, Principal principal) {
+        WebSocketUserPrincipal user = (WebSocketUserPrincipal) principal;
+        UUID userId = user.getUserId();
+        
+        log.debug("WebSocket shape delete: shapeId={}, boardId={}, userId={}", 
+                message.getShapeId(), message.getBoardId(), userId);
+
+        handleOnBoardLane(message.getBoardId(), "shape.delete", userId, "delete shape", handling -> {
             // Validate board access and edit permission
             validateBoardAccess(message.getBoardId(), userId, true);
 
-            // Update shape via service
-            UpdateShapeRequest request = UpdateShapeRequest.builder()
-                    .data(message.getShapeData())
-                    .layerOrder(message.getLayerOrder())
-                    .build();
-
-            var shapeResponse = shapeService.updateShape(
-                    message.getShapeId(), 
-                    message.getBoardId(), 
-                    request, 
-                    userId
-            );
+            // Delete shape via service
+            shapeService.deleteShape(message.getShapeId(), message.getBoardId(), userId);
 
             // Build broadcast message
             WebSocketMessage broadcastMessage = WebSocketMessage.builder()
-                    .type(WebSocketMessage.MessageType.SHAPE_UPDATE)
+                    .type(WebSocketMessage.MessageType.SHAPE_DELETE)
                     .boardId(message.getBoardId())
-                    .shapeId(shapeResponse.getId())
-                    .shapeType(shapeResponse.getType())
-                    .shapeData(shapeResponse.getData())
-                    .layerOrder(shapeResponse.getLayerOrder())
+                    .shapeId(message.getShapeId())
                     .userId(userId)
                     .userEmail(user.getEmail())
                     .timestamp(System.currentTimeMillis())
@@ -140,52 +229,141 @@ public class WebSocketController {
 
             // Broadcast to all clients
             messagingTemplate.convertAndSend("/topic/board/" + message.getBoardId() + "/shapes", broadcastMessage);
-            log.info("Shape updated and broadcasted: {} on board: {}", message.getShapeId(), message.getBoardId());
+            log.info("Shape deleted and broadcasted: {} on board: {}", message.getShapeId(), message.getBoardId());
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("CRITICAL ERROR updating shape via WebSocket: ", e);
-            sendErrorToUser(userId, "Failed to update shape: " + e.getMessage());
-        }
+    /**
+     * Bring a shape to the front via WebSocket
+     * Client sends: /app/shape/front
+     * Broadcasts to: /topic/board/{boardId}/shapes (SHAPE_UPDATE with the new layerKey)
+     */
+    @MessageMapping("/shape/front")
+    public void bringShapeToFront(@Payload WebSocketMessage message, Principal principal) {
+        reorderShape(message, (WebSocketUserPrincipal) principal, true);
     }
 
     /**
-     * Handle shape deletion via WebSocket
-     * Client sends: /app/shape/delete
-     * Broadcasts to: /topic/board/{boardId}/shapes
+     * Send a shape to the back via WebSocket
+     * Client sends: /app/shape/back
+     * Broadcasts to: /topic/board/{boardId}/shapes (SHAPE_UPDATE with the new layerKey)
      */
-    @MessageMapping("/shape/delete")
-    public void deleteShape(@Payload WebSocketMessage message, Principal principal) {
+    @MessageMapping("/shape/back")
+    public void sendShapeToBack(@Payload WebSocketMessage message, Principal principal) {
+        reorderShape(message, (WebSocketUserPrincipal) principal, false);
+    }
+
+    /**
+     * Handle a CRDT shape op (SHAPE_UPDATE or SHAPE_DELETE) via WebSocket
+     * Client sends: /app/shape/op
+     * Broadcasts to: /topic/board/{boardId}/shapes (only the fields the op won)
+     * Ops merge lock-free into the in-memory board document, so they skip the board lanes.
+     * A reorder sends the new fractional layerKey, picked between its new neighbours' keys.
+     */
+    @MessageMapping("/shape/op")
+    public void applyShapeOp(@Payload WebSocketMessage message, Principal principal) {
         WebSocketUserPrincipal user = (WebSocketUserPrincipal) principal;
         UUID userId = user.getUserId();
-        
-        log.debug("WebSocket shape delete: shapeId={}, boardId={}, userId={}", 
-                message.getShapeId(), message.getBoardId(), userId);
 
-        try {
+        log.debug("WebSocket shape op: type={}, shapeId={}, boardId={}, userId={}",
+                message.getType(), message.getShapeId(), message.getBoardId(), userId);
+
+        handle("shape.op", userId, "apply shape op", handling -> {
             // Validate board access and edit permission
             validateBoardAccess(message.getBoardId(), userId, true);
+            if (message.getLayerOrder() != null) {
+                throw new WhiteboardException("Shape ops reorder by layerKey", HttpStatus.BAD_REQUEST);
+            }
+            if (message.getLayerKey() != null && !LayerKeys.isValid(message.getLayerKey())) {
+                throw new WhiteboardException("Invalid layerKey", HttpStatus.BAD_REQUEST);
+            }
 
-            // Delete shape via service
-            shapeService.deleteShape(message.getShapeId(), message.getBoardId(), userId);
+            boolean delete = message.getType() == WebSocketMessage.MessageType.SHAPE_DELETE;
+            // Extent before the op, known if the board's tile index is loaded
+            ShapeBounds boundsBefore = boardTileIndex.boundsOf(message.getBoardId(), message.getShapeId());
+            BoardDocumentStore.AppliedOp applied = boardDocumentStore.applyLocal(
+                    message.getBoardId(),
+                    message.getShapeId(),
+                    delete ? ShapeOp.Kind.DELETE : ShapeOp.Kind.UPDATE,
+                    message.getShapeData(),
+                    message.getLayerKey()
+            );
+            if (!applied.changed()) {
+                return; // Lost every register to a newer op, nothing to tell anyone
+            }
+            ShapeBounds boundsAfter = null;
+            if (applied.deleted()) {
+                boardActivityTracker.shapeDeleted(message.getBoardId());
+                boardTileIndex.shapeRemoved(message.getBoardId(), message.getShapeId());
+            } else {
+                boardActivityTracker.shapesChanged(message.getBoardId(), 1);
+                ShapeDocument shape = boardDocumentStore.getDocument(message.getBoardId()).getShape(message.getShapeId());
+                if (shape != null) {
+                    Map<String, Object> data = shape.materialize();
+                    boundsAfter = ShapeGeometry.bounds(shape.getType(), data);
+                    if (applied.layerKey() != null) {
+                        layerStackIndex.include(message.getBoardId(), applied.layerKey());
+                        boardTileIndex.shapeChanged(message.getBoardId(), message.getShapeId(), shape.getType(), data,
+                                applied.layerKey());
+                    } else {
+                        boardTileIndex.shapeEdited(message.getBoardId(), message.getShapeId(), shape.getType(), data);
+                    }
+                }
+            }
+            if (boundsBefore != null) {
+                tileVersions.markDirty(message.getBoardId(), boundsBefore, boundsAfter);
+            } else {
+                // Previous extent unknown (board not indexed here): invalidate everything
+                tileVersions.markAllDirty(message.getBoardId());
+            }
 
-            // Build broadcast message
             WebSocketMessage broadcastMessage = WebSocketMessage.builder()
-                    .type(WebSocketMessage.MessageType.SHAPE_DELETE)
+                    .type(applied.deleted() ? WebSocketMessage.MessageType.SHAPE_DELETE
+                            : WebSocketMessage.MessageType.SHAPE_UPDATE)
                     .boardId(message.getBoardId())
                     .shapeId(message.getShapeId())
+                    .shapeData(applied.deleted() ? null : applied.fields())
+                    .layerKey(applied.layerKey())
+                    .clock(applied.op().timestamp().toString())
                     .userId(userId)
                     .userEmail(user.getEmail())
                     .timestamp(System.currentTimeMillis())
                     .build();
 
-            // Broadcast to all clients
             messagingTemplate.convertAndSend("/topic/board/" + message.getBoardId() + "/shapes", broadcastMessage);
-            log.info("Shape deleted and broadcasted: {} on board: {}", message.getShapeId(), message.getBoardId());
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("CRITICAL ERROR deleting shape via WebSocket: ", e);
-            sendErrorToUser(userId, "Failed to delete shape: " + e.getMessage());
-        }
+    /**
+     * Move a group/frame and everything inside it
+     * Client sends: /app/group/transform
+     * Broadcasts to: /topic/board/{boardId}/shapes as a single GROUP_TRANSFORM frame
+     */
+    @MessageMapping("/group/transform")
+    public void transformGroup(@Payload WebSocketMessage message, Principal principal) {
+        WebSocketUserPrincipal user = (WebSocketUserPrincipal) principal;
+        UUID userId = user.getUserId();
+        WebSocketMessage.Transform transform = message.getTransform();
+        handleOnBoardLane(message.getBoardId(), "group.transform", userId, "move group", handling -> {
+            if (transform == null || transform.getDx() == null || transform.getDy() == null) {
+                throw new WhiteboardException("transform is required", HttpStatus.BAD_REQUEST);
+            }
+            var result = shapeService.translateGroup(message.getShapeId(), message.getBoardId(),
+                    transform.getDx(), transform.getDy(), userId);
+
+            WebSocketMessage broadcastMessage = WebSocketMessage.builder()
+                    .type(WebSocketMessage.MessageType.GROUP_TRANSFORM)
+                    .boardId(message.getBoardId())
+                    .shapeId(result.getRootId())
+                    .shapeIds(result.getShapeIds())
+                    .transform(transform)
+                    .userId(userId)
+                    .userEmail(user.getEmail())
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+
+            messagingTemplate.convertAndSend("/topic/board/" + message.getBoardId() + "/shapes", broadcastMessage);
+        });
     }
 
     /**
@@ -200,7 +378,8 @@ public class WebSocketController {
         
         log.trace("WebSocket cursor move: boardId={}, userId={}", message.getBoardId(), userId);
 
-        try {
+        // Failures are only logged: cursor moves get no error replies
+        realtimeMetrics.startHandling("cursor.move").run(handling -> {
             // Validate board access
             validateBoardAccess(message.getBoardId(), userId, false);
 
@@ -216,15 +395,55 @@ public class WebSocketController {
 
             // Broadcast to all clients except sender (for cursor tracking)
             messagingTemplate.convertAndSend("/topic/board/" + message.getBoardId() + "/cursors", cursorMessage);
+        }, e -> log.debug("Error handling cursor move: {}", e.getMessage()));
+    }
 
-        } catch (Exception e) {
-            log.debug("Error handling cursor move: {}", e.getMessage());
-            // Don't send error for cursor moves, just log
-        }
+    /**
+     * Presence snapshot for a board, returned once to the subscriber
+     * Client subscribes to: /app/board/{boardId}/presence
+     */
+    @SubscribeMapping("/board/{boardId}/presence")
+    public BoardPresenceResponse getPresenceSnapshot(@DestinationVariable UUID boardId, Principal principal) {
+        WebSocketUserPrincipal user = (WebSocketUserPrincipal) principal;
+        validateBoardAccess(boardId, user.getUserId(), false);
+        return presenceService.snapshot(boardId);
     }
 
-    // Helper method to validate board access and edit permission
+    // Helper method to move a shape to the top or bottom of the stack and broadcast its new key
+    private void reorderShape(WebSocketMessage message, WebSocketUserPrincipal user, boolean toFront) {
+        UUID userId = user.getUserId();
+        String type = toFront ? "shape.front" : "shape.back";
+        handleOnBoardLane(message.getBoardId(), type, userId, "reorder shape", handling -> {
+            var shapeResponse = toFront
+                    ? shapeService.bringToFront(message.getShapeId(), message.getBoardId(), userId)
+                    : shapeService.sendToBack(message.getShapeId(), message.getBoardId(), userId);
+
+            WebSocketMessage broadcastMessage = WebSocketMessage.builder()
+                    .type(WebSocketMessage.MessageType.SHAPE_UPDATE)
+                    .boardId(message.getBoardId())
+                    .shapeId(shapeResponse.getId())
+                    .layerOrder(shapeResponse.getLayerOrder())
+                    .layerKey(shapeResponse.getLayerKey())
+                    .version(shapeResponse.getVersion())
+                    .userId(userId)
+                    .userEmail(user.getEmail())
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+
+            messagingTemplate.convertAndSend("/topic/board/" + message.getBoardId() + "/shapes", broadcastMessage);
+        });
+    }
+
+    // Helper method to validate board access; editors then read their own writes from the primary
     private void validateBoardAccess(UUID boardId, UUID userId, boolean requireEditPermission) {
+        checkBoardAccess(boardId, userId, requireEditPermission);
+        if (requireEditPermission) {
+            readYourWrites.recordWrite(userId); // Their next REST reads go to the primary
+        }
+    }
+
+    // Helper method to check board access and, if required, edit permission
+    private void checkBoardAccess(UUID boardId, UUID userId, boolean requireEditPermission) {
         Board board = boardRepository.findById(boardId)
                 .orElseThrow(() -> new ResourceNotFoundException("Board", boardId));
 
@@ -260,6 +479,49 @@ public class WebSocketController {
         throw new UnauthorizedException("You don't have access to this board");
     }
 
+    // Helper method to handle an inbound message on this thread: timed, failures reported to the sender
+    private void handle(String type, UUID userId, String action, Consumer<RealtimeMetrics.Handling> work) {
+        realtimeMetrics.startHandling(type).run(work, e -> reportFailure(userId, action, e));
+    }
+
+    // Helper method to handle an inbound message on the board's lane, so concurrent edits are
+    // applied and broadcast in order. Timed from when it is queued; rejected when the board is overloaded
+    private void handleOnBoardLane(UUID boardId, String type, UUID userId, String action,
+                                   Consumer<RealtimeMetrics.Handling> work) {
+        RealtimeMetrics.Handling handling = realtimeMetrics.startHandling(type);
+        try {
+            boardLaneExecutor.execute(boardId, () -> handling.run(work, e -> reportFailure(userId, action, e)));
+        } catch (RejectedExecutionException e) {
+            handling.outcome("rejected");
+            handling.stop();
+            log.warn("Board {} is overloaded, rejecting {} from user {}", boardId, action, userId);
+            sendErrorToUser(userId, "Failed to " + action + ": board is busy, please retry");
+        }
+    }
+
+    // Helper method to log a failed message and tell its sender
+    private void reportFailure(UUID userId, String action, Exception e) {
+        log.error("Failed to {} via WebSocket", action, e);
+        sendErrorToUser(userId, "Failed to " + action + ": " + e.getMessage());
+    }
+
+    // Helper method to tell a writer its update was based on a stale version
+    private void sendConflictToUser(UUID userId, UUID boardId, UUID shapeId, ShapeResponse current) {
+        WebSocketMessage.WebSocketMessageBuilder conflict = WebSocketMessage.builder()
+                .type(WebSocketMessage.MessageType.SHAPE_CONFLICT)
+                .boardId(boardId)
+                .shapeId(shapeId)
+                .timestamp(System.currentTimeMillis());
+        if (current != null) {
+            conflict.shapeType(current.getType())
+                    .shapeData(current.getData())
+                    .layerOrder(current.getLayerOrder())
+                    .version(current.getVersion());
+        }
+        log.debug("Shape conflict on {} for user {}", shapeId, userId);
+        messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/shapes", conflict.build());
+    }
+
     // Helper method to send error message to specific user
     private void sendErrorToUser(UUID userId, String errorMessage) {
         WebSocketMessage errorMessageObj = WebSocketMessage.builder()
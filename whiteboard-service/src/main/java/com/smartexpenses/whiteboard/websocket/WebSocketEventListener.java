@@ -1,21 +1,26 @@
 package com.smartexpenses.whiteboard.websocket;
 
+import com.smartexpenses.whiteboard.presence.ClusterPresence;
+import com.smartexpenses.whiteboard.presence.PresenceRegistry;
 import com.smartexpenses.whiteboard.websocket.WebSocketSecurityInterceptor.WebSocketUserPrincipal;
-import com.smartexpenses.whiteboard.websocket.dto.WebSocketMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
 import java.security.Principal;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Event listener for WebSocket connection events
@@ -26,11 +31,25 @@ import java.util.concurrent.ConcurrentMap;
 @Slf4j
 public class WebSocketEventListener {
 
-    private final SimpMessagingTemplate messagingTemplate;
-    
-    // Track active users per board
-    // Key: boardId, Value: Set of userIds
-    private final ConcurrentMap<UUID, ConcurrentHashMap<UUID, String>> activeUsersPerBoard = new ConcurrentHashMap<>();
+    private final PresenceRegistry presenceRegistry;
+    private final ClusterPresence clusterPresence;
+    private final MeterRegistry meterRegistry;
+
+    // Disconnect can be published more than once per session, so sessions are tracked by id
+    private final Set<String> connectedSessions = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("whiteboard.ws.sessions", connectedSessions, Set::size)
+                .description("Connected STOMP sessions on this node")
+                .register(meterRegistry);
+        Gauge.builder("whiteboard.ws.boards", presenceRegistry, PresenceRegistry::getActiveBoardCount)
+                .description("Boards with at least one session on this node")
+                .register(meterRegistry);
+        Gauge.builder("whiteboard.ws.board.subscribed.sessions", presenceRegistry, PresenceRegistry::getActiveSessionCount)
+                .description("Sessions on this node subscribed to at least one board")
+                .register(meterRegistry);
+    }
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
@@ -40,6 +59,7 @@ public class WebSocketEventListener {
         if (principal instanceof WebSocketUserPrincipal userPrincipal) {
             UUID userId = userPrincipal.getUserId();
             String email = userPrincipal.getEmail();
+            connectedSessions.add(headerAccessor.getSessionId());
             log.info("WebSocket connected: user={} ({})", userId, email);
         } else {
             log.warn("WebSocket connected with invalid principal");
@@ -50,6 +70,7 @@ public class WebSocketEventListener {
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
         Principal principal = headerAccessor.getUser();
+        connectedSessions.remove(event.getSessionId());
         
         if (principal instanceof WebSocketUserPrincipal userPrincipal) {
             UUID userId = userPrincipal.getUserId();
@@ -57,8 +78,11 @@ public class WebSocketEventListener {
             
             log.info("WebSocket disconnected: user={} ({})", userId, email);
             
-            // Remove user from all boards and notify others
-            removeUserFromAllBoards(userId, email);
+            // Remove this session from its boards; notify only where the user has no other tab open
+            List<UUID> leftBoards = presenceRegistry.disconnect(event.getSessionId());
+            for (UUID boardId : leftBoards) {
+                broadcastLeave(boardId, userId, email);
+            }
         } else {
             log.warn("WebSocket disconnected with invalid principal");
         }
@@ -80,7 +104,10 @@ public class WebSocketEventListener {
                 if (boardIdStr != null) {
                     try {
                         UUID boardId = UUID.fromString(boardIdStr);
-                        addUserToBoard(boardId, userId, email);
+                        if (presenceRegistry.join(headerAccessor.getSessionId(), userId, email, boardId,
+                                headerAccessor.getSubscriptionId())) {
+                            broadcastJoin(boardId, userId, email);
+                        }
                         log.debug("User subscribed to board: userId={}, boardId={}", userId, boardId);
                     } catch (IllegalArgumentException e) {
                         log.warn("Invalid board ID in subscription: {}", boardIdStr);
@@ -90,63 +117,37 @@ public class WebSocketEventListener {
         }
     }
 
-    /**
-     * Add user to board's active users and notify others
-     */
-    public void addUserToBoard(UUID boardId, UUID userId, String email) {
-        ConcurrentHashMap<UUID, String> activeUsers = activeUsersPerBoard.computeIfAbsent(boardId, k -> new ConcurrentHashMap<>());
-        boolean isNewUser = !activeUsers.containsKey(userId);
-        activeUsers.put(userId, email);
-        
-        // Notify other users on this board that a user joined (only if it's a new user)
-        if (isNewUser) {
-            WebSocketMessage joinMessage = WebSocketMessage.builder()
-                    .type(WebSocketMessage.MessageType.USER_JOIN)
-                    .boardId(boardId)
-                    .userId(userId)
-                    .userEmail(email)
-                    .timestamp(System.currentTimeMillis())
-                    .build();
-            
-            messagingTemplate.convertAndSend("/topic/board/" + boardId + "/presence", joinMessage);
-            log.info("User joined board: userId={}, boardId={}", userId, boardId);
+    @EventListener
+    public void handleWebSocketUnsubscribeListener(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        Principal principal = headerAccessor.getUser();
+
+        if (principal instanceof WebSocketUserPrincipal userPrincipal) {
+            UUID boardId = presenceRegistry.unsubscribe(headerAccessor.getSessionId(), headerAccessor.getSubscriptionId());
+            if (boardId != null) {
+                broadcastLeave(boardId, userPrincipal.getUserId(), userPrincipal.getEmail());
+            }
         }
     }
 
     /**
-     * Remove user from board's active users and notify others
+     * Add a session to board's active users and notify others if the user was not present yet
+     * Runs on a board lane, so the session may have disconnected meanwhile; the registry then ignores it
      */
-    public void removeUserFromBoard(UUID boardId, UUID userId, String email) {
-        ConcurrentHashMap<UUID, String> activeUsers = activeUsersPerBoard.get(boardId);
-        if (activeUsers != null) {
-            activeUsers.remove(userId);
-            if (activeUsers.isEmpty()) {
-                activeUsersPerBoard.remove(boardId);
-            }
+    public void addUserToBoard(UUID boardId, String sessionId, UUID userId, String email) {
+        if (presenceRegistry.join(sessionId, userId, email, boardId, null)) {
+            broadcastJoin(boardId, userId, email);
         }
-        
-        // Notify other users on this board that a user left
-        WebSocketMessage leaveMessage = WebSocketMessage.builder()
-                .type(WebSocketMessage.MessageType.USER_LEAVE)
-                .boardId(boardId)
-                .userId(userId)
-                .userEmail(email)
-                .timestamp(System.currentTimeMillis())
-                .build();
-        
-        messagingTemplate.convertAndSend("/topic/board/" + boardId + "/presence", leaveMessage);
-        log.info("User left board: userId={}, boardId={}", userId, boardId);
     }
 
-    /**
-     * Remove user from all boards (on disconnect)
-     */
-    private void removeUserFromAllBoards(UUID userId, String email) {
-        activeUsersPerBoard.forEach((boardId, users) -> {
-            if (users.containsKey(userId)) {
-                removeUserFromBoard(boardId, userId, email);
-            }
-        });
+    private void broadcastJoin(UUID boardId, UUID userId, String email) {
+        clusterPresence.localJoin(boardId, userId, email);
+        log.info("User joined board: userId={}, boardId={}", userId, boardId);
+    }
+
+    private void broadcastLeave(UUID boardId, UUID userId, String email) {
+        clusterPresence.localLeave(boardId, userId);
+        log.info("User left board: userId={}, boardId={}", userId, boardId);
     }
 
     /**
@@ -163,11 +164,4 @@ public class WebSocketEventListener {
         }
         return null;
     }
-
-    /**
-     * Get active users for a board
-     */
-    public ConcurrentHashMap<UUID, String> getActiveUsersForBoard(UUID boardId) {
-        return activeUsersPerBoard.getOrDefault(boardId, new ConcurrentHashMap<>());
-    }
 }
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -33,6 +34,21 @@ public class WebSocketMessage {
      */
     private UUID shapeId;
 
+    /**
+     * Parent group/frame of the shape (for shape events)
+     */
+    private UUID parentId;
+
+    /**
+     * Offset applied to a group (for GROUP_TRANSFORM)
+     */
+    private Transform transform;
+
+    /**
+     * Shapes affected by a group op: the group and all its descendants
+     */
+    private List<UUID> shapeIds;
+
     /**
      * Shape type (for shape events)
      */
@@ -48,6 +64,31 @@ public class WebSocketMessage {
      */
     private Integer layerOrder;
 
+    /**
+     * Fractional stacking key; shapes stack in ascending key order
+     */
+    private String layerKey;
+
+    /**
+     * Shape version: the version an update is based on, or the version after the event
+     */
+    private Long version;
+
+    /**
+     * New version per shape after a write-behind flush of CRDT ops (for SHAPE_VERSIONS)
+     */
+    private Map<UUID, Long> versions;
+
+    /**
+     * Update carries only changed fields, merged onto the current data
+     */
+    private Boolean patch;
+
+    /**
+     * Hybrid logical clock timestamp of a CRDT op (wallTime:counter:nodeId)
+     */
+    private String clock;
+
     /**
      * User ID who performed the action
      */
@@ -63,6 +104,16 @@ public class WebSocketMessage {
      */
     private CursorPosition cursor;
 
+    /**
+     * Batched presence changes (for PRESENCE_DIFF)
+     */
+    private PresenceDiff presence;
+
+    /**
+     * Tile whose content changed (for TILE_INVALIDATE); absent when the whole board changed
+     */
+    private TileRef tile;
+
     /**
      * Timestamp of the event
      */
@@ -73,13 +124,20 @@ public class WebSocketMessage {
         SHAPE_CREATE,
         SHAPE_UPDATE,
         SHAPE_DELETE,
+        SHAPE_CONFLICT, // Sent only to the writer whose update was stale
+        SHAPE_VERSIONS, // Row versions after CRDT ops were persisted
+        GROUP_TRANSFORM,
         
         // User presence
         USER_JOIN,
         USER_LEAVE,
+        PRESENCE_DIFF,
         
         // Cursor tracking
-        CURSOR_MOVE
+        CURSOR_MOVE,
+
+        // Tile streaming
+        TILE_INVALIDATE
     }
 
     @Data
@@ -90,4 +148,42 @@ public class WebSocketMessage {
         private Double x;
         private Double y;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Transform {
+        private Double dx;
+        private Double dy;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TileRef {
+        private Integer zoom;
+        private Long x;
+        private Long y;
+        private Long version;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PresenceDiff {
+        private List<PresenceUser> joined;
+        private List<PresenceUser> left;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PresenceUser {
+        private UUID userId;
+        private String email;
+    }
 }
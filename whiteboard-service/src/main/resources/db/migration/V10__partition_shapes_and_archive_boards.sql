@@ -0,0 +1,99 @@
+-- Hash-partition shapes by board_id
+-- Every hot query is per board, so each one touches a single partition and its (smaller) indexes.
+-- Migration path: the old table is renamed, rows are copied across and the old table dropped,
+-- all inside this migration's transaction (writes are blocked while it runs).
+ALTER TABLE whiteboard.shapes RENAME TO shapes_unpartitioned;
+ALTER INDEX IF EXISTS whiteboard.shapes_pkey RENAME TO shapes_unpartitioned_pkey;
+ALTER INDEX IF EXISTS whiteboard.idx_shapes_board_layer_key RENAME TO idx_shapes_unpartitioned_board_layer_key;
+ALTER INDEX IF EXISTS whiteboard.idx_shapes_parent_id RENAME TO idx_shapes_unpartitioned_parent_id;
+ALTER INDEX IF EXISTS whiteboard.idx_shapes_search_vector RENAME TO idx_shapes_unpartitioned_search_vector;
+
+CREATE TABLE whiteboard.shapes (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    board_id UUID NOT NULL REFERENCES whiteboard.boards(id) ON DELETE CASCADE,
+    parent_id UUID,
+    type VARCHAR(50) NOT NULL,
+    data JSONB NOT NULL,
+    layer_order INTEGER NOT NULL DEFAULT 0,
+    layer_key VARCHAR(64) COLLATE "C" NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_by UUID,
+    updated_by UUID,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    search_vector tsvector GENERATED ALWAYS AS (
+        CASE WHEN type IN ('TEXT', 'STICKY_NOTE')
+             THEN to_tsvector('simple', coalesce(data::jsonb ->> 'text', ''))
+        END
+    ) STORED,
+    -- Unique keys on a partitioned table must include the partition key
+    PRIMARY KEY (board_id, id)
+) PARTITION BY HASH (board_id);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE whiteboard.shapes_p%s PARTITION OF whiteboard.shapes '
+                       'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', lpad(i::text, 2, '0'), i);
+    END LOOP;
+END $$;
+
+-- Created on the parent, so every partition gets its own copy.
+-- The primary key replaces idx_shapes_board_id; idx_shapes_type and idx_shapes_created_at served
+-- no query. idx_shapes_board_layer (integer layer_order) is not carried over.
+CREATE INDEX idx_shapes_id ON whiteboard.shapes(id); -- Lookups by shape id alone
+CREATE INDEX idx_shapes_board_layer_key ON whiteboard.shapes(board_id, layer_key);
+CREATE INDEX idx_shapes_parent_id ON whiteboard.shapes(board_id, parent_id) WHERE parent_id IS NOT NULL;
+CREATE INDEX idx_shapes_search_vector ON whiteboard.shapes USING GIN (search_vector)
+    WHERE search_vector IS NOT NULL;
+
+INSERT INTO whiteboard.shapes (id, board_id, parent_id, type, data, layer_order, layer_key, version,
+                               created_by, updated_by, created_at, updated_at)
+SELECT id, board_id, parent_id, type, data::jsonb, layer_order, layer_key, version,
+       created_by, updated_by, created_at, updated_at
+FROM whiteboard.shapes_unpartitioned;
+
+DROP TABLE whiteboard.shapes_unpartitioned;
+
+-- Schemas that were created by Hibernate and baselined by Flyway never ran V1
+CREATE OR REPLACE FUNCTION whiteboard.update_updated_at_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER update_shapes_updated_at BEFORE UPDATE ON whiteboard.shapes
+    FOR EACH ROW EXECUTE FUNCTION whiteboard.update_updated_at_column();
+
+-- A foreign key cannot point at a partitioned table's id alone, so the ON DELETE SET NULL of
+-- parent_id (deleting a group ungroups its children) is kept by a trigger instead
+CREATE OR REPLACE FUNCTION whiteboard.ungroup_deleted_shape_children()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE whiteboard.shapes SET parent_id = NULL
+    WHERE board_id = OLD.board_id AND parent_id = OLD.id;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER ungroup_shapes_on_delete AFTER DELETE ON whiteboard.shapes
+    FOR EACH ROW EXECUTE FUNCTION whiteboard.ungroup_deleted_shape_children();
+
+-- Archival of inactive boards (see BoardArchiveService)
+-- An archived board's shapes live in one gzip'd blob here until the board is next opened
+ALTER TABLE whiteboard.boards ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP;
+
+CREATE TABLE IF NOT EXISTS whiteboard.board_archives (
+    board_id UUID PRIMARY KEY REFERENCES whiteboard.boards(id) ON DELETE CASCADE,
+    shape_count INTEGER NOT NULL,
+    payload BYTEA NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Already compressed: store out of line without trying to compress it again
+ALTER TABLE whiteboard.board_archives ALTER COLUMN payload SET STORAGE EXTERNAL;
+
+-- Finds archive candidates without scanning every board
+CREATE INDEX IF NOT EXISTS idx_board_activity_last_activity_at ON whiteboard.board_activity(last_activity_at);
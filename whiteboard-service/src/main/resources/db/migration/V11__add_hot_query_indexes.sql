@@ -0,0 +1,22 @@
+-- Indexes for the hot queries, now that Flyway owns the schema (Hibernate only validates it)
+-- Schemas created by ddl-auto=update are baselined at V1, so nothing here assumes V1's indexes exist.
+
+-- Access checks: (board_id, user_id) -> role from the index alone (index-only scan)
+CREATE UNIQUE INDEX IF NOT EXISTS idx_board_collaborators_board_user_role
+    ON whiteboard.board_collaborators(board_id, user_id) INCLUDE (role);
+
+-- Superseded by the unique index above, whether created by V1 or by Hibernate
+DROP INDEX IF EXISTS whiteboard.idx_board_collaborators_board_id;
+DO $$
+DECLARE
+    name text;
+BEGIN
+    FOR name IN
+        SELECT conname FROM pg_constraint
+        WHERE conrelid = 'whiteboard.board_collaborators'::regclass AND contype = 'u'
+    LOOP
+        EXECUTE format('ALTER TABLE whiteboard.board_collaborators DROP CONSTRAINT %I', name);
+    END LOOP;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_board_snapshots_board_id ON whiteboard.board_snapshots(board_id);
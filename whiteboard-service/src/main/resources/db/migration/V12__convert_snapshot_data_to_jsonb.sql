@@ -0,0 +1,4 @@
+-- Schemas created by ddl-auto=update before Flyway (baselined at V1) hold snapshot_data as
+-- text, which fails validation against the jsonb mapping. A no-op where it is jsonb already.
+ALTER TABLE whiteboard.board_snapshots
+    ALTER COLUMN snapshot_data TYPE jsonb USING snapshot_data::jsonb;
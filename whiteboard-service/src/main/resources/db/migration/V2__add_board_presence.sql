@@ -0,0 +1,13 @@
+-- Cluster-wide presence for whiteboard.presence.backend=postgres: one row per node, board and
+-- user, refreshed by that node's heartbeat and deleted once it expires
+CREATE UNLOGGED TABLE IF NOT EXISTS whiteboard.board_presence (
+    node_id VARCHAR(255) NOT NULL,
+    board_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    sessions INTEGER NOT NULL,
+    expires_at BIGINT NOT NULL,
+    PRIMARY KEY (board_id, user_id, node_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_board_presence_expires_at ON whiteboard.board_presence(expires_at);
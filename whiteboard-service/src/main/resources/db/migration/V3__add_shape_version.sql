@@ -0,0 +1,4 @@
+-- Optimistic concurrency for shapes
+-- version is bumped on every update; updated_by lets a client pipeline its own updates
+ALTER TABLE whiteboard.shapes ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE whiteboard.shapes ADD COLUMN IF NOT EXISTS updated_by UUID;
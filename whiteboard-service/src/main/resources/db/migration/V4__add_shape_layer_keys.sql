@@ -0,0 +1,11 @@
+-- Fractional layer keys (see LayerKeys): byte-ordered base-62 strings
+ALTER TABLE whiteboard.shapes ADD COLUMN IF NOT EXISTS layer_key VARCHAR(64) COLLATE "C";
+
+-- Existing shapes keep their order: 'U' + zero-padded layer_order + 'V' (keys never end in '0')
+UPDATE whiteboard.shapes
+SET layer_key = 'U' || lpad(GREATEST(layer_order, 0)::text, 10, '0') || 'V'
+WHERE layer_key IS NULL;
+
+ALTER TABLE whiteboard.shapes ALTER COLUMN layer_key SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_shapes_board_layer_key ON whiteboard.shapes(board_id, layer_key);
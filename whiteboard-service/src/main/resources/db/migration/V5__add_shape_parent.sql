@@ -0,0 +1,6 @@
+-- Group/frame hierarchy: a shape may belong to a parent shape on the same board
+-- Deleting a group ungroups its children
+ALTER TABLE whiteboard.shapes ADD COLUMN IF NOT EXISTS parent_id UUID
+    REFERENCES whiteboard.shapes(id) ON DELETE SET NULL;
+
+CREATE INDEX IF NOT EXISTS idx_shapes_parent_id ON whiteboard.shapes(parent_id) WHERE parent_id IS NOT NULL;
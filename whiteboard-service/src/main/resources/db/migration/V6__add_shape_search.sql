@@ -0,0 +1,12 @@
+-- Full-text search over TEXT and STICKY_NOTE content
+-- A stored generated column is recomputed by Postgres on every insert/update of the row,
+-- so the index stays current without application code. 'simple' avoids language stemming.
+ALTER TABLE whiteboard.shapes ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        CASE WHEN type IN ('TEXT', 'STICKY_NOTE')
+             THEN to_tsvector('simple', coalesce(data::jsonb ->> 'text', ''))
+        END
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_shapes_search_vector ON whiteboard.shapes USING GIN (search_vector)
+    WHERE search_vector IS NOT NULL;
@@ -0,0 +1,6 @@
+-- Trigram search over board name and description (prefix, substring and fuzzy matches)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Expression must match BoardRepository.searchAccessibleBoards exactly for the planner to use it
+CREATE INDEX IF NOT EXISTS idx_boards_search_trgm ON whiteboard.boards
+    USING GIN (lower(name || ' ' || coalesce(description, '')) gin_trgm_ops);
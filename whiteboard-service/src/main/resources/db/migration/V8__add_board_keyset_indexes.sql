@@ -0,0 +1,14 @@
+-- Keyset pagination of board listings: (created_at DESC, id) per access path
+
+-- Owned boards
+CREATE INDEX IF NOT EXISTS idx_boards_owner_created ON whiteboard.boards(owner_id, created_at DESC, id);
+
+-- Public gallery; partial so private boards do not bloat it
+CREATE INDEX IF NOT EXISTS idx_boards_public_created ON whiteboard.boards(created_at DESC, id) WHERE is_public = true;
+
+-- Collaborated boards: find a user's board ids without touching the table
+CREATE INDEX IF NOT EXISTS idx_board_collaborators_user_board ON whiteboard.board_collaborators(user_id, board_id);
+
+-- Superseded by the composite indexes above
+DROP INDEX IF EXISTS whiteboard.idx_boards_owner_id;
+DROP INDEX IF EXISTS whiteboard.idx_board_collaborators_user_id;
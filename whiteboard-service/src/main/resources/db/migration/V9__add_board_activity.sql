@@ -0,0 +1,14 @@
+-- Per-board summary counters, maintained write-behind by BoardActivityTracker
+CREATE TABLE IF NOT EXISTS whiteboard.board_activity (
+    board_id UUID PRIMARY KEY REFERENCES whiteboard.boards(id) ON DELETE CASCADE,
+    shape_count BIGINT NOT NULL DEFAULT 0,
+    last_activity_at TIMESTAMP,
+    content_version BIGINT NOT NULL DEFAULT 0
+);
+
+-- Seed from existing shapes; afterwards only deltas are applied
+INSERT INTO whiteboard.board_activity (board_id, shape_count, last_activity_at, content_version)
+SELECT board_id, COUNT(*), MAX(updated_at), COUNT(*)
+FROM whiteboard.shapes
+GROUP BY board_id
+ON CONFLICT (board_id) DO NOTHING;
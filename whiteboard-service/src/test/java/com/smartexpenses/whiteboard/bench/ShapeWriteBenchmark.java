@@ -0,0 +1,151 @@
+package com.smartexpenses.whiteboard.bench;
+
+import com.smartexpenses.whiteboard.WhiteboardServiceApplication;
+import com.smartexpenses.whiteboard.crdt.BoardDocumentStore;
+import com.smartexpenses.whiteboard.crdt.ShapeOp;
+import com.smartexpenses.whiteboard.dto.CreateBoardRequest;
+import com.smartexpenses.whiteboard.dto.CreateShapeRequest;
+import com.smartexpenses.whiteboard.model.Board;
+import com.smartexpenses.whiteboard.model.Shape;
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import com.smartexpenses.whiteboard.repository.BoardRepository;
+import com.smartexpenses.whiteboard.repository.ShapeRepository;
+import com.smartexpenses.whiteboard.service.BoardService;
+import com.smartexpenses.whiteboard.service.ShapeService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shape write throughput with the default settings and with the perf profile, against a real
+ * Postgres. Starts the application once per configuration and runs the same three workloads:
+ * single shape creates (one transaction each, like REST/STOMP creates), a write-behind flush
+ * of CRDT ops (batched updates), and a bulk insert in one transaction.
+ *
+ * Skipped unless a database is given; use a scratch database, tables are created there:
+ * mvn test -Dtest=ShapeWriteBenchmark -Dsurefire.failIfNoSpecifiedTests=false \
+ *     -Dbench.datasource.url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dbench.datasource.username=postgres -Dbench.datasource.password=postgres
+ */
+@EnabledIfSystemProperty(named = "bench.datasource.url", matches = ".+")
+class ShapeWriteBenchmark {
+
+	private static final int CREATES = Integer.getInteger("bench.creates", 1000);
+	private static final int BULK = Integer.getInteger("bench.bulk", 5000);
+	private static final int WARMUP = 200;
+
+	@Test
+	void compareDefaultAndPerfProfiles() {
+		Map<String, Result> results = new LinkedHashMap<>();
+		results.put("default", run());
+		results.put("perf", run("perf"));
+
+		System.out.println();
+		System.out.printf("%-10s %16s %16s %16s%n", "profile", "creates/s", "flush rows/s", "bulk rows/s");
+		results.forEach((profile, result) -> System.out.printf("%-10s %16.0f %16.0f %16.0f%n",
+				profile, result.createsPerSecond, result.flushPerSecond, result.bulkPerSecond));
+		Result before = results.get("default");
+		Result after = results.get("perf");
+		System.out.printf("%-10s %15.2fx %15.2fx %15.2fx%n", "speedup",
+				after.createsPerSecond / before.createsPerSecond,
+				after.flushPerSecond / before.flushPerSecond,
+				after.bulkPerSecond / before.bulkPerSecond);
+	}
+
+	private Result run(String... profiles) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WhiteboardServiceApplication.class)
+				.profiles(profiles)
+				.properties(
+						"server.port=0",
+						"spring.datasource.url=" + System.getProperty("bench.datasource.url"),
+						"spring.datasource.username=" + System.getProperty("bench.datasource.username", "postgres"),
+						"spring.datasource.password=" + System.getProperty("bench.datasource.password", "postgres"))
+				.run()) {
+			UUID userId = UUID.randomUUID();
+			BoardService boardService = context.getBean(BoardService.class);
+			UUID boardId = boardService.createBoard(
+					CreateBoardRequest.builder().name("bench").isPublic(false).build(), userId).getId();
+			try {
+				createShapes(context, boardId, userId, WARMUP);
+
+				long start = System.nanoTime();
+				List<UUID> created = createShapes(context, boardId, userId, CREATES);
+				double creates = perSecond(CREATES, start);
+
+				start = System.nanoTime();
+				flushOps(context, boardId, created);
+				double flush = perSecond(created.size(), start);
+
+				start = System.nanoTime();
+				bulkInsert(context, boardId, userId, BULK);
+				double bulk = perSecond(BULK, start);
+
+				return new Result(creates, flush, bulk);
+			} finally {
+				boardService.deleteBoard(boardId, userId);
+			}
+		}
+	}
+
+	private List<UUID> createShapes(ConfigurableApplicationContext context, UUID boardId, UUID userId, int count) {
+		ShapeService shapeService = context.getBean(ShapeService.class);
+		List<UUID> ids = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			CreateShapeRequest request = CreateShapeRequest.builder()
+					.boardId(boardId)
+					.type(ShapeType.RECTANGLE)
+					.data(rectangle(i))
+					.build();
+			ids.add(shapeService.createShape(request, userId).getId());
+		}
+		return ids;
+	}
+
+	// Move every shape through the CRDT path, then persist them in one write-behind flush
+	private void flushOps(ConfigurableApplicationContext context, UUID boardId, List<UUID> shapeIds) {
+		BoardDocumentStore store = context.getBean(BoardDocumentStore.class);
+		for (UUID shapeId : shapeIds) {
+			store.applyLocal(boardId, shapeId, ShapeOp.Kind.UPDATE, Map.of("x", 1.0, "y", 2.0), null);
+		}
+		store.flush(boardId);
+	}
+
+	private void bulkInsert(ConfigurableApplicationContext context, UUID boardId, UUID userId, int count) {
+		BoardRepository boardRepository = context.getBean(BoardRepository.class);
+		ShapeRepository shapeRepository = context.getBean(ShapeRepository.class);
+		context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+			Board board = boardRepository.getReferenceById(boardId);
+			List<Shape> shapes = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				shapes.add(Shape.builder()
+						.board(board)
+						.type(ShapeType.RECTANGLE)
+						.data(rectangle(i))
+						.layerKey(String.format("b%08d", i))
+						.createdBy(userId)
+						.build());
+			}
+			shapeRepository.saveAll(shapes);
+		});
+	}
+
+	private static Map<String, Object> rectangle(int i) {
+		return Map.of("x", (double) (i % 100) * 40, "y", (double) (i / 100) * 40,
+				"width", 30.0, "height", 30.0, "fill", "#60a5fa", "stroke", "#1e3a8a");
+	}
+
+	private static double perSecond(int count, long startNanos) {
+		return count / ((System.nanoTime() - startNanos) / 1e9);
+	}
+
+	private record Result(double createsPerSecond, double flushPerSecond, double bulkPerSecond) {
+	}
+}
@@ -0,0 +1,63 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgresShapeOpReplicatorTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void largeOpRoundTripsThroughChunks() throws Exception {
+		Map<String, Object> fields = new HashMap<>();
+		fields.put("path", "M 0 0 L 1 1 ".repeat(2000) + "😀".repeat(3000));
+		fields.put("x", 12.5);
+		fields.put("stroke", null); // Removed field
+		ShapeOp op = new ShapeOp(UUID.randomUUID(), UUID.randomUUID(), ShapeOp.Kind.UPDATE, ShapeType.PEN,
+				fields, "Uk", new HlcTimestamp(1700000000000L, 3, "node-a"));
+
+		List<String> chunks = PostgresShapeOpReplicator.Chunks.split(op.timestamp().toString(),
+				objectMapper.writeValueAsString(op));
+		assertTrue(chunks.size() > 1);
+		for (String chunk : chunks) {
+			assertTrue(chunk.getBytes(StandardCharsets.UTF_8).length < 8000);
+		}
+
+		PostgresShapeOpReplicator.Chunks.Assembler assembler = new PostgresShapeOpReplicator.Chunks.Assembler();
+		List<String> shuffled = new ArrayList<>(chunks);
+		Collections.reverse(shuffled);
+		String json = null;
+		for (int i = 0; i < shuffled.size(); i++) {
+			json = assembler.accept(shuffled.get(i));
+			if (i < shuffled.size() - 1) {
+				assertNull(json);
+			}
+		}
+		assertEquals(op, objectMapper.readValue(json, ShapeOp.class));
+	}
+
+	@Test
+	void smallOpIsOneChunk() throws Exception {
+		ShapeOp op = new ShapeOp(UUID.randomUUID(), UUID.randomUUID(), ShapeOp.Kind.DELETE, null, null, null,
+				new HlcTimestamp(1L, 0, "node-b"));
+
+		List<String> chunks = PostgresShapeOpReplicator.Chunks.split(op.timestamp().toString(),
+				objectMapper.writeValueAsString(op));
+		assertEquals(1, chunks.size());
+		String json = new PostgresShapeOpReplicator.Chunks.Assembler().accept(chunks.get(0));
+		assertEquals(op, objectMapper.readValue(json, ShapeOp.class));
+	}
+}
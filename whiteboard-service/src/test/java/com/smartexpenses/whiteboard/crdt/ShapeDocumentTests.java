@@ -0,0 +1,78 @@
+package com.smartexpenses.whiteboard.crdt;
+
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShapeDocumentTests {
+
+	private static final UUID BOARD = UUID.randomUUID();
+	private static final UUID SHAPE = UUID.randomUUID();
+
+	@Test
+	void opsConvergeInAnyOrder() {
+		List<ShapeOp> ops = List.of(
+				update(Map.of("x", 10, "fill", "red"), null, ts(100, 0, "a")),
+				update(Map.of("x", 20), "X", ts(100, 0, "b")),
+				update(Map.of("fill", "blue", "y", 5), null, ts(101, 0, "a")),
+				update(Map.of("y", 7), "V", ts(100, 1, "b")));
+
+		ShapeDocument expected = applyAll(ops);
+		Random random = new Random(42);
+		for (int i = 0; i < 20; i++) {
+			List<ShapeOp> shuffled = new ArrayList<>(ops);
+			Collections.shuffle(shuffled, random);
+			shuffled.add(shuffled.get(0)); // Redelivery must be harmless
+			ShapeDocument document = applyAll(shuffled);
+			assertEquals(expected.materialize(), document.materialize());
+			assertEquals(expected.getLayerKey(), document.getLayerKey());
+		}
+		assertEquals(Map.of("x", 20, "fill", "blue", "y", 5), expected.materialize());
+		assertEquals("V", expected.getLayerKey());
+	}
+
+	@Test
+	void deleteWinsOverConcurrentUpdate() {
+		ShapeOp delete = new ShapeOp(BOARD, SHAPE, ShapeOp.Kind.DELETE, null, null, null, ts(100, 0, "a"));
+		ShapeOp update = update(Map.of("x", 1), null, ts(200, 0, "b"));
+
+		assertTrue(applyAll(List.of(delete, update)).isDeleted());
+		assertTrue(applyAll(List.of(update, delete)).isDeleted());
+	}
+
+	@Test
+	void reorderMovesTheShapeInTheLayerSequence() {
+		BoardDocument board = new BoardDocument(BOARD);
+		UUID bottom = UUID.randomUUID();
+		UUID top = UUID.randomUUID();
+		board.load(bottom, ShapeDocument.fromSnapshot(ShapeType.RECTANGLE, Map.of(), "U", ts(1, 0, "db")));
+		board.load(top, ShapeDocument.fromSnapshot(ShapeType.RECTANGLE, Map.of(), "V", ts(1, 0, "db")));
+
+		board.apply(new ShapeOp(BOARD, bottom, ShapeOp.Kind.UPDATE, null, null, "W", ts(100, 0, "a")));
+
+		assertEquals(List.of(top, bottom), board.getLayerSequence());
+	}
+
+	private static ShapeDocument applyAll(List<ShapeOp> ops) {
+		ShapeDocument document = ShapeDocument.fromSnapshot(ShapeType.RECTANGLE, Map.of("x", 0), "U", ts(1, 0, "db"));
+		ops.forEach(document::apply);
+		return document;
+	}
+
+	private static ShapeOp update(Map<String, Object> fields, String layerKey, HlcTimestamp timestamp) {
+		return new ShapeOp(BOARD, SHAPE, ShapeOp.Kind.UPDATE, ShapeType.RECTANGLE, fields, layerKey, timestamp);
+	}
+
+	private static HlcTimestamp ts(long wallTime, int counter, String nodeId) {
+		return new HlcTimestamp(wallTime, counter, nodeId);
+	}
+}
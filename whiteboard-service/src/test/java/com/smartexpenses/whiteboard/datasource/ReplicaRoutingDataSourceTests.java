@@ -0,0 +1,116 @@
+package com.smartexpenses.whiteboard.datasource;
+
+import com.smartexpenses.whiteboard.cache.CacheInvalidation;
+import com.smartexpenses.whiteboard.cache.CacheInvalidationBus;
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTests {
+
+	private final AtomicBoolean replicaHealthy = new AtomicBoolean(true);
+	private final SharedBus bus = new SharedBus();
+	private final ReadYourWrites readYourWrites = node("node-a");
+	private final ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(
+			new SimpleDriverDataSource(), new SimpleDriverDataSource(), replicaHealthy::get, readYourWrites);
+
+	@BeforeEach
+	void readOnlyLabelledTransaction() {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		ReplicaRouting.enter();
+	}
+
+	@AfterEach
+	void clear() {
+		TransactionSynchronizationManager.clear();
+		ReplicaRouting.exit();
+		ReadYourWrites.clearCurrentUser();
+	}
+
+	@Test
+	void labelledReadOnlyTransactionsReadTheReplica() {
+		assertEquals(ReplicaRoutingDataSource.Target.REPLICA, dataSource.determineCurrentLookupKey());
+	}
+
+	@Test
+	void unlabelledAndReadWriteTransactionsUseThePrimary() {
+		ReplicaRouting.exit();
+		assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, dataSource.determineCurrentLookupKey());
+
+		ReplicaRouting.enter();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, dataSource.determineCurrentLookupKey());
+	}
+
+	@Test
+	void laggingReplicaFallsBackToThePrimary() {
+		replicaHealthy.set(false);
+		assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, dataSource.determineCurrentLookupKey());
+	}
+
+	@Test
+	void writersReadThePrimaryDuringTheirWindow() {
+		UUID writer = UUID.randomUUID();
+		readYourWrites.recordWrite(writer);
+
+		ReadYourWrites.setCurrentUser(writer);
+		assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, dataSource.determineCurrentLookupKey());
+
+		ReadYourWrites.setCurrentUser(UUID.randomUUID());
+		assertEquals(ReplicaRoutingDataSource.Target.REPLICA, dataSource.determineCurrentLookupKey());
+	}
+
+	@Test
+	void writesOnOneNodeSendReadsOnAnotherToThePrimary() {
+		ReadYourWrites other = node("node-b");
+		UUID writer = UUID.randomUUID();
+		other.recordWrite(writer);
+		other.recordWrite(writer); // Shared once per quarter window
+		assertEquals(1, bus.published.size());
+
+		ReadYourWrites.setCurrentUser(writer);
+		assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, dataSource.determineCurrentLookupKey());
+	}
+
+	private ReadYourWrites node(String nodeId) {
+		ReadYourWrites node = new ReadYourWrites(bus, new NodeIdentity(nodeId), 5000);
+		node.init();
+		return node;
+	}
+
+	// Delivers every invalidation to every node, the sender included, like NOTIFY
+	private static final class SharedBus implements CacheInvalidationBus {
+
+		private final List<Consumer<CacheInvalidation>> consumers = new CopyOnWriteArrayList<>();
+		private final List<CacheInvalidation> published = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void publish(CacheInvalidation invalidation) {
+			published.add(invalidation);
+			CacheInvalidation received = CacheInvalidation.decode(invalidation.encode());
+			consumers.forEach(consumer -> consumer.accept(received));
+		}
+
+		@Override
+		public void subscribe(Consumer<CacheInvalidation> consumer) {
+			consumers.add(consumer);
+		}
+
+		@Override
+		public void onGap(Runnable action) {
+			// No gaps in memory
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.smartexpenses.whiteboard.presence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgresPresenceBackendTests {
+
+	private final PostgresPresenceBackend backend = new PostgresPresenceBackend(null, null, new ObjectMapper(), 500, 5000);
+	private final List<String> announced = new ArrayList<>();
+	private final UUID boardId = UUID.randomUUID();
+	private final UUID userId = UUID.randomUUID();
+
+	@Test
+	void readsComeFromTheMirroredRows() {
+		backend.addListener((board, user, email, present) -> announced.add((present ? "+" : "-") + email));
+
+		backend.deliver(row(true, "node-a", 1));
+		backend.deliver(row(true, "node-b", 2));
+		backend.deliver(row(true, "node-a", 3)); // Re-counted on node A
+		List<ActiveUser> users = backend.getBoardUsers(boardId);
+		assertEquals(1, users.size());
+		assertEquals(5, users.get(0).sessions());
+		assertEquals("a:b@example.com", users.get(0).email());
+
+		backend.deliver(row(false, "node-a", 0));
+		assertEquals(2, backend.getBoardUsers(boardId).get(0).sessions());
+		backend.deliver(row(false, "node-b", 0));
+		assertTrue(backend.getBoardUsers(boardId).isEmpty());
+
+		// Only the first row in and the last row out are announced
+		assertEquals(List.of("+a:b@example.com", "-a:b@example.com"), announced);
+	}
+
+	@Test
+	void malformedChangesAreIgnored() {
+		backend.deliver("+:" + boardId);
+		assertTrue(backend.getBoardUsers(boardId).isEmpty());
+	}
+
+	private String row(boolean present, String nodeId, int sessions) {
+		return "{\"present\":" + present + ",\"nodeId\":\"" + nodeId + "\",\"boardId\":\"" + boardId
+				+ "\",\"userId\":\"" + userId + "\",\"email\":\"a:b@example.com\""
+				+ (present ? ",\"sessions\":" + sessions : "") + "}";
+	}
+}
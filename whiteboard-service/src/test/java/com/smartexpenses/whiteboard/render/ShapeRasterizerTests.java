@@ -0,0 +1,40 @@
+package com.smartexpenses.whiteboard.render;
+
+import com.smartexpenses.whiteboard.model.Shape;
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ShapeRasterizerTests {
+
+	@Test
+	void filledRectangleIsDrawnWhereTheRegionMapsIt() {
+		Shape rectangle = Shape.builder()
+				.type(ShapeType.RECTANGLE)
+				.data(Map.of("x", 100, "y", 100, "width", 100, "height", 100, "fill", "#ff0000", "strokeWidth", 0))
+				.build();
+
+		// Region 100..300 on a 100px image: the rectangle fills the top-left quarter
+		BufferedImage image = ShapeRasterizer.render(List.of(rectangle),
+				new Rectangle2D.Double(100, 100, 200, 200), 100, 100, Color.WHITE);
+
+		assertEquals(Color.RED.getRGB(), image.getRGB(25, 25));
+		assertEquals(Color.WHITE.getRGB(), image.getRGB(75, 75));
+	}
+
+	@Test
+	void parsesCanvasColours() {
+		assertEquals(new Color(0x11, 0x22, 0x33), ShapeRasterizer.color("#123", Color.BLACK));
+		assertEquals(new Color(0xFF, 0xFF, 0x99), ShapeRasterizer.color("#FFFF99", Color.BLACK));
+		assertNull(ShapeRasterizer.color("transparent", Color.BLACK));
+		assertEquals(Color.BLACK, ShapeRasterizer.color("rgba(0,0,0,0.5)", Color.BLACK));
+	}
+}
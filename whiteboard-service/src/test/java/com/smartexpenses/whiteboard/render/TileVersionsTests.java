@@ -0,0 +1,91 @@
+package com.smartexpenses.whiteboard.render;
+
+import com.smartexpenses.whiteboard.cache.CacheInvalidation;
+import com.smartexpenses.whiteboard.cache.CacheInvalidationBus;
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import com.smartexpenses.whiteboard.dto.ShapeBounds;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TileVersionsTests {
+
+	private final SharedBus bus = new SharedBus();
+	private final TileVersions nodeA = node("node-a");
+	private final TileVersions nodeB = node("node-b");
+
+	@Test
+	void marksReachTheOtherNodes() {
+		UUID boardId = UUID.randomUUID();
+		nodeA.markDirty(boardId, new ShapeBounds(100, 100, 50, 50));
+
+		assertTrue(nodeB.version(boardId, 0, 0, 0) > 0);
+		assertEquals(0, nodeB.version(boardId, 0, 5, 5));
+	}
+
+	@Test
+	void wholeBoardMarksReachTheOtherNodes() {
+		UUID boardId = UUID.randomUUID();
+		nodeA.markAllDirty(boardId);
+
+		assertTrue(nodeB.version(boardId, 0, 5, 5) > 0);
+	}
+
+	@Test
+	void gapStartsANewGeneration() {
+		UUID boardId = UUID.randomUUID();
+		nodeA.markDirty(boardId, new ShapeBounds(0, 0, 10, 10));
+		long generation = nodeB.getGeneration();
+
+		bus.gap();
+
+		assertNotEquals(generation, nodeB.getGeneration());
+	}
+
+	@Test
+	void boundsRoundTrip() {
+		ShapeBounds box = new ShapeBounds(-12.5, 3, 1e6, 0.25);
+		assertEquals(List.of(box), TileVersions.decode(TileVersions.encode(null, box)));
+		assertEquals(List.of(), TileVersions.decode(TileVersions.encode()));
+	}
+
+	private TileVersions node(String nodeId) {
+		TileVersions versions = new TileVersions(6, bus, new NodeIdentity(nodeId));
+		versions.init();
+		return versions;
+	}
+
+	// Delivers every invalidation to every node, the sender included, like NOTIFY
+	private static final class SharedBus implements CacheInvalidationBus {
+
+		private final List<Consumer<CacheInvalidation>> consumers = new CopyOnWriteArrayList<>();
+		private final List<Runnable> gapActions = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void publish(CacheInvalidation invalidation) {
+			CacheInvalidation received = CacheInvalidation.decode(invalidation.encode());
+			consumers.forEach(consumer -> consumer.accept(received));
+		}
+
+		@Override
+		public void subscribe(Consumer<CacheInvalidation> consumer) {
+			consumers.add(consumer);
+		}
+
+		@Override
+		public void onGap(Runnable action) {
+			gapActions.add(action);
+		}
+
+		void gap() {
+			gapActions.forEach(Runnable::run);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.smartexpenses.whiteboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import com.smartexpenses.whiteboard.crdt.BoardDocumentStore;
+import com.smartexpenses.whiteboard.crdt.HybridLogicalClock;
+import com.smartexpenses.whiteboard.crdt.LocalShapeOpReplicator;
+import com.smartexpenses.whiteboard.crdt.ShapeOp;
+import com.smartexpenses.whiteboard.dto.UpdateShapeRequest;
+import com.smartexpenses.whiteboard.exception.ShapeConflictException;
+import com.smartexpenses.whiteboard.model.Board;
+import com.smartexpenses.whiteboard.model.Shape;
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import com.smartexpenses.whiteboard.repository.ShapeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShapeServiceTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final UUID ownerId = UUID.randomUUID();
+	private final Board board = Board.builder().id(UUID.randomUUID()).ownerId(ownerId).build();
+	private final Map<UUID, Shape> rows = new ConcurrentHashMap<>();
+	private final BoardDocumentStore documents = new BoardDocumentStore(shapeRows(),
+			new TransactionTemplate(new NoTransactions()), new HybridLogicalClock(new NodeIdentity("node-a")),
+			new LocalShapeOpReplicator(), objectMapper, 600000);
+	private final ShapeService shapeService = new ShapeService(shapeRows(), null, null, documents,
+			null, null, null, null, null, objectMapper);
+
+	@Test
+	void fullUpdateBasedOnTheStateBeforeAnOpConflicts() {
+		Shape shape = row(Map.of("x", 0, "fill", "red"));
+		Map<UUID, Long> flushed = new HashMap<>();
+		documents.addListener((boardId, versions) -> flushed.putAll(versions));
+
+		// Another user recolours the shape through a CRDT op
+		documents.applyLocal(board.getId(), shape.getId(), ShapeOp.Kind.UPDATE, Map.of("fill", "blue"), null);
+
+		// This client moves it with the full data it read before the op
+		UpdateShapeRequest request = UpdateShapeRequest.builder()
+				.data(Map.of("x", 50, "fill", "red"))
+				.version(0L)
+				.build();
+		ShapeConflictException conflict = assertThrows(ShapeConflictException.class,
+				() -> shapeService.updateShape(shape.getId(), board.getId(), request, ownerId));
+
+		assertEquals("blue", conflict.getCurrent().getData().get("fill"));
+		assertEquals(1L, conflict.getCurrent().getVersion());
+		assertEquals(Map.of(shape.getId(), 1L), flushed);
+	}
+
+	private Shape row(Map<String, Object> data) {
+		Shape shape = Shape.builder()
+				.id(UUID.randomUUID())
+				.board(board)
+				.type(ShapeType.RECTANGLE)
+				.data(data)
+				.layerOrder(0)
+				.layerKey("U")
+				.build();
+		rows.put(shape.getId(), shape);
+		return shape;
+	}
+
+	// Each call returns a copy, like a fresh persistence context
+	private Shape copy(Shape row) {
+		return Shape.builder()
+				.id(row.getId())
+				.board(row.getBoard())
+				.type(row.getType())
+				.data(new HashMap<>(row.getData()))
+				.layerOrder(row.getLayerOrder())
+				.layerKey(row.getLayerKey())
+				.version(row.getVersion())
+				.build();
+	}
+
+	// The shapes table, kept in memory
+	@SuppressWarnings("unchecked")
+	private ShapeRepository shapeRows() {
+		return (ShapeRepository) Proxy.newProxyInstance(ShapeRepository.class.getClassLoader(),
+				new Class<?>[]{ShapeRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+					case "findByBoardIdOrderByLayerKeyAscIdAsc" -> rows.values().stream().map(this::copy).toList();
+					case "findAllById" -> rows.values().stream()
+							.filter(row -> contains((Iterable<UUID>) args[0], row.getId()))
+							.map(this::copy)
+							.toList();
+					case "findByIdAndBoardId" -> Optional.ofNullable(rows.get((UUID) args[0])).map(this::copy);
+					case "writeMergedState" -> {
+						Shape row = rows.get((UUID) args[1]);
+						if (row == null || row.getVersion() != (long) args[4]) {
+							yield 0;
+						}
+						row.setData(objectMapper.readValue((String) args[2], Map.class));
+						row.setLayerKey((String) args[3]);
+						row.setVersion(row.getVersion() + 1);
+						yield 1;
+					}
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	private static boolean contains(Iterable<UUID> ids, UUID id) {
+		for (UUID candidate : ids) {
+			if (candidate.equals(id)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final class NoTransactions extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+}
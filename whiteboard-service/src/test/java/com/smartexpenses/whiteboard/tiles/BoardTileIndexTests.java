@@ -0,0 +1,138 @@
+package com.smartexpenses.whiteboard.tiles;
+
+import com.smartexpenses.whiteboard.cache.CacheInvalidation;
+import com.smartexpenses.whiteboard.cache.CacheInvalidationBus;
+import com.smartexpenses.whiteboard.config.NodeIdentity;
+import com.smartexpenses.whiteboard.dto.ShapeBounds;
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import com.smartexpenses.whiteboard.render.TileVersions;
+import com.smartexpenses.whiteboard.repository.ShapeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardTileIndexTests {
+
+	private final SharedBus bus = new SharedBus();
+	private final BoardTileIndex nodeA = node("node-a");
+	private final BoardTileIndex nodeB = node("node-b");
+	private final UUID boardId = UUID.randomUUID();
+	private final TileVersions.TileKey origin = new TileVersions.TileKey(0, 0, 0);
+
+	@Test
+	void changesReachTheOtherNodes() {
+		assertTrue(nodeB.shapesIn(boardId, origin).isEmpty()); // Loads the (empty) board on node B
+		UUID shapeId = UUID.randomUUID();
+
+		nodeA.shapeChanged(boardId, shapeId, ShapeType.RECTANGLE, rectangle(10, 10, "rgb(1, 2, 3)"), "U");
+		List<BoardTileIndex.Entry> entries = nodeB.shapesIn(boardId, origin);
+		assertEquals(1, entries.size());
+		assertEquals(new ShapeBounds(10, 10, 20, 20), entries.get(0).bounds());
+		assertEquals("rgb(1, 2, 3)", entries.get(0).color());
+
+		// An edit without a stacking key keeps the one the shape had
+		nodeA.shapeEdited(boardId, shapeId, ShapeType.RECTANGLE, rectangle(30, 30, "#fff"));
+		assertEquals("U", nodeB.shapesIn(boardId, origin).get(0).layerKey());
+		assertEquals(new ShapeBounds(30, 30, 20, 20), nodeB.boundsOf(boardId, shapeId));
+
+		nodeA.shapeRemoved(boardId, shapeId);
+		assertTrue(nodeB.shapesIn(boardId, origin).isEmpty());
+	}
+
+	@Test
+	void hugeShapesAreFoundWithoutPerTileBuckets() {
+		assertTrue(nodeA.shapesIn(boardId, origin).isEmpty());
+		UUID shapeId = UUID.randomUUID();
+		// 1000 x 1000 zoom 0 tiles, far over the per-shape cap
+		nodeA.shapeChanged(boardId, shapeId, ShapeType.RECTANGLE,
+				Map.of("x", 0, "y", 0, "width", 512000, "height", 512000), "U");
+
+		assertEquals(shapeId, nodeA.shapesIn(boardId, new TileVersions.TileKey(0, 999, 999)).get(0).id());
+		assertTrue(nodeA.shapesIn(boardId, new TileVersions.TileKey(0, 1001, 0)).isEmpty());
+		assertTrue(nodeA.shapesIn(boardId, new TileVersions.TileKey(0, -1, 0)).isEmpty());
+
+		nodeA.shapeRemoved(boardId, shapeId);
+		assertTrue(nodeA.shapesIn(boardId, origin).isEmpty());
+	}
+
+	@Test
+	void regionsOfAnySizeFindTheShapesInThem() {
+		assertTrue(nodeA.shapesIn(boardId, origin).isEmpty());
+		UUID small = UUID.randomUUID();
+		UUID far = UUID.randomUUID();
+		nodeA.shapeChanged(boardId, small, ShapeType.RECTANGLE, rectangle(10, 10, "#000"), "V");
+		nodeA.shapeChanged(boardId, far, ShapeType.RECTANGLE, rectangle(20000, 20000, "#000"), "U");
+
+		// Larger than any bucketed level's tiles
+		double size = TileVersions.tileSize(6);
+		List<BoardTileIndex.Entry> all = nodeA.shapesWithin(boardId, new ShapeBounds(-16, -16, size, size));
+		assertEquals(List.of(far, small), all.stream().map(BoardTileIndex.Entry::id).toList());
+
+		assertEquals(List.of(small), nodeA.shapesWithin(boardId, new ShapeBounds(25, 25, 40, 40)).stream()
+				.map(BoardTileIndex.Entry::id).toList());
+		assertTrue(nodeA.shapesWithin(boardId, new ShapeBounds(31, 31, 40, 40)).isEmpty());
+	}
+
+	@Test
+	void entryRoundTrips() {
+		BoardTileIndex.Entry entry = new BoardTileIndex.Entry(UUID.randomUUID(), ShapeType.TEXT,
+				new ShapeBounds(-1.5, 2, 300, 40), "rgba(0, 0, 0, 0.5)", "Uz1");
+		assertEquals(entry, BoardTileIndex.Entry.decode(entry.encode()));
+
+		BoardTileIndex.Entry bare = new BoardTileIndex.Entry(UUID.randomUUID(), null,
+				new ShapeBounds(0, 0, 0, 0), null, null);
+		assertEquals(bare, BoardTileIndex.Entry.decode(bare.encode()));
+	}
+
+	private static Map<String, Object> rectangle(double x, double y, String fill) {
+		return Map.of("x", x, "y", y, "width", 20, "height", 20, "fill", fill);
+	}
+
+	private BoardTileIndex node(String nodeId) {
+		BoardTileIndex index = new BoardTileIndex(emptyBoards(), new TileVersions(6, bus, new NodeIdentity(nodeId)),
+				bus, new NodeIdentity(nodeId), 3, 16, 600000);
+		index.init();
+		return index;
+	}
+
+	// Every board starts out empty
+	private static ShapeRepository emptyBoards() {
+		return (ShapeRepository) Proxy.newProxyInstance(ShapeRepository.class.getClassLoader(),
+				new Class<?>[]{ShapeRepository.class}, (proxy, method, args) -> {
+					if (method.getName().equals("findByBoardIdOrderByLayerKeyAscIdAsc")) {
+						return List.of();
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	// Delivers every invalidation to every node, the sender included, like NOTIFY
+	private static final class SharedBus implements CacheInvalidationBus {
+
+		private final List<Consumer<CacheInvalidation>> consumers = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void publish(CacheInvalidation invalidation) {
+			CacheInvalidation received = CacheInvalidation.decode(invalidation.encode());
+			consumers.forEach(consumer -> consumer.accept(received));
+		}
+
+		@Override
+		public void subscribe(Consumer<CacheInvalidation> consumer) {
+			consumers.add(consumer);
+		}
+
+		@Override
+		public void onGap(Runnable action) {
+			// No gaps in memory
+		}
+	}
+}
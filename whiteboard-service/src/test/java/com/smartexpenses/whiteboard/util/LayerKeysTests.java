@@ -0,0 +1,59 @@
+package com.smartexpenses.whiteboard.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayerKeysTests {
+
+	@Test
+	void repeatedFrontAndBackStayOrdered() {
+		String top = LayerKeys.INITIAL;
+		String bottom = LayerKeys.INITIAL;
+		for (int i = 0; i < 1000; i++) {
+			String nextTop = LayerKeys.after(top);
+			String nextBottom = LayerKeys.before(bottom);
+			assertTrue(nextTop.compareTo(top) > 0);
+			assertTrue(nextBottom.compareTo(bottom) < 0);
+			top = nextTop;
+			bottom = nextBottom;
+		}
+		assertTrue(top.length() < 20, "front keys should grow slowly: " + top);
+		assertTrue(bottom.length() < 20, "back keys should grow slowly: " + bottom);
+	}
+
+	@Test
+	void insertsBetweenRandomNeighbours() {
+		List<String> keys = new ArrayList<>(List.of(LayerKeys.INITIAL));
+		Random random = new Random(7);
+		for (int i = 0; i < 2000; i++) {
+			int index = random.nextInt(keys.size() + 1);
+			String lower = index > 0 ? keys.get(index - 1) : null;
+			String upper = index < keys.size() ? keys.get(index) : null;
+			String key = LayerKeys.between(lower, upper);
+			assertTrue(lower == null || key.compareTo(lower) > 0);
+			assertTrue(upper == null || key.compareTo(upper) < 0);
+			keys.add(index, key);
+		}
+	}
+
+	@Test
+	void rejectsInvertedBounds() {
+		assertThrows(IllegalArgumentException.class, () -> LayerKeys.between("b", "a"));
+	}
+
+	@Test
+	void validatesClientKeys() {
+		assertTrue(LayerKeys.isValid(LayerKeys.between("U", "V")));
+		assertFalse(LayerKeys.isValid("U0"));
+		assertFalse(LayerKeys.isValid("U-1"));
+		assertFalse(LayerKeys.isValid(""));
+		assertFalse(LayerKeys.isValid("U".repeat(65)));
+	}
+}
@@ -0,0 +1,37 @@
+package com.smartexpenses.whiteboard.util;
+
+import com.smartexpenses.whiteboard.dto.ShapeBounds;
+import com.smartexpenses.whiteboard.model.enums.ShapeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShapeGeometryTests {
+
+	@Test
+	void circleBoundsAreCentredOnItsPosition() {
+		ShapeBounds bounds = ShapeGeometry.bounds(ShapeType.CIRCLE, Map.of("x", 100, "y", 50, "radius", 10));
+		assertEquals(new ShapeBounds(90, 40, 20, 20), bounds);
+	}
+
+	@Test
+	void lineBoundsCoverBothEndsInAnyDirection() {
+		ShapeBounds bounds = ShapeGeometry.bounds(ShapeType.LINE, Map.of("x1", 30, "y1", 5, "x2", 10, "y2", 25));
+		assertEquals(new ShapeBounds(10, 5, 20, 20), bounds);
+	}
+
+	@Test
+	void penBoundsUseThePathExtent() {
+		Map<String, Object> data = Map.of("x", 200, "y", 300,
+				"path", List.of(List.of(5, 5), List.of(45, 25), List.of(15, 65)));
+		assertEquals(new ShapeBounds(200, 300, 40, 60), ShapeGeometry.bounds(ShapeType.PEN, data));
+	}
+
+	@Test
+	void stickyNoteFallsBackToCanvasDefaults() {
+		assertEquals(new ShapeBounds(0, 0, 200, 150), ShapeGeometry.bounds(ShapeType.STICKY_NOTE, Map.of()));
+	}
+}
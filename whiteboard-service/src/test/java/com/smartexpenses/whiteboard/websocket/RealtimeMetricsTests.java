@@ -0,0 +1,120 @@
+package com.smartexpenses.whiteboard.websocket;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RealtimeMetricsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final RealtimeMetrics metrics = new RealtimeMetrics(registry);
+	private final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+	private final ExecutorSubscribableChannel outboundChannel = new ExecutorSubscribableChannel();
+	private SimpleBrokerMessageHandler broker;
+
+	@BeforeEach
+	void startBroker() {
+		brokerChannel.addInterceptor(metrics.brokerChannelInterceptor());
+		outboundChannel.addInterceptor(metrics.clientOutboundChannelInterceptor());
+		broker = new SimpleBrokerMessageHandler(new ExecutorSubscribableChannel(), outboundChannel, brokerChannel,
+				List.of("/topic"));
+		broker.start();
+	}
+
+	@AfterEach
+	void stopBroker() {
+		broker.stop();
+	}
+
+	@Test
+	void broadcastRecordsFanOutAndBytes() {
+		UUID boardId = UUID.randomUUID();
+		subscribe("session-1", "/topic/board/" + boardId + "/shapes");
+		subscribe("session-2", "/topic/board/" + boardId + "/shapes");
+		subscribe("session-3", "/topic/board/" + boardId + "/shapes");
+		subscribe("session-4", "/topic/board/" + boardId + "/cursors");
+
+		byte[] payload = "{\"type\":\"SHAPE_UPDATE\"}".getBytes(StandardCharsets.UTF_8);
+		publish("/topic/board/" + boardId + "/shapes", payload);
+
+		DistributionSummary fanOut = registry.get("whiteboard.ws.broadcast.fanout").tag("topic", "shapes").summary();
+		assertEquals(1, fanOut.count());
+		assertEquals(3, fanOut.totalAmount());
+		assertEquals(payload.length, registry.get("whiteboard.ws.broadcast.payload").tag("topic", "shapes")
+				.summary().totalAmount());
+		assertEquals(3.0 * payload.length, registry.get("whiteboard.ws.delivered").counter().count());
+	}
+
+	@Test
+	void broadcastWithoutSubscribersHasNoFanOut() {
+		publish("/topic/board/" + UUID.randomUUID() + "/tiles/2/0/1", new byte[10]);
+
+		DistributionSummary fanOut = registry.get("whiteboard.ws.broadcast.fanout").tag("topic", "tiles").summary();
+		assertEquals(1, fanOut.count());
+		assertEquals(0, fanOut.totalAmount());
+	}
+
+	@Test
+	void destinationsMapToBoundedTopics() {
+		UUID boardId = UUID.randomUUID();
+		assertEquals("shapes", RealtimeMetrics.topicOf("/topic/board/" + boardId + "/shapes"));
+		assertEquals("tiles", RealtimeMetrics.topicOf("/topic/board/" + boardId + "/tiles/3/1/2"));
+		assertEquals("user", RealtimeMetrics.topicOf("/user/" + UUID.randomUUID() + "/queue/errors"));
+		assertEquals("other", RealtimeMetrics.topicOf("/topic/board/" + boardId + "/" + UUID.randomUUID()));
+		assertEquals("other", RealtimeMetrics.topicOf("/topic/board/" + boardId));
+	}
+
+	@Test
+	void handlingRecordsTypeAndOutcome() {
+		RealtimeMetrics.Handling handling = metrics.startHandling("shape.update");
+		handling.outcome("conflict");
+		handling.stop();
+
+		assertEquals(1, registry.get("whiteboard.ws.message")
+				.tag("type", "shape.update").tag("outcome", "conflict").timer().count());
+	}
+
+	@Test
+	void failedWorkIsTimedAsError() {
+		List<Exception> failures = new ArrayList<>();
+		metrics.startHandling("shape.delete").run(handling -> {
+			throw new IllegalStateException("boom");
+		}, failures::add);
+
+		assertEquals(1, failures.size());
+		assertEquals(1, registry.get("whiteboard.ws.message")
+				.tag("type", "shape.delete").tag("outcome", "error").timer().count());
+	}
+
+	private void subscribe(String sessionId, String destination) {
+		SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+		connect.setSessionId(sessionId);
+		broker.handleMessage(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+
+		SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+		headers.setSessionId(sessionId);
+		headers.setSubscriptionId("sub-" + sessionId);
+		headers.setDestination(destination);
+		broker.handleMessage(MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()));
+	}
+
+	private void publish(String destination, byte[] payload) {
+		SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		headers.setDestination(destination);
+		brokerChannel.send(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+	}
+}